@@ -0,0 +1,235 @@
+package com.chenjiabao.open.chenille.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.framework.ReflectiveMethodInvocation;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ChenilleSpElParser#parseKey} 基准测试
+ * <p>
+ * 运行：mvn -Pbenchmark test-compile exec:exec，可通过 -Djmh.args="ChenilleSpElParserBenchmark -prof gc" 指定参数
+ * <ul>
+ *   <li>legacy*：改造前的实现，每次调用创建 MethodBasedEvaluationContext 并解释执行表达式</li>
+ *   <li>parseKey*：当前实现，简单路径直接调用 getter，其余表达式编译执行，默认 key 为转义后的参数文本</li>
+ *   <li>spel / spelStrings / spelMixedTypes：同一表达式在各编译模式下的耗时。
+ *   可以编译的表达式（spelStrings）MIXED 与 IMMEDIATE 耗时相同，约为解释执行的 1/3；
+ *   不能编译的表达式（spel，字符串与数字拼接）三种模式相同；
+ *   参数的运行时类型变化时（spelMixedTypes）IMMEDIATE 模式抛出 EL1072E，MIXED 模式退回解释执行，
+ *   因此 {@link ChenilleSpElParser} 使用 MIXED</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChenilleSpElParserBenchmark {
+
+    private static final String SIMPLE = "#user.id";
+    private static final String COMPOSITE = "#user.name + ':' + #page";
+    private static final String STRINGS = "#user.name + ':' + #tenant";
+    private static final String ARITHMETIC = "#n * 2";
+    private static final List<PropertyAccessor> PROPERTY_ACCESSORS = List.of(new ReflectivePropertyAccessor());
+
+    private JoinPoint simpleJoinPoint;
+    private JoinPoint compositeJoinPoint;
+    private JoinPoint defaultJoinPoint;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        KeyService service = new KeyService();
+        simpleJoinPoint = joinPoint(service, "find", new Object[]{new User(42L, "chenille")}, User.class);
+        compositeJoinPoint = joinPoint(service, "page", new Object[]{new User(42L, "chenille"), 7}, User.class, int.class);
+        defaultJoinPoint = joinPoint(service, "list", new Object[]{42L, "vip"}, Long.class, String.class);
+    }
+
+    @Benchmark
+    public String legacySimple() {
+        return LegacySpElParser.parseKey(SIMPLE, simpleJoinPoint);
+    }
+
+    @Benchmark
+    public String parseKeySimple() {
+        return ChenilleSpElParser.parseKey(SIMPLE, simpleJoinPoint);
+    }
+
+    @Benchmark
+    public String legacyComposite() {
+        return LegacySpElParser.parseKey(COMPOSITE, compositeJoinPoint);
+    }
+
+    @Benchmark
+    public String parseKeyComposite() {
+        return ChenilleSpElParser.parseKey(COMPOSITE, compositeJoinPoint);
+    }
+
+    @Benchmark
+    public String legacyDefault() {
+        return LegacySpElParser.parseKey("", defaultJoinPoint);
+    }
+
+    @Benchmark
+    public String parseKeyDefault() {
+        return ChenilleSpElParser.parseKey("", defaultJoinPoint);
+    }
+
+    /**
+     * 参数类型固定
+     */
+    @Benchmark
+    public String spel(SpelState state) {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setPropertyAccessors(PROPERTY_ACCESSORS);
+        context.setVariable("user", state.user);
+        context.setVariable("page", 7);
+        return state.composite.getValue(context, String.class);
+    }
+
+    /**
+     * 全部为字符串拼接，可以编译
+     */
+    @Benchmark
+    public String spelStrings(SpelState state) {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setPropertyAccessors(PROPERTY_ACCESSORS);
+        context.setVariable("user", state.user);
+        context.setVariable("tenant", "tenant-a");
+        return state.strings.getValue(context, String.class);
+    }
+
+    /**
+     * 参数类型在 Integer 与 Long 之间变化，IMMEDIATE 模式下编译后的表达式抛出异常
+     */
+    @Benchmark
+    public String spelMixedTypes(SpelState state) {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setVariable("n", state.numbers[state.counter++ & 1]);
+        return state.arithmetic.getValue(context, String.class);
+    }
+
+    /**
+     * 按编译模式解析的表达式
+     */
+    @State(Scope.Thread)
+    public static class SpelState {
+        @Param({"OFF", "IMMEDIATE", "MIXED"})
+        public SpelCompilerMode compilerMode;
+
+        private Expression composite;
+        private Expression strings;
+        private Expression arithmetic;
+        private final User user = new User(42L, "chenille");
+        private final Object[] numbers = {1, 2L};
+        private int counter;
+
+        @Setup
+        public void setUp() {
+            SpelExpressionParser parser = new SpelExpressionParser(
+                    new SpelParserConfiguration(compilerMode, ChenilleSpElParserBenchmark.class.getClassLoader()));
+            composite = parser.parseExpression(COMPOSITE);
+            strings = parser.parseExpression(STRINGS);
+            arithmetic = parser.parseExpression(ARITHMETIC);
+        }
+    }
+
+    private static JoinPoint joinPoint(Object target, String name, Object[] args, Class<?>... parameterTypes)
+            throws NoSuchMethodException {
+        Method method = target.getClass().getMethod(name, parameterTypes);
+        return new MethodInvocationProceedingJoinPoint(new Invocation(target, method, args));
+    }
+
+    /**
+     * 只用于提供方法签名与参数
+     */
+    private static final class Invocation extends ReflectiveMethodInvocation {
+        private Invocation(Object target, Method method, Object[] args) {
+            super(target, target, method, args, target.getClass(), List.<Object>of((MethodInterceptor) invocation -> null));
+        }
+    }
+
+    public static class User {
+        private final Long id;
+        private final String name;
+
+        public User(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class KeyService {
+        public User find(User user) {
+            return user;
+        }
+
+        public List<User> page(User user, int page) {
+            return List.of();
+        }
+
+        public List<User> list(Long id, String type) {
+            return List.of();
+        }
+    }
+
+    /**
+     * 改造前的 ChenilleSpElParser
+     */
+    private static final class LegacySpElParser {
+        private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+        private static final Map<Method, Map<String, Expression>> CACHE = new ConcurrentHashMap<>();
+
+        private static String parseKey(String keyExpression, JoinPoint joinPoint) {
+            if (keyExpression == null || keyExpression.isEmpty()) {
+                return generateDefaultKey(joinPoint);
+            }
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            Expression expression = CACHE.computeIfAbsent(method, m -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(keyExpression, PARSER::parseExpression);
+            return expression.getValue(new MethodBasedEvaluationContext(joinPoint.getTarget(),
+                    method,
+                    joinPoint.getArgs(),
+                    new DefaultParameterNameDiscoverer()), String.class);
+        }
+
+        private static String generateDefaultKey(JoinPoint joinPoint) {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            StringBuilder sb = new StringBuilder(method.getDeclaringClass().getName())
+                    .append(".").append(method.getName()).append("(");
+            Object[] args = joinPoint.getArgs();
+            if (args != null && args.length > 0) {
+                for (Object arg : args) {
+                    sb.append(arg != null ? arg.toString() : "null").append(",");
+                }
+                sb.setLength(sb.length() - 1);
+            }
+            return sb.append(")").toString();
+        }
+    }
+}
@@ -7,6 +7,8 @@ import java.lang.annotation.Target;
 
 /**
  * 清除缓存中的指定数据
+ * <p>
+ * 默认在方法成功执行后清除（返回 Mono、Flux 时在其正常完成后清除），方法抛出异常时不清除
  */
 @Target({ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
@@ -17,12 +19,31 @@ public @interface ChenilleCacheEvict {
     String cacheName() default "";
 
     /**
-     * 缓存key，支持SpEL表达式
+     * 缓存key，支持SpEL表达式，为空时使用默认的 key 生成规则
      */
-    String key();
+    String key() default "";
 
     /**
-     * 是否清除二级缓存
+     * 按模式清除匹配的 key，支持SpEL表达式，结果中可以使用 * 通配符，如 "'user:' + #userId + ':*'"
+     * <p>
+     * 不为空时忽略 key
+     */
+    String keyPattern() default "";
+
+    /**
+     * 是否清除整个缓存，为 true 时忽略 key 与 keyPattern
+     * <p>
+     * 二级缓存通过 SCAN 分批扫描、UNLINK 分批删除，不会阻塞 Redis
+     */
+    boolean allEntries() default false;
+
+    /**
+     * 是否在方法执行前清除，为 true 时无论方法是否抛出异常都会清除
+     */
+    boolean beforeInvocation() default false;
+
+    /**
+     * 是否清除二级缓存，为 false 时只清除本节点的一级缓存
      */
     boolean evictSecondary() default true;
 }
@@ -4,9 +4,16 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 方法执行前查缓存，命中则返回缓存值；未命中则执行方法，再把结果存缓存
+ * <p>
+ * 支持普通方法与返回 Mono、Flux 的方法：Mono 缓存其发出的值，Flux 缓存其发出的全部元素，
+ * 出错或被取消的结果不会被缓存。
+ * <p>
+ * 一级/二级缓存模式下，返回 null 或为空的 Mono 按 null 缓存，过期时间为 negativeTtl，
+ * 期间再次调用直接返回 null 或空，不再执行方法；纯 Redis 模式（ttl 大于 0）下不缓存 null 与空结果
  */
 @Target({ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
@@ -22,15 +29,43 @@ public @interface ChenilleCacheable {
     String key();
 
     /**
-     * 基础过期时间（分钟）,小于 1 时使用默认过期时间
+     * 基础过期时间（单位由 ttlUnit 指定）,小于 1 时使用默认过期时间
+     * <p>
+     * 大于 0 时为纯 Redis 模式：按方法返回类型直接读写 Redis，不经过一级/二级缓存
      */
     long ttl() default 0;
 
     /**
-     * 随机时间范围（分钟），实际过期时间 = ttl + random(0, randomRange)
+     * ttl 与 randomRange 的时间单位
+     */
+    TimeUnit ttlUnit() default TimeUnit.MINUTES;
+
+    /**
+     * 随机时间范围（单位由 ttlUnit 指定），实际过期时间 = ttl + random(0, randomRange)
      */
     long randomRange() default 0;
 
+    /**
+     * 写入后多久需要刷新（秒），大于 0 时启用提前刷新
+     * <p>
+     * 仅在一级/二级缓存模式（ttl 小于 1）下生效，到达刷新时间后仍立即返回缓存值，同时在后台重新加载一次
+     */
+    long refreshAfter() default 0;
+
+    /**
+     * 到达刷新时间后还可以返回旧值的时长（秒）
+     * <p>
+     * 超过 refreshAfter + staleFor 后视为未命中，同步加载
+     */
+    long staleFor() default 0;
+
+    /**
+     * 返回 Flux 时最多缓存的元素数量，超过后本次结果照常返回但不缓存，小于 1 时使用全局配置
+     * <p>
+     * Flux 边发出元素边缓存，不支持提前刷新
+     */
+    int maxElements() default 0;
+
     /**
      * 是否同步到二级缓存
      */
@@ -3,32 +3,67 @@ package com.chenjiabao.open.chenille.aspect;
 import com.chenjiabao.open.chenille.annotation.ChenilleCacheEvict;
 import com.chenjiabao.open.chenille.annotation.ChenilleCacheable;
 import com.chenjiabao.open.chenille.cache.ChenilleSpElParser;
+import com.chenjiabao.open.chenille.cache.ChenilleTwoLevelCache;
 import com.chenjiabao.open.chenille.core.ChenilleCacheUtils;
 import com.chenjiabao.open.chenille.core.ChenilleStringUtils;
 import com.chenjiabao.open.chenille.model.property.ChenilleCache;
-import com.fasterxml.jackson.core.type.TypeReference;
-import org.aspectj.lang.JoinPoint;
+import com.fasterxml.jackson.databind.JavaType;
+import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.After;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.cache.Cache;
+import org.springframework.core.ResolvableType;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
+/**
+ * 缓存切面
+ * <p>
+ * 按方法的返回类型选择缓存方式：
+ * <ul>
+ *   <li>Mono：缓存发出的值，出错时不缓存；一级/二级缓存模式下为空时按 null 缓存 negativeTtl，纯 Redis 模式下为空时不缓存</li>
+ *   <li>Flux：边发出元素边收集，正常完成且元素数量不超过上限时缓存为列表，出错、取消或超过上限时不缓存</li>
+ *   <li>其他：在当前线程同步读取缓存与执行方法，直接返回方法的返回类型</li>
+ * </ul>
+ */
+@Slf4j
 @Aspect
 public record ChenilleCacheAspect(ChenilleCache chenilleCache,
                                   ChenilleCacheUtils cacheUtils,
                                   ChenilleStringUtils stringUtils) {
 
+    // 纯 Redis 模式下方法 -> 缓存值的 Jackson 类型，每个方法只解析一次
+    private static final Map<Method, JavaType> VALUE_TYPES = new ConcurrentHashMap<>();
+
     @Around("@annotation(chenilleCacheable)")
-    public Mono<Object> aroundCacheable(ProceedingJoinPoint joinPoint,
-                                ChenilleCacheable chenilleCacheable) throws Throwable {
+    public Object aroundCacheable(ProceedingJoinPoint joinPoint,
+                                  ChenilleCacheable chenilleCacheable) throws Throwable {
+        if (cacheUtils == null) {
+            // 未启用缓存
+            return joinPoint.proceed();
+        }
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Method method = signature.getMethod();
         Class<?> returnType = signature.getReturnType();
-        Type genericReturnType = signature.getMethod().getGenericReturnType();
 
         // 解析key
         String key = ChenilleSpElParser.parseKey(chenilleCacheable.key(), joinPoint);
@@ -38,49 +73,274 @@ public record ChenilleCacheAspect(ChenilleCache chenilleCache,
                 ? chenilleCache.getName()
                 : chenilleCacheable.cacheName();
 
+        if (Mono.class.isAssignableFrom(returnType)) {
+            return cacheMono(joinPoint, chenilleCacheable, cacheName, key, method);
+        }
+        if (Flux.class.isAssignableFrom(returnType)) {
+            return cacheFlux(joinPoint, chenilleCacheable, cacheName, key, method);
+        }
+        return cacheValue(joinPoint, chenilleCacheable, cacheName, key, method);
+    }
+
+    /**
+     * 返回 Mono 的方法：缓存发出的值
+     */
+    private Mono<Object> cacheMono(ProceedingJoinPoint joinPoint,
+                                   ChenilleCacheable chenilleCacheable,
+                                   String cacheName,
+                                   String key,
+                                   Method method) {
         long ttl = chenilleCacheable.ttl();
+        if (ttl <= 0 && chenilleCacheable.refreshAfter() > 0) {
+            // ----------- 一级/二级缓存 + 提前刷新模式 ------------
+            return cacheUtils.computeIfAbsent(cacheName, key,
+                    Duration.ofSeconds(chenilleCacheable.refreshAfter()),
+                    Duration.ofSeconds(chenilleCacheable.staleFor()),
+                    k -> proceedMono(joinPoint));
+        } else if (ttl <= 0) {
+            // ----------- 一级/二级缓存模式 ------------
+            return cacheUtils.computeIfAbsent(cacheName, key, k -> proceedMono(joinPoint));
+        }
+        // ----------- 纯 Redis 模式 ------------
+        return cacheUtils.getRedisValue(key, valueType(method))
+                .switchIfEmpty(Mono.defer(() -> proceedMono(joinPoint)
+                        .flatMap(result -> putRedis(key, result, chenilleCacheable).thenReturn(result))));
+    }
 
-        if(ttl <= 0){
+    /**
+     * 返回 Flux 的方法：元素照常发出，正常完成且数量不超过上限时缓存为列表
+     */
+    private Flux<Object> cacheFlux(ProceedingJoinPoint joinPoint,
+                                   ChenilleCacheable chenilleCacheable,
+                                   String cacheName,
+                                   String key,
+                                   Method method) {
+        int maxElements = chenilleCacheable.maxElements() > 0
+                ? chenilleCacheable.maxElements()
+                : chenilleCache.getFluxMaxElements();
+        long ttl = chenilleCacheable.ttl();
+        if (ttl <= 0) {
             // ----------- 一级/二级缓存模式 ------------
-            return cacheUtils.computeIfAbsent(cacheName, key, k ->
-                    Mono.defer(() -> {
-                        try {
-                            Object result = joinPoint.proceed();
-                            return Mono.just(result);
-                        } catch (Throwable e) {
-                            return Mono.error(e);
+            Mono<List<Object>> cached = cacheUtils.get(cacheName, key, List.class)
+                    .map(ChenilleCacheAspect::elements);
+            return cachedOrCollect(cached, collectAndStore(joinPoint, maxElements,
+                    elements -> cacheUtils.put(cacheName, key, elements)));
+        }
+        // ----------- 纯 Redis 模式 ------------
+        Mono<List<Object>> cached = cacheUtils.<List<?>>getRedisValue(key, valueType(method))
+                .map(ChenilleCacheAspect::elements);
+        return cachedOrCollect(cached, collectAndStore(joinPoint, maxElements,
+                elements -> putRedis(key, elements, chenilleCacheable)));
+    }
+
+    /**
+     * 命中时发出缓存的元素（缓存的空列表同样视为命中，不再执行方法），未命中时订阅 loader
+     */
+    private static Flux<Object> cachedOrCollect(Mono<List<Object>> cached, Flux<Object> loader) {
+        return cached.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMapMany(hit -> hit.<Flux<Object>>map(Flux::fromIterable).orElse(loader));
+    }
+
+    private static List<Object> elements(List<?> list) {
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 订阅方法返回的 Flux，元素原样发出，正常完成后再写入缓存
+     *
+     * @param maxElements 最多缓存的元素数量
+     * @param store       写入缓存
+     */
+    private Flux<Object> collectAndStore(ProceedingJoinPoint joinPoint,
+                                         int maxElements,
+                                         Function<List<Object>, Mono<Void>> store) {
+        return Flux.defer(() -> {
+            Flux<?> source;
+            try {
+                source = (Flux<?>) joinPoint.proceed();
+            } catch (Throwable e) {
+                return Flux.error(e);
+            }
+            if (source == null) {
+                return Flux.empty();
+            }
+            // 每次订阅单独收集，Flux 的信号是串行的，不需要同步
+            List<Object> elements = new ArrayList<>();
+            boolean[] overflow = {false};
+            return source.cast(Object.class)
+                    .doOnNext(element -> {
+                        if (overflow[0]) {
+                            return;
+                        }
+                        if (elements.size() < maxElements) {
+                            elements.add(element);
+                        } else {
+                            overflow[0] = true;
+                            elements.clear();
                         }
                     })
-            ).cast(Object.class);
-        }else {
+                    .concatWith(Mono.defer(() -> overflow[0] ? Mono.<Void>empty() : store.apply(elements))
+                            .onErrorResume(e -> {
+                                log.error("写入缓存失败 -> {}", e.getMessage());
+                                return Mono.empty();
+                            })
+                            .then(Mono.empty()));
+        });
+    }
+
+    /**
+     * 普通方法：在当前线程同步读取缓存与执行方法
+     */
+    private Object cacheValue(ProceedingJoinPoint joinPoint,
+                              ChenilleCacheable chenilleCacheable,
+                              String cacheName,
+                              String key,
+                              Method method) throws Throwable {
+        long ttl = chenilleCacheable.ttl();
+        if (ttl > 0) {
             // ----------- 纯 Redis 模式 ------------
-            return cacheUtils.getRedisJson(key, new TypeReference<>() {
-                @Override
-                public Type getType() {
-                    return genericReturnType;
-                }
-            }).switchIfEmpty(
-                    Mono.defer(() -> {
+            Duration timeout = Duration.ofMillis(chenilleCache.getLoadTimeout());
+            Object cached = cacheUtils.getRedisValue(key, valueType(method)).block(timeout);
+            if (cached != null) {
+                return cached;
+            }
+            Object result = joinPoint.proceed();
+            if (result != null) {
+                putRedis(key, result, chenilleCacheable).block(timeout);
+            }
+            return result;
+        }
+
+        ChenilleTwoLevelCache cache = cacheUtils.cacheManager().getTwoLevelCache(cacheName);
+        if (chenilleCacheable.refreshAfter() > 0) {
+            // ----------- 一级/二级缓存 + 提前刷新模式 ------------
+            CompletableFuture<Object> future = cache.retrieveRefreshing(key,
+                    TimeUnit.SECONDS.toMillis(chenilleCacheable.refreshAfter()),
+                    TimeUnit.SECONDS.toMillis(chenilleCacheable.staleFor()),
+                    () -> {
                         try {
-                            Object result = joinPoint.proceed();
-                            return cacheUtils.putRedis(key, result, ttl, TimeUnit.MINUTES)
-                                    .thenReturn(result);
+                            return CompletableFuture.completedFuture(joinPoint.proceed());
                         } catch (Throwable e) {
-                            return Mono.error(e);
+                            return CompletableFuture.failedFuture(e);
                         }
-                    })
-            );
+                    });
+            try {
+                return future.get(chenilleCache.getLoadTimeout(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (TimeoutException e) {
+                throw new Cache.ValueRetrievalException(key, null, e);
+            }
+        }
+        // ----------- 一级/二级缓存模式 ------------
+        try {
+            return cache.get(key, () -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            });
+        } catch (Cache.ValueRetrievalException e) {
+            // 抛出方法自身的异常
+            Throwable cause = e.getCause();
+            throw cause instanceof UndeclaredThrowableException undeclared ? undeclared.getUndeclaredThrowable()
+                    : cause != null ? cause : e;
         }
     }
 
-    @After("@annotation(chenilleCacheEvict)")
-    public Mono<Void> afterCacheEvict(JoinPoint joinPoint, ChenilleCacheEvict chenilleCacheEvict) {
-        String key = ChenilleSpElParser.parseKey(chenilleCacheEvict.key(), joinPoint);
+    /**
+     * 执行返回 Mono 的方法，方法本身抛出异常时转为错误信号
+     */
+    @SuppressWarnings("unchecked")
+    private Mono<Object> proceedMono(ProceedingJoinPoint joinPoint) {
+        return Mono.defer(() -> {
+            try {
+                Mono<Object> result = (Mono<Object>) joinPoint.proceed();
+                return result == null ? Mono.empty() : result;
+            } catch (Throwable e) {
+                return Mono.error(e);
+            }
+        });
+    }
 
+    /**
+     * 纯 Redis 模式写入，以 JSON 字节保存，与 {@link ChenilleCacheUtils#getRedisValue} 的读取方式一致
+     * <p>
+     * 过期时间 = ttl + random(0, randomRange)，再按全局的 ttl-jitter 配置随机化
+     */
+    private Mono<Void> putRedis(String key, Object value, ChenilleCacheable chenilleCacheable) {
+        long ttl = chenilleCacheable.ttl();
+        if (chenilleCacheable.randomRange() > 0) {
+            ttl += ThreadLocalRandom.current().nextLong(chenilleCacheable.randomRange() + 1);
+        }
+        return cacheUtils.putRedisValue(key, value, ttl, chenilleCacheable.ttlUnit());
+    }
+
+    /**
+     * 纯 Redis 模式下缓存值的类型：Mono 为元素类型，Flux 为元素类型的列表，其他为方法的返回类型
+     */
+    private JavaType valueType(Method method) {
+        return VALUE_TYPES.computeIfAbsent(method, m -> {
+            ResolvableType returnType = ResolvableType.forMethodReturnType(m);
+            Class<?> rawType = returnType.toClass();
+            if (!Mono.class.isAssignableFrom(rawType) && !Flux.class.isAssignableFrom(rawType)) {
+                return cacheUtils.jsonUtils().constructType(m.getGenericReturnType());
+            }
+            ResolvableType generic = returnType.getGeneric(0);
+            Type elementType = generic == ResolvableType.NONE || generic.resolve() == null
+                    ? Object.class
+                    : generic.getType();
+            if (Mono.class.isAssignableFrom(rawType)) {
+                return cacheUtils.jsonUtils().constructType(elementType);
+            }
+            return cacheUtils.jsonUtils().mapper().getTypeFactory()
+                    .constructCollectionType(List.class, cacheUtils.jsonUtils().constructType(elementType));
+        });
+    }
+
+    @Around("@annotation(chenilleCacheEvict)")
+    public Object aroundCacheEvict(ProceedingJoinPoint joinPoint, ChenilleCacheEvict chenilleCacheEvict) throws Throwable {
+        if (cacheUtils == null) {
+            // 未启用缓存
+            return joinPoint.proceed();
+        }
         String cacheName = stringUtils.isBlank(chenilleCacheEvict.cacheName())
                 ? chenilleCache.getName()
                 : chenilleCacheEvict.cacheName();
+        ChenilleTwoLevelCache cache = cacheUtils.cacheManager().getTwoLevelCache(cacheName);
 
-        return cacheUtils.evict(cacheName, key);
+        Runnable evict;
+        if (chenilleCacheEvict.allEntries()) {
+            evict = chenilleCacheEvict.evictSecondary() ? cache::clear : cache::clearLocal;
+        } else if (!stringUtils.isBlank(chenilleCacheEvict.keyPattern())) {
+            String pattern = ChenilleSpElParser.parseKey(chenilleCacheEvict.keyPattern(), joinPoint);
+            evict = chenilleCacheEvict.evictSecondary()
+                    ? () -> cache.evictByPattern(pattern)
+                    : () -> cache.clearLocal(pattern);
+        } else {
+            String key = ChenilleSpElParser.parseKey(chenilleCacheEvict.key(), joinPoint);
+            evict = chenilleCacheEvict.evictSecondary()
+                    ? () -> cache.evict(key)
+                    : () -> cache.evictLocal(key);
+        }
+
+        if (chenilleCacheEvict.beforeInvocation()) {
+            evict.run();
+            return joinPoint.proceed();
+        }
+        Object result = joinPoint.proceed();
+        // 响应式方法在正常完成后清除
+        if (result instanceof Mono<?> mono) {
+            return mono.doOnSuccess(value -> evict.run());
+        }
+        if (result instanceof Flux<?> flux) {
+            return flux.doOnComplete(evict);
+        }
+        evict.run();
+        return result;
     }
 }
@@ -0,0 +1,177 @@
+package com.chenjiabao.open.chenille.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 布隆过滤器，放在二级缓存前面判断 key 是否可能存在
+ * <p>
+ * 判断为不存在的 key 一定不存在，不需要再读取一级缓存、二级缓存，也不需要执行加载，
+ * 避免大量不存在的 key 穿透到数据源或占满空值缓存。
+ * <p>
+ * 位数组大小与哈希函数个数按预计元素数量与误判率计算，key 按字符串形式计算哈希，
+ * 同一配置下不同节点、不同 JVM 计算出的位置相同，可以共享同一个 Redis 位数组。
+ * <p>
+ * 创建后直到第一次 {@link #populate} 完成前视为未就绪，未就绪时所有 key 都判断为可能存在；
+ * 空的位数组会把所有 key 判断为不存在，没有加载器的过滤器因此始终不拦截任何 key
+ */
+@Slf4j
+public abstract class ChenilleBloomFilter {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // 位数组大小
+    private final long bits;
+    // 哈希函数个数
+    private final int hashes;
+    private volatile boolean ready = false;
+    // 判断为不存在的次数
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param expectedInsertions 预计元素数量
+     * @param fpp                误判率，如 0.01
+     * @param maxBits            位数组的最大位数
+     */
+    protected ChenilleBloomFilter(long expectedInsertions, double fpp, long maxBits) {
+        long n = Math.max(1, expectedInsertions);
+        this.bits = bitSize(expectedInsertions, fpp, maxBits);
+        this.hashes = Math.max(1, (int) Math.round((double) this.bits / n * Math.log(2)));
+    }
+
+    /**
+     * 按预计元素数量与误判率计算位数组大小，子类在构造时据此分配位数组
+     */
+    protected static long bitSize(long expectedInsertions, double fpp, long maxBits) {
+        long n = Math.max(1, expectedInsertions);
+        double p = fpp <= 0 || fpp >= 1 ? 0.01 : fpp;
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        return Math.max(64, Math.min(maxBits, m));
+    }
+
+    /**
+     * key 是否可能存在，未就绪时总是为 true
+     */
+    public Mono<Boolean> mightContain(Object key) {
+        if (!ready) {
+            return Mono.just(true);
+        }
+        return contains(offsets(key)).doOnNext(present -> {
+            if (!present) {
+                rejected.increment();
+            }
+        });
+    }
+
+    /**
+     * 加入 key
+     */
+    public abstract Mono<Void> put(Object key);
+
+    /**
+     * 批量加入 key
+     */
+    public abstract Mono<Void> putAll(Collection<?> keys);
+
+    /**
+     * 是否在多个节点间共享
+     * <p>
+     * 不共享时，其他节点写入的 key 需要通过缓存变更通知加入本节点的过滤器
+     */
+    public abstract boolean isShared();
+
+    /**
+     * 位数组中各位置是否都已设置
+     */
+    protected abstract Mono<Boolean> contains(long[] offsets);
+
+    /**
+     * 加载全部存在的 key，加载期间视为未就绪，加载失败时保持未就绪（不拦截任何 key）
+     *
+     * @param keys      全部存在的 key
+     * @param batchSize 每批加入的 key 数量
+     * @return 加入的 key 数量
+     */
+    public Mono<Long> populate(Flux<?> keys, int batchSize) {
+        return Mono.defer(() -> {
+            ready = false;
+            return keys.buffer(Math.max(1, batchSize))
+                    .concatMap(batch -> putAll(batch).thenReturn(batch.size()))
+                    .reduce(0L, Long::sum)
+                    .doOnSuccess(count -> ready = true)
+                    .doOnError(e -> log.error("加载布隆过滤器失败，过滤器在重新加载前不拦截任何 key -> {}", e.getMessage()));
+        });
+    }
+
+    /**
+     * 是否就绪
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 判断为不存在的次数
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 位数组大小
+     */
+    public long bitSize() {
+        return bits;
+    }
+
+    /**
+     * 哈希函数个数
+     */
+    public int hashCount() {
+        return hashes;
+    }
+
+    /**
+     * key 在位数组中的位置
+     * <p>
+     * 对 key 的字符串形式计算 64 位哈希并拆成两个 32 位哈希，按 h1 + i * h2 得到各位置
+     */
+    protected long[] offsets(Object key) {
+        long hash = mix(hashChars(String.valueOf(key)));
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long[] offsets = new long[hashes];
+        for (int i = 0; i < hashes; i++) {
+            long combined = (h1 & 0xFFFFFFFFL) + (long) i * (h2 | 1);
+            offsets[i] = Long.remainderUnsigned(combined, bits);
+        }
+        return offsets;
+    }
+
+    private static long hashChars(CharSequence chars) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * 打散哈希的各个位（MurmurHash3 的 fmix64）
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,22 @@
+package com.chenjiabao.open.chenille.cache;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 布隆过滤器加载器
+ * <p>
+ * 应用启动时提供某个缓存全部存在的 key，批量加入该缓存的布隆过滤器，加载完成前过滤器不拦截任何 key。
+ * 使用者可以注入多个该类型的 Bean，每个缓存一个
+ */
+public interface ChenilleBloomFilterLoader {
+
+    /**
+     * 缓存名称，需要在 specs 中开启 bloom-filter
+     */
+    String cacheName();
+
+    /**
+     * 全部存在的 key，如数据库中全部的主键
+     */
+    Flux<?> keys();
+}
@@ -0,0 +1,107 @@
+package com.chenjiabao.open.chenille.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 缓存端点（只读）
+ * <p>
+ * 列出已创建的缓存及其估算大小与统计信息，需要引入 spring-boot-actuator，
+ * 并通过 management.endpoints.web.exposure.include=chenilleCaches 暴露
+ *
+ * @param cacheManager 二级缓存管理器
+ */
+@Endpoint(id = "chenilleCaches")
+public record ChenilleCacheEndpoint(ChenilleTwoLevelCacheManager cacheManager) {
+
+    /**
+     * 全部缓存
+     */
+    @ReadOperation
+    public Map<String, CacheDescriptor> caches() {
+        Map<String, CacheDescriptor> caches = new TreeMap<>();
+        cacheManager.getTwoLevelCaches().forEach(cache -> caches.put(cache.getName(), describe(cache)));
+        return caches;
+    }
+
+    /**
+     * 指定缓存，不存在时返回 null（404）
+     */
+    @ReadOperation
+    public CacheDescriptor cache(@Selector String name) {
+        ChenilleTwoLevelCache cache = cacheManager.getExistingTwoLevelCache(name);
+        return cache == null ? null : describe(cache);
+    }
+
+    private CacheDescriptor describe(ChenilleTwoLevelCache cache) {
+        Long localSize = null;
+        Long localWeight = null;
+        if (cache.isLocalEnabled()
+                && cache.primaryCache().getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            localSize = nativeCache.estimatedSize();
+            localWeight = nativeCache.policy().eviction()
+                    .flatMap(eviction -> eviction.weightedSize().stream().boxed().findFirst())
+                    .orElse(null);
+        }
+        ChenilleCacheStats stats = cache.stats();
+        return new CacheDescriptor(cache.isLocalEnabled(),
+                cache.isRemoteEnabled(),
+                localSize,
+                localWeight,
+                stats.localHitCount(),
+                stats.localMissCount(),
+                stats.remoteHitCount(),
+                stats.remoteMissCount(),
+                stats.localNegativeHitCount(),
+                stats.remoteNegativeHitCount(),
+                stats.remoteErrorCount(),
+                stats.backfillCount(),
+                cache.singleFlight().executedCount() + cache.reactiveSingleFlight().executedCount(),
+                cache.singleFlight().coalescedCount() + cache.reactiveSingleFlight().coalescedCount(),
+                cache.singleFlight().inFlightCount() + cache.reactiveSingleFlight().inFlightCount(),
+                cache.hotKeys() == null ? List.of() : cache.hotKeys().topKeys());
+    }
+
+    /**
+     * 缓存描述
+     *
+     * @param localEnabled   是否启用一级缓存
+     * @param remoteEnabled  是否启用二级缓存
+     * @param localSize      一级缓存估算的条目数，非 Caffeine 时为 null
+     * @param localWeight    一级缓存估算占用的字节数，未按字节淘汰时为 null
+     * @param localHits      一级缓存命中次数
+     * @param localMisses    一级缓存未命中次数
+     * @param remoteHits     二级缓存命中次数
+     * @param remoteMisses   二级缓存未命中次数
+     * @param localNegativeHits  一级缓存命中空值的次数
+     * @param remoteNegativeHits 二级缓存命中空值的次数
+     * @param remoteErrors   二级缓存读写失败次数
+     * @param backfills      回填一级缓存的次数
+     * @param loads          执行加载的次数
+     * @param coalescedLoads 被合并的加载次数
+     * @param inFlightLoads  正在加载的 key 数量
+     * @param hotKeys        当前的热点 key，按估算频率从高到低排列，未启用时为空
+     */
+    public record CacheDescriptor(boolean localEnabled,
+                                  boolean remoteEnabled,
+                                  Long localSize,
+                                  Long localWeight,
+                                  long localHits,
+                                  long localMisses,
+                                  long remoteHits,
+                                  long remoteMisses,
+                                  long localNegativeHits,
+                                  long remoteNegativeHits,
+                                  long remoteErrors,
+                                  long backfills,
+                                  long loads,
+                                  long coalescedLoads,
+                                  long inFlightLoads,
+                                  List<ChenilleHotKeys.HotKey> hotKeys) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.chenjiabao.open.chenille.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 带逻辑过期时间的缓存值
+ * <p>
+ * 一级缓存与二级缓存中都保存该对象，用于提前刷新（refresh-ahead）与过期后短暂返回旧值（stale-while-revalidate）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChenilleCacheEntry implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 缓存值，与直接缓存时一样需要可以被缓存值序列化器处理，使用 JDK 序列化时需要实现 {@link Serializable}
+     */
+    @SuppressWarnings("serial")
+    private Object value;
+    /**
+     * 需要刷新的时间点(毫秒时间戳)，在此之前直接返回
+     */
+    private long refreshTime;
+    /**
+     * 逻辑过期时间点(毫秒时间戳)，刷新时间点到该时间点之间返回旧值并在后台刷新，之后视为未命中
+     */
+    private long expireTime;
+    /**
+     * 加载耗时(单位：毫秒)，用于概率提前刷新，越慢的加载越早刷新
+     */
+    private long loadTime;
+
+    /**
+     * 创建缓存值
+     *
+     * @param value        缓存值
+     * @param refreshAfter 写入后多久需要刷新(单位：毫秒)
+     * @param staleFor     需要刷新后还可以返回旧值的时长(单位：毫秒)
+     */
+    public static ChenilleCacheEntry of(Object value, long refreshAfter, long staleFor) {
+        return of(value, refreshAfter, staleFor, 0);
+    }
+
+    /**
+     * 创建缓存值
+     *
+     * @param value        缓存值
+     * @param refreshAfter 写入后多久需要刷新(单位：毫秒)
+     * @param staleFor     需要刷新后还可以返回旧值的时长(单位：毫秒)
+     * @param loadTime     加载耗时(单位：毫秒)
+     */
+    public static ChenilleCacheEntry of(Object value, long refreshAfter, long staleFor, long loadTime) {
+        long now = System.currentTimeMillis();
+        return new ChenilleCacheEntry(value, now + refreshAfter, now + refreshAfter + staleFor, loadTime);
+    }
+}
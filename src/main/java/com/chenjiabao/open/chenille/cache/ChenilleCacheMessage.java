@@ -3,13 +3,34 @@ package com.chenjiabao.open.chenille.cache;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.util.Collection;
 
 /**
  * 缓存消息
  */
 @Data
 public class ChenilleCacheMessage implements Serializable {
+    /**
+     * 发送方实例 ID，接收方据此忽略自己发出的消息
+     */
+    private String origin;
     private String cacheName;
     private Object key;
+    /**
+     * 批量变更的 key，批量操作只发送一条消息
+     */
+    private Collection<?> keys;
     private Object value;
+    /**
+     * 是否为清理整个缓存（或按 pattern 清理），为 true 时忽略 keys
+     */
+    private boolean clear;
+    /**
+     * 清理时 key 的匹配模式，支持 * 通配符，为 null 时清理整个缓存
+     */
+    private String pattern;
+    /**
+     * 发送方的版本号，接收方的版本栅栏据此推进，旧版本节点发送的消息为 null
+     */
+    private Long version;
 }
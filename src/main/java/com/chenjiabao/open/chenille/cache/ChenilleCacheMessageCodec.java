@@ -0,0 +1,337 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 缓存消息编解码器
+ * <p>
+ * 将一批缓存变更消息编码为紧凑的二进制信封：
+ * <pre>
+ *   magic(1) version(1) origin(16) groupCount(varint)
+ *   group: cacheName(string) op(1) keyCount(varint) key...
+ *   key:   tag(1) payload
+ *   [trailer(1) version(8)...] [trailer(1) pattern(string)...]
+ * </pre>
+ * 尾部按分组顺序记录每组变更的版本号与清理时的匹配模式，旧版本节点读完分组后忽略尾部，因此仍可互相识别
+ * （旧版本节点会把清理操作当作没有 key 的清理，不做任何事）；
+ * 同时兼容旧版本节点发送的 JSON 消息。
+ * <p>
+ * 按 JSON 编码的 key 只还原允许的类型，不会按消息中的类名加载任意类；无法还原的 key 所在分组改为清理整个缓存，不会漏掉清理
+ */
+@Slf4j
+public class ChenilleCacheMessageCodec {
+
+    private static final byte MAGIC = (byte) 0xCE;
+    private static final byte VERSION = 1;
+
+    /**
+     * 操作类型：清理指定 key
+     */
+    public static final byte OP_EVICT = 1;
+    /**
+     * 操作类型：清理整个缓存，或清理匹配模式的 key
+     */
+    public static final byte OP_CLEAR = 2;
+
+    // 尾部标记：分组版本号
+    private static final byte TRAILER_VERSIONS = 1;
+    // 尾部标记：清理时的匹配模式
+    private static final byte TRAILER_PATTERNS = 2;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INTEGER = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_UUID = 4;
+    private static final byte TAG_JSON = 9;
+
+    // 按读到的数量预分配列表时的上限，实际数量更多时列表自动扩容
+    private static final int MAX_INITIAL_CAPACITY = 256;
+
+    // 总是允许还原的 key 类型
+    private static final Set<String> DEFAULT_KEY_TYPES = Set.of(
+            Boolean.class.getName(),
+            Byte.class.getName(),
+            Short.class.getName(),
+            Character.class.getName(),
+            Float.class.getName(),
+            Double.class.getName(),
+            BigInteger.class.getName(),
+            BigDecimal.class.getName());
+    // 无法还原的 key
+    private static final Object UNRESOLVED = new Object();
+
+    private final ChenilleJsonUtils jsonUtils;
+    private final Collection<String> keyTypes;
+
+    public ChenilleCacheMessageCodec(ChenilleJsonUtils jsonUtils) {
+        this(jsonUtils, List.of());
+    }
+
+    /**
+     * @param jsonUtils JSON 工具
+     * @param keyTypes  允许还原的 key 类型，完整类名或以 . 结尾的包名前缀
+     */
+    public ChenilleCacheMessageCodec(ChenilleJsonUtils jsonUtils, Collection<String> keyTypes) {
+        this.jsonUtils = jsonUtils;
+        this.keyTypes = keyTypes == null ? List.of() : List.copyOf(keyTypes);
+    }
+
+    /**
+     * 编码一批消息
+     * @param origin 发送方实例 ID
+     * @param messages 消息，按缓存名分组
+     * @return 二进制信封
+     */
+    public byte[] encode(UUID origin, Collection<ChenilleCacheMessage> messages) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + messages.size() * 32);
+             DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(origin.getMostSignificantBits());
+            out.writeLong(origin.getLeastSignificantBits());
+            writeVarInt(out, messages.size());
+            for (ChenilleCacheMessage message : messages) {
+                writeString(out, message.getCacheName());
+                out.writeByte(message.isClear() ? OP_CLEAR : OP_EVICT);
+                Collection<?> keys = message.getKeys() == null || message.isClear() ? List.of() : message.getKeys();
+                writeVarInt(out, keys.size());
+                for (Object key : keys) {
+                    writeKey(out, key);
+                }
+            }
+            out.writeByte(TRAILER_VERSIONS);
+            for (ChenilleCacheMessage message : messages) {
+                out.writeLong(message.getVersion() == null ? 0 : message.getVersion());
+            }
+            if (messages.stream().anyMatch(message -> message.getPattern() != null)) {
+                out.writeByte(TRAILER_PATTERNS);
+                for (ChenilleCacheMessage message : messages) {
+                    writeString(out, message.getPattern() == null ? "" : message.getPattern());
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 解码消息
+     * @param body 消息体，可以是二进制信封，也可以是旧版本的 JSON 消息
+     * @return 消息列表，每条消息的 keys 为同一个缓存下需要清理的 key
+     */
+    public List<ChenilleCacheMessage> decode(byte[] body) {
+        if (body == null || body.length == 0) {
+            return List.of();
+        }
+        if (body[0] != MAGIC) {
+            return decodeLegacy(body);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            in.readByte();
+            byte version = in.readByte();
+            if (version != VERSION) {
+                log.warn("不支持的缓存消息版本 -> {}", version);
+                return List.of();
+            }
+            String origin = new UUID(in.readLong(), in.readLong()).toString();
+            int groupCount = readLength(in);
+            List<ChenilleCacheMessage> messages = new ArrayList<>(Math.min(groupCount, MAX_INITIAL_CAPACITY));
+            for (int i = 0; i < groupCount; i++) {
+                ChenilleCacheMessage message = new ChenilleCacheMessage();
+                message.setOrigin(origin);
+                message.setCacheName(readString(in));
+                message.setClear(in.readByte() == OP_CLEAR);
+                int keyCount = readLength(in);
+                List<Object> keys = new ArrayList<>(Math.min(keyCount, MAX_INITIAL_CAPACITY));
+                for (int j = 0; j < keyCount; j++) {
+                    keys.add(readKey(in));
+                }
+                if (keys.contains(UNRESOLVED)) {
+                    message.setClear(true);
+                    keys = List.of();
+                }
+                message.setKeys(keys);
+                messages.add(message);
+            }
+            // 旧版本节点发送的消息没有尾部，不认识的尾部及其之后的内容忽略
+            while (in.available() > 0) {
+                byte trailer = in.readByte();
+                if (trailer == TRAILER_VERSIONS) {
+                    for (ChenilleCacheMessage message : messages) {
+                        long groupVersion = in.readLong();
+                        message.setVersion(groupVersion == 0 ? null : groupVersion);
+                    }
+                } else if (trailer == TRAILER_PATTERNS) {
+                    for (ChenilleCacheMessage message : messages) {
+                        String pattern = readString(in);
+                        message.setPattern(pattern.isEmpty() ? null : pattern);
+                    }
+                } else {
+                    break;
+                }
+            }
+            return messages;
+        } catch (IOException e) {
+            log.error("解码缓存消息失败 -> {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * 旧版本节点发送的 JSON 消息
+     */
+    private List<ChenilleCacheMessage> decodeLegacy(byte[] body) {
+        try {
+            ChenilleCacheMessage message = jsonUtils.mapper()
+                    .readerFor(ChenilleCacheMessage.class)
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(body);
+            return message == null ? List.of() : List.of(message);
+        } catch (IOException e) {
+            log.error("解码 JSON 缓存消息失败 -> {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void writeKey(DataOutputStream out, Object key) throws IOException {
+        switch (key) {
+            case null -> out.writeByte(TAG_NULL);
+            case String str -> {
+                out.writeByte(TAG_STRING);
+                writeString(out, str);
+            }
+            case Integer i -> {
+                out.writeByte(TAG_INTEGER);
+                out.writeInt(i);
+            }
+            case Long l -> {
+                out.writeByte(TAG_LONG);
+                out.writeLong(l);
+            }
+            case UUID uuid -> {
+                out.writeByte(TAG_UUID);
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            }
+            default -> {
+                // 其他类型的 key 使用 JSON 编码，并记录类型以便还原
+                out.writeByte(TAG_JSON);
+                writeString(out, key.getClass().getName());
+                byte[] json = jsonUtils.toBytes(key);
+                writeVarInt(out, json.length);
+                out.write(json);
+            }
+        }
+    }
+
+    private Object readKey(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case TAG_NULL -> null;
+            case TAG_STRING -> readString(in);
+            case TAG_INTEGER -> in.readInt();
+            case TAG_LONG -> in.readLong();
+            case TAG_UUID -> new UUID(in.readLong(), in.readLong());
+            case TAG_JSON -> {
+                String typeName = readString(in);
+                byte[] json = new byte[readLength(in)];
+                in.readFully(json);
+                yield readJsonKey(typeName, json);
+            }
+            default -> throw new IOException("未知的 key 类型 -> " + tag);
+        };
+    }
+
+    /**
+     * 还原按 JSON 编码的 key，类型不允许、不存在或无法反序列化时为 {@link #UNRESOLVED}
+     */
+    private Object readJsonKey(String typeName, byte[] json) {
+        if (!isAllowedKeyType(typeName)) {
+            log.warn("缓存消息中的 key 类型 {} 不在允许的列表中，改为清理整个缓存", typeName);
+            return UNRESOLVED;
+        }
+        try {
+            Class<?> type = ClassUtils.forName(typeName, ChenilleCacheMessageCodec.class.getClassLoader());
+            Object key = jsonUtils.fromJsonBytes(json, type);
+            return key == null ? UNRESOLVED : key;
+        } catch (ClassNotFoundException | LinkageError | RuntimeException e) {
+            log.warn("无法还原缓存消息中类型为 {} 的 key，改为清理整个缓存 -> {}", typeName, e.getMessage());
+            return UNRESOLVED;
+        }
+    }
+
+    private boolean isAllowedKeyType(String typeName) {
+        if (DEFAULT_KEY_TYPES.contains(typeName)) {
+            return true;
+        }
+        for (String keyType : keyTypes) {
+            if (keyType.endsWith(".") ? typeName.startsWith(keyType) : typeName.equals(keyType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 28) {
+                throw new IOException("变长整数过长");
+            }
+            b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * 读取长度或数量，每个字节、每个元素至少占用 1 字节，因此不会超过剩余的字节数，
+     * 损坏或伪造的消息不会导致分配过大的数组
+     */
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0 || length > in.available()) {
+            throw new IOException("长度超出消息范围 -> " + length);
+        }
+        return length;
+    }
+}
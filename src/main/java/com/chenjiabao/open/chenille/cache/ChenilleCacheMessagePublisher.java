@@ -0,0 +1,223 @@
+package com.chenjiabao.open.chenille.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存变更通知发布器
+ * <p>
+ * 将时间窗口内的变更合并为一条二进制信封批量发送，信封中携带本实例 ID，接收方据此忽略自己发出的消息
+ */
+@Slf4j
+public class ChenilleCacheMessagePublisher {
+
+    private final String topic;
+    private final UUID origin;
+    private final ChenilleCacheMessageCodec codec;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+    private final Executor asyncExecutor;
+    // 合并窗口(单位：毫秒)，小于 1 时不合并
+    private final long window;
+    // 单批最大 key 数量，达到后立即发送
+    private final int batchSize;
+    // 二级缓存熔断器，熔断期间不发送
+    private final ChenilleCircuitBreaker circuitBreaker;
+
+    // 待发送的变更
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    // 已发送的消息数量（合并后的信封数）
+    private final LongAdder published = new LongAdder();
+    // 熔断期间丢弃的消息数量
+    private final LongAdder dropped = new LongAdder();
+
+    public ChenilleCacheMessagePublisher(String topic,
+                                         UUID origin,
+                                         ChenilleCacheMessageCodec codec,
+                                         RedisTemplate<String, Object> redisTemplate,
+                                         ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
+                                         Executor asyncExecutor,
+                                         long window,
+                                         int batchSize,
+                                         ChenilleCircuitBreaker circuitBreaker) {
+        this.topic = topic;
+        this.origin = origin;
+        this.codec = codec;
+        this.redisTemplate = redisTemplate;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.asyncExecutor = asyncExecutor;
+        this.window = window;
+        this.batchSize = Math.max(1, batchSize);
+        this.circuitBreaker = circuitBreaker;
+        this.scheduler = window > 0
+                ? Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "chenille-cache-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * 发布缓存变更
+     * @param cacheName 缓存名
+     * @param keys 变更的 key
+     * @param version 变更的版本号
+     */
+    public void publish(String cacheName, Collection<?> keys, long version) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        for (Object key : keys) {
+            pending.add(new Pending(cacheName, key, version));
+        }
+        int size = pendingSize.addAndGet(keys.size());
+        if (scheduler == null || size >= batchSize) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                flushScheduled.set(false);
+                flush();
+            }, window, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 发布清理整个缓存（或清理匹配模式的 key）的通知
+     * <p>
+     * 先发送之前待发送的变更，再立即单独发送一条清理通知
+     *
+     * @param cacheName 缓存名
+     * @param pattern   key 的匹配模式，为 null 时清理整个缓存
+     * @param version   变更的版本号
+     */
+    public void publishClear(String cacheName, String pattern, long version) {
+        flush();
+        ChenilleCacheMessage message = new ChenilleCacheMessage();
+        message.setCacheName(cacheName);
+        message.setKeys(List.of());
+        message.setClear(true);
+        message.setPattern(pattern);
+        message.setVersion(version);
+        send(Map.of(cacheName, message));
+    }
+
+    /**
+     * 立即发送所有待发送的变更
+     */
+    public void flush() {
+        // 按缓存名分组，同一批内重复的 key 只发送一次，版本号取最大值
+        Map<String, ChenilleCacheMessage> groups = new LinkedHashMap<>();
+        int drained = 0;
+        Pending entry;
+        while ((entry = pending.poll()) != null) {
+            drained++;
+            Pending current = entry;
+            ChenilleCacheMessage group = groups.computeIfAbsent(current.cacheName(), name -> {
+                ChenilleCacheMessage message = new ChenilleCacheMessage();
+                message.setCacheName(name);
+                message.setKeys(new LinkedHashSet<>());
+                message.setVersion(current.version());
+                return message;
+            });
+            @SuppressWarnings("unchecked")
+            Set<Object> keys = (Set<Object>) group.getKeys();
+            keys.add(current.key());
+            group.setVersion(Math.max(group.getVersion(), current.version()));
+            if (drained >= batchSize) {
+                send(groups);
+                groups = new LinkedHashMap<>();
+                pendingSize.addAndGet(-drained);
+                drained = 0;
+            }
+        }
+        pendingSize.addAndGet(-drained);
+        if (!groups.isEmpty()) {
+            send(groups);
+        }
+    }
+
+    private void send(Map<String, ChenilleCacheMessage> groups) {
+        if (!circuitBreaker.tryAcquire()) {
+            // Redis 不可用时其他节点也收不到通知，直接丢弃，不在内存中堆积
+            dropped.increment();
+            return;
+        }
+        byte[] body = codec.encode(origin, groups.values());
+        published.increment();
+        byte[] channel = topic.getBytes(StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+
+        if (reactiveRedisTemplate != null) {
+            reactiveRedisTemplate.execute(connection -> connection.pubSubCommands()
+                            .publish(ByteBuffer.wrap(channel), ByteBuffer.wrap(body)))
+                    .subscribe(null,
+                            e -> {
+                                circuitBreaker.onFailure();
+                                log.error("发送缓存变更通知失败 -> {}", e.getMessage());
+                            },
+                            () -> circuitBreaker.onSuccess(System.nanoTime() - start));
+            return;
+        }
+        if (redisTemplate != null) {
+            asyncExecutor.execute(() -> {
+                try {
+                    redisTemplate.execute((RedisCallback<Long>) (RedisConnection connection) ->
+                            connection.publish(channel, body));
+                    circuitBreaker.onSuccess(System.nanoTime() - start);
+                } catch (Exception e) {
+                    circuitBreaker.onFailure();
+                    log.error("发送缓存变更通知失败 -> {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * 已发送的消息数量
+     */
+    public long publishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * 熔断期间丢弃的消息数量
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 本实例 ID
+     */
+    public UUID origin() {
+        return origin;
+    }
+
+    private record Pending(String cacheName, Object key, long version) {
+    }
+
+    /**
+     * 发送剩余的变更并停止调度
+     */
+    public void shutdown() {
+        flush();
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 缓存指标
+ * <p>
+ * 需要引入 micrometer-core，注册到 Spring Boot Actuator 的 MeterRegistry 后即可采集。
+ * 按缓存名称（cache）与层级（tier：l1 一级缓存，l2 二级缓存）打标签，之后创建的缓存也会自动注册
+ *
+ * @param cacheManager    二级缓存管理器
+ * @param removalListener 一级缓存移除监听，未启用一级缓存时为 null
+ */
+public record ChenilleCacheMeterBinder(ChenilleTwoLevelCacheManager cacheManager,
+                                       ChenilleCaffeineCacheRemovalListener removalListener) implements MeterBinder {
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        // 缓存未命中时的加载次数：executed 为真正执行的加载，coalesced 为被合并到已有加载的次数
+        FunctionCounter.builder("chenille.cache.loads", cacheManager,
+                        sum(cache -> cache.singleFlight().executedCount()
+                                + cache.reactiveSingleFlight().executedCount()))
+                .description("缓存未命中时的加载次数")
+                .tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder("chenille.cache.loads", cacheManager,
+                        sum(cache -> cache.singleFlight().coalescedCount()
+                                + cache.reactiveSingleFlight().coalescedCount()))
+                .description("缓存未命中时的加载次数")
+                .tag("result", "coalesced")
+                .register(registry);
+        cacheManager.addCacheCreatedListener(cache -> bindCache(registry, cache));
+
+        // 缓存锁：加锁次数与发生竞争的次数
+        FunctionCounter.builder("chenille.cache.lock.acquisitions", cacheManager,
+                        manager -> manager.getLockRegistry().acquisitionCount())
+                .description("缓存锁加锁次数")
+                .register(registry);
+        FunctionCounter.builder("chenille.cache.lock.contentions", cacheManager,
+                        manager -> manager.getLockRegistry().contentionCount())
+                .description("缓存锁加锁时发生竞争的次数")
+                .register(registry);
+
+        // 缓存变更通知：合并后实际发送的消息数量，熔断期间丢弃的消息数量
+        ChenilleCacheMessagePublisher publisher = cacheManager.getMessagePublisher();
+        if (publisher != null) {
+            FunctionCounter.builder("chenille.cache.messages.published", publisher,
+                            ChenilleCacheMessagePublisher::publishedCount)
+                    .description("发送的缓存变更通知数量")
+                    .register(registry);
+            FunctionCounter.builder("chenille.cache.messages.dropped", publisher,
+                            ChenilleCacheMessagePublisher::droppedCount)
+                    .description("二级缓存熔断期间丢弃的缓存变更通知数量")
+                    .register(registry);
+        }
+
+        // 二级缓存熔断器：当前状态（0 关闭，1 打开，2 半开）、进入各状态的次数、被拒绝的调用与丢弃的写入
+        ChenilleCircuitBreaker circuitBreaker = cacheManager.getCircuitBreaker();
+        Gauge.builder("chenille.cache.l2.breaker.state", circuitBreaker, b -> b.state().ordinal())
+                .description("二级缓存熔断器状态，0 关闭，1 打开，2 半开")
+                .register(registry);
+        for (ChenilleCircuitBreaker.State state : ChenilleCircuitBreaker.State.values()) {
+            FunctionCounter.builder("chenille.cache.l2.breaker.transitions", circuitBreaker,
+                            b -> b.transitionCount(state))
+                    .description("二级缓存熔断器进入各状态的次数")
+                    .tag("state", state.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionCounter.builder("chenille.cache.l2.breaker.rejections", circuitBreaker,
+                        ChenilleCircuitBreaker::rejectedCount)
+                .description("二级缓存熔断期间被拒绝的调用次数")
+                .register(registry);
+        FunctionCounter.builder("chenille.cache.l2.writes.dropped", circuitBreaker,
+                        ChenilleCircuitBreaker::droppedWriteCount)
+                .description("同时进行的二级缓存写入过多而丢弃的写入次数")
+                .register(registry);
+        Gauge.builder("chenille.cache.l2.writes.pending", circuitBreaker, ChenilleCircuitBreaker::pendingWriteCount)
+                .description("正在进行的二级缓存写入数量")
+                .register(registry);
+
+        // 一级缓存按原因统计的移除次数
+        if (removalListener != null) {
+            for (RemovalCause cause : RemovalCause.values()) {
+                FunctionCounter.builder("chenille.cache.l1.removals", removalListener,
+                                listener -> listener.removalCount(cause))
+                        .description("一级缓存按原因统计的移除次数")
+                        .tag("cause", cause.name().toLowerCase())
+                        .register(registry);
+            }
+        }
+
+        ChenilleOffHeapStore offHeapStore = cacheManager.getOffHeapStore();
+        if (offHeapStore != null) {
+            // 堆外缓存：占用字节数、缓存值数量、命中与淘汰次数
+            Gauge.builder("chenille.cache.offheap.used", offHeapStore, ChenilleOffHeapStore::usedBytes)
+                    .description("堆外缓存已使用的字节数")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("chenille.cache.offheap.capacity", offHeapStore, ChenilleOffHeapStore::capacity)
+                    .description("堆外缓存最大可用的字节数")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("chenille.cache.offheap.entries", offHeapStore, ChenilleOffHeapStore::size)
+                    .description("堆外缓存中的缓存值数量")
+                    .register(registry);
+            FunctionCounter.builder("chenille.cache.offheap.gets", offHeapStore, ChenilleOffHeapStore::hitCount)
+                    .description("堆外缓存读取次数")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("chenille.cache.offheap.gets", offHeapStore, ChenilleOffHeapStore::missCount)
+                    .description("堆外缓存读取次数")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("chenille.cache.offheap.evictions", offHeapStore, ChenilleOffHeapStore::evictionCount)
+                    .description("堆外缓存空间不足被淘汰的次数")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 按缓存注册的指标
+     */
+    private void bindCache(MeterRegistry registry, ChenilleTwoLevelCache cache) {
+        Tags tags = Tags.of("cache", cache.getName());
+        ChenilleCacheStats stats = cache.stats();
+
+        if (cache.isLocalEnabled()) {
+            counter(registry, "chenille.cache.gets", "缓存读取次数", stats, ChenilleCacheStats::localHitCount,
+                    tags.and("tier", "l1", "result", "hit"));
+            counter(registry, "chenille.cache.gets", "缓存读取次数", stats, ChenilleCacheStats::localMissCount,
+                    tags.and("tier", "l1", "result", "miss"));
+            counter(registry, "chenille.cache.negative.hits", "命中空值的次数（同时计入命中次数）", stats,
+                    ChenilleCacheStats::localNegativeHitCount, tags.and("tier", "l1"));
+            counter(registry, "chenille.cache.backfills", "二级缓存命中后回填一级缓存的次数", stats,
+                    ChenilleCacheStats::backfillCount, tags);
+            counter(registry, "chenille.cache.invalidations", "失效通知涉及的 key 数量", stats,
+                    ChenilleCacheStats::invalidationReceivedCount, tags.and("direction", "received"));
+
+            if (cache.primaryCache().getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+                // Caffeine 自身的统计：命中率、淘汰次数、估算大小等
+                CaffeineCacheMetrics.monitor(registry, nativeCache, cache.getName(), Tags.of("tier", "l1"));
+                if (nativeCache.policy().eviction().map(Policy.Eviction::isWeighted).orElse(false)) {
+                    // 按字节淘汰时一级缓存当前占用的估算字节数
+                    Gauge.builder("chenille.cache.l1.weight", nativeCache,
+                                    c -> c.policy().eviction().flatMap(e -> e.weightedSize().stream().boxed().findFirst()).orElse(0L))
+                            .description("一级缓存当前占用的估算字节数")
+                            .baseUnit("bytes")
+                            .tags(tags)
+                            .strongReference(true)
+                            .register(registry);
+                }
+            }
+        }
+
+        if (cache.isRemoteEnabled()) {
+            counter(registry, "chenille.cache.gets", "缓存读取次数", stats, ChenilleCacheStats::remoteHitCount,
+                    tags.and("tier", "l2", "result", "hit"));
+            counter(registry, "chenille.cache.gets", "缓存读取次数", stats, ChenilleCacheStats::remoteMissCount,
+                    tags.and("tier", "l2", "result", "miss"));
+            counter(registry, "chenille.cache.negative.hits", "命中空值的次数（同时计入命中次数）", stats,
+                    ChenilleCacheStats::remoteNegativeHitCount, tags.and("tier", "l2"));
+            counter(registry, "chenille.cache.l2.errors", "二级缓存读写失败次数", stats,
+                    ChenilleCacheStats::remoteErrorCount, tags);
+            counter(registry, "chenille.cache.invalidations", "失效通知涉及的 key 数量", stats,
+                    ChenilleCacheStats::invalidationSentCount, tags.and("direction", "sent"));
+            FunctionTimer.builder("chenille.cache.l2.latency", stats,
+                            ChenilleCacheStats::remoteReadCount, ChenilleCacheStats::remoteReadNanos, TimeUnit.NANOSECONDS)
+                    .description("二级缓存往返耗时")
+                    .tags(tags.and("op", "read"))
+                    .register(registry);
+            FunctionTimer.builder("chenille.cache.l2.latency", stats,
+                            ChenilleCacheStats::remoteWriteCount, ChenilleCacheStats::remoteWriteNanos, TimeUnit.NANOSECONDS)
+                    .description("二级缓存往返耗时")
+                    .tags(tags.and("op", "write"))
+                    .register(registry);
+        }
+
+        ChenilleHotKeys hotKeys = cache.hotKeys();
+        if (hotKeys != null) {
+            // 热点 key：固定在本地的数量、抽样次数，以及 Top-N 各名次的估算频率（key 只在端点中展示，避免标签基数过大）
+            Gauge.builder("chenille.cache.hotkeys.pinned", hotKeys, ChenilleHotKeys::pinnedCount)
+                    .description("固定在本地的热点 key 数量")
+                    .tags(tags)
+                    .register(registry);
+            counter(registry, "chenille.cache.hotkeys.samples", "热点 key 探测的抽样次数", hotKeys,
+                    ChenilleHotKeys::sampledCount, tags);
+            for (int i = 0; i < hotKeys.topN(); i++) {
+                int rank = i;
+                Gauge.builder("chenille.cache.hotkeys.rate", hotKeys, h -> {
+                            List<ChenilleHotKeys.HotKey> top = h.topKeys();
+                            return rank < top.size() ? top.get(rank).rate() : 0;
+                        })
+                        .description("Top-N 热点 key 估算的访问频率")
+                        .baseUnit("requests/s")
+                        .tags(tags.and("rank", String.valueOf(rank + 1)))
+                        .register(registry);
+            }
+        }
+
+        ChenilleBloomFilter bloomFilter = cache.bloomFilter();
+        if (bloomFilter != null) {
+            // 布隆过滤器：判断为不存在而直接返回的次数，是否已加载完成
+            counter(registry, "chenille.cache.bloom.rejections", "布隆过滤器判断为不存在而直接返回的次数", bloomFilter,
+                    ChenilleBloomFilter::rejectedCount, tags);
+            Gauge.builder("chenille.cache.bloom.ready", bloomFilter, f -> f.isReady() ? 1 : 0)
+                    .description("布隆过滤器是否已加载完成")
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        // 加载耗时与失败次数
+        FunctionTimer.builder("chenille.cache.load.duration", cache,
+                        c -> c.singleFlight().completedCount() + c.reactiveSingleFlight().completedCount(),
+                        c -> c.singleFlight().loadNanos() + c.reactiveSingleFlight().loadNanos(),
+                        TimeUnit.NANOSECONDS)
+                .description("缓存未命中时的加载耗时")
+                .tags(tags)
+                .register(registry);
+        counter(registry, "chenille.cache.load.failures", "缓存未命中时加载失败（含超时）的次数", cache,
+                c -> c.singleFlight().failureCount() + c.reactiveSingleFlight().failureCount(), tags);
+    }
+
+    private static <T> void counter(MeterRegistry registry,
+                                    String name,
+                                    String description,
+                                    T target,
+                                    ToDoubleFunction<T> count,
+                                    Tags tags) {
+        FunctionCounter.builder(name, target, count)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static ToDoubleFunction<ChenilleTwoLevelCacheManager> sum(ToDoubleFunction<ChenilleTwoLevelCache> metric) {
+        return manager -> manager.getTwoLevelCaches().stream()
+                .mapToDouble(metric)
+                .sum();
+    }
+}
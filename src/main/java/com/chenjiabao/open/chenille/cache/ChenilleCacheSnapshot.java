@@ -0,0 +1,274 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * 一级缓存快照
+ * <p>
+ * 应用关闭时把每个缓存最热的一级缓存值连同过期时间写入本地文件，启动时恢复，滚动发布后的新实例不必从空的一级缓存开始。
+ * 文件通过内存映射读写，格式：
+ * <pre>
+ *   magic(4) version(2) createdAt(8) cacheCount(4)
+ *     nameLength(2) name entryCount(4)
+ *       expireAt(8) keyLength(4) key valueLength(4) value
+ *   crc32c(4)
+ * </pre>
+ * expireAt 为毫秒时间戳，0 表示不过期；key 与缓存值通过缓存值序列化器编码；crc32c 为前面全部字节的校验和。
+ * 校验失败、版本不符或超过最长有效时间的快照直接忽略，空值与堆外缓存中的值不写入快照
+ */
+@Slf4j
+public class ChenilleCacheSnapshot {
+
+    private static final int MAGIC = 0x43534E50;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 8 + 4;
+    private static final int CHECKSUM_BYTES = 4;
+    // 单次内存映射最多 2GB
+    private static final long MAX_FILE_BYTES = Integer.MAX_VALUE;
+
+    private final Path path;
+    private final int maxEntries;
+    private final long maxAge;
+    private final RedisSerializer<Object> serializer;
+
+    /**
+     * @param path       快照文件路径
+     * @param maxEntries 每个缓存最多写入的缓存值数量
+     * @param maxAge     快照的最长有效时间(单位：毫秒)，小于 1 时不限制
+     * @param serializer key 与缓存值的序列化器
+     */
+    public ChenilleCacheSnapshot(Path path, int maxEntries, long maxAge, RedisSerializer<Object> serializer) {
+        this.path = path;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxAge = maxAge;
+        this.serializer = serializer;
+    }
+
+    /**
+     * 写入快照，先写临时文件再替换，写入中途失败不会破坏上一次的快照
+     *
+     * @param caches 缓存
+     * @return 写入的缓存值数量
+     */
+    public int save(Collection<ChenilleTwoLevelCache> caches) throws IOException {
+        long now = System.currentTimeMillis();
+        long size = HEADER_BYTES + CHECKSUM_BYTES;
+        int total = 0;
+        List<CacheSection> sections = new ArrayList<>();
+        for (ChenilleTwoLevelCache cache : caches) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cache);
+            byte[] name = cache.getName().getBytes(StandardCharsets.UTF_8);
+            if (nativeCache == null || name.length > 0xFFFF) {
+                continue;
+            }
+            CacheSection section = new CacheSection(name, new ArrayList<>());
+            size += 2 + name.length + 4;
+            Optional<Policy.VarExpiration<Object, Object>> expiration = nativeCache.policy().expireVariably();
+            for (Map.Entry<Object, Object> entry : hottest(nativeCache).entrySet()) {
+                if (entry.getValue() == null || entry.getValue() instanceof NullValue) {
+                    continue;
+                }
+                long expireAt = expiration.flatMap(policy -> policy.getExpiresAfter(entry.getKey()))
+                        .map(remaining -> now + Math.max(1, remaining.toMillis()))
+                        .orElse(0L);
+                byte[] key;
+                byte[] value;
+                try {
+                    key = serializer.serialize(entry.getKey());
+                    value = serializer.serialize(entry.getValue());
+                } catch (RuntimeException e) {
+                    log.debug("缓存 [{}] 的 key {} 无法序列化，不写入快照 -> {}", cache.getName(), entry.getKey(), e.getMessage());
+                    continue;
+                }
+                if (key == null || value == null) {
+                    continue;
+                }
+                long entrySize = 8 + 4 + key.length + 4 + value.length;
+                if (size + entrySize > MAX_FILE_BYTES) {
+                    break;
+                }
+                size += entrySize;
+                section.entries().add(new SnapshotEntry(expireAt, key, value));
+            }
+            sections.add(section);
+            total += section.entries().size();
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putShort(VERSION).putLong(now).putInt(sections.size());
+            for (CacheSection section : sections) {
+                buffer.putShort((short) section.name().length).put(section.name()).putInt(section.entries().size());
+                for (SnapshotEntry entry : section.entries()) {
+                    buffer.putLong(entry.expireAt())
+                            .putInt(entry.key().length).put(entry.key())
+                            .putInt(entry.value().length).put(entry.value());
+                }
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().flip());
+            buffer.putInt((int) crc.getValue());
+            buffer.force();
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return total;
+    }
+
+    /**
+     * 恢复快照，已过期的缓存值跳过，一级缓存中已存在的 key 不覆盖；恢复后删除快照文件，避免之后异常重启时恢复更旧的数据
+     *
+     * @param cacheManager 二级缓存管理器
+     * @return 恢复的缓存值数量，快照不存在或无效时为 0
+     */
+    public int restore(ChenilleTwoLevelCacheManager cacheManager) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+        int restored = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + CHECKSUM_BYTES || size > MAX_FILE_BYTES) {
+                log.warn("缓存快照 {} 大小异常，忽略", path);
+                return 0;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, (int) size - CHECKSUM_BYTES));
+            if ((int) crc.getValue() != buffer.getInt((int) size - CHECKSUM_BYTES)) {
+                log.warn("缓存快照 {} 校验失败，忽略", path);
+                return 0;
+            }
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                log.warn("缓存快照 {} 格式或版本不符，忽略", path);
+                return 0;
+            }
+            long now = System.currentTimeMillis();
+            long createdAt = buffer.getLong();
+            if (maxAge > 0 && now - createdAt > maxAge) {
+                log.info("缓存快照 {} 已超过最长有效时间 {} 毫秒，忽略", path, maxAge);
+                return 0;
+            }
+            int cacheCount = buffer.getInt();
+            for (int i = 0; i < cacheCount; i++) {
+                byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(name);
+                int entryCount = buffer.getInt();
+                ChenilleTwoLevelCache cache = cacheManager.getTwoLevelCache(new String(name, StandardCharsets.UTF_8));
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cache);
+                for (int j = 0; j < entryCount; j++) {
+                    long expireAt = buffer.getLong();
+                    byte[] key = new byte[buffer.getInt()];
+                    buffer.get(key);
+                    byte[] value = new byte[buffer.getInt()];
+                    buffer.get(value);
+                    if (nativeCache == null || (expireAt != 0 && expireAt <= now)) {
+                        continue;
+                    }
+                    if (restore(cache, nativeCache, key, value, expireAt == 0 ? 0 : expireAt - now)) {
+                        restored++;
+                    }
+                }
+            }
+        }
+        Files.deleteIfExists(path);
+        return restored;
+    }
+
+    /**
+     * 快照文件路径
+     */
+    public Path path() {
+        return path;
+    }
+
+    private boolean restore(ChenilleTwoLevelCache cache,
+                            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache,
+                            byte[] keyBytes,
+                            byte[] valueBytes,
+                            long remaining) {
+        Object key;
+        Object value;
+        try {
+            key = serializer.deserialize(keyBytes);
+            value = serializer.deserialize(valueBytes);
+        } catch (RuntimeException e) {
+            log.debug("缓存 [{}] 的快照值无法反序列化，跳过 -> {}", cache.getName(), e.getMessage());
+            return false;
+        }
+        if (key == null || value == null) {
+            return false;
+        }
+        Optional<Policy.VarExpiration<Object, Object>> expiration = nativeCache.policy().expireVariably();
+        if (remaining > 0 && expiration.isPresent()) {
+            return expiration.get().putIfAbsent(key, value, Duration.ofMillis(remaining)) == null;
+        }
+        return nativeCache.asMap().putIfAbsent(key, value) == null;
+    }
+
+    /**
+     * 最热的缓存值，没有淘汰策略时按遍历顺序选取
+     */
+    private Map<Object, Object> hottest(com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache) {
+        return nativeCache.policy().eviction()
+                .map(eviction -> eviction.hottest(maxEntries))
+                .orElseGet(() -> {
+                    Map<Object, Object> entries = new LinkedHashMap<>();
+                    for (Map.Entry<Object, Object> entry : nativeCache.asMap().entrySet()) {
+                        if (entries.size() >= maxEntries) {
+                            break;
+                        }
+                        entries.put(entry.getKey(), entry.getValue());
+                    }
+                    return entries;
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(ChenilleTwoLevelCache cache) {
+        if (cache == null || !cache.isLocalEnabled()
+                || !(cache.primaryCache().getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return null;
+        }
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache;
+    }
+
+    private record CacheSection(byte[] name, List<SnapshotEntry> entries) {
+    }
+
+    private record SnapshotEntry(long expireAt, byte[] key, byte[] value) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.chenjiabao.open.chenille.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存统计
+ * <p>
+ * 每个缓存一份，按层级记录命中、未命中、二级缓存耗时、回填与失效通知次数，
+ * 只做累加，不依赖任何指标库，由 {@link ChenilleCacheMeterBinder} 读取后导出
+ */
+public class ChenilleCacheStats {
+
+    // 一级缓存（含堆外缓存）
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    // 二级缓存
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder remoteErrors = new LongAdder();
+    private final LongAdder remoteReads = new LongAdder();
+    private final LongAdder remoteReadNanos = new LongAdder();
+    private final LongAdder remoteWrites = new LongAdder();
+    private final LongAdder remoteWriteNanos = new LongAdder();
+    // 命中的空值（加载结果为 null 的缓存）
+    private final LongAdder localNegativeHits = new LongAdder();
+    private final LongAdder remoteNegativeHits = new LongAdder();
+    // 二级缓存命中后回填一级缓存
+    private final LongAdder backfills = new LongAdder();
+    // 失效通知涉及的 key 数量
+    private final LongAdder invalidationsSent = new LongAdder();
+    private final LongAdder invalidationsReceived = new LongAdder();
+
+    /**
+     * 记录一级缓存读取
+     */
+    public void recordLocal(boolean hit) {
+        (hit ? localHits : localMisses).increment();
+    }
+
+    /**
+     * 记录二级缓存读取
+     *
+     * @param hits   命中的 key 数量
+     * @param misses 未命中的 key 数量
+     * @param nanos  耗时(单位：纳秒)
+     */
+    public void recordRemoteRead(int hits, int misses, long nanos) {
+        remoteHits.add(hits);
+        remoteMisses.add(misses);
+        remoteReads.increment();
+        remoteReadNanos.add(nanos);
+    }
+
+    /**
+     * 记录命中空值，空值同时计入命中次数
+     *
+     * @param local 是否为一级缓存
+     * @param count 命中空值的 key 数量
+     */
+    public void recordNegativeHit(boolean local, int count) {
+        if (count > 0) {
+            (local ? localNegativeHits : remoteNegativeHits).add(count);
+        }
+    }
+
+    /**
+     * 记录二级缓存写入
+     *
+     * @param nanos 耗时(单位：纳秒)
+     */
+    public void recordRemoteWrite(long nanos) {
+        remoteWrites.increment();
+        remoteWriteNanos.add(nanos);
+    }
+
+    /**
+     * 记录二级缓存读写失败
+     */
+    public void recordRemoteError() {
+        remoteErrors.increment();
+    }
+
+    /**
+     * 记录回填一级缓存
+     */
+    public void recordBackfill(int count) {
+        backfills.add(count);
+    }
+
+    /**
+     * 记录发出的失效通知
+     */
+    public void recordInvalidationSent(int keys) {
+        invalidationsSent.add(keys);
+    }
+
+    /**
+     * 记录收到的失效通知
+     */
+    public void recordInvalidationReceived(int keys) {
+        invalidationsReceived.add(keys);
+    }
+
+    public long localHitCount() {
+        return localHits.sum();
+    }
+
+    public long localMissCount() {
+        return localMisses.sum();
+    }
+
+    public long remoteHitCount() {
+        return remoteHits.sum();
+    }
+
+    public long remoteMissCount() {
+        return remoteMisses.sum();
+    }
+
+    public long localNegativeHitCount() {
+        return localNegativeHits.sum();
+    }
+
+    public long remoteNegativeHitCount() {
+        return remoteNegativeHits.sum();
+    }
+
+    public long remoteErrorCount() {
+        return remoteErrors.sum();
+    }
+
+    public long remoteReadCount() {
+        return remoteReads.sum();
+    }
+
+    public long remoteReadNanos() {
+        return remoteReadNanos.sum();
+    }
+
+    public long remoteWriteCount() {
+        return remoteWrites.sum();
+    }
+
+    public long remoteWriteNanos() {
+        return remoteWriteNanos.sum();
+    }
+
+    public long backfillCount() {
+        return backfills.sum();
+    }
+
+    public long invalidationSentCount() {
+        return invalidationsSent.sum();
+    }
+
+    public long invalidationReceivedCount() {
+        return invalidationsReceived.sum();
+    }
+}
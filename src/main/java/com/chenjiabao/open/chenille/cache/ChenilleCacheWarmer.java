@@ -0,0 +1,37 @@
+package com.chenjiabao.open.chenille.cache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 缓存预热器
+ * <p>
+ * 应用启动完成、对外报告就绪之前执行，预热的 key 分批通过一次 Redis 往返读取并回填一级缓存，
+ * 二级缓存中也不存在的 key 通过 {@link #load} 从数据源加载后写入两级缓存。
+ * 使用者可以注入多个该类型的 Bean，多个预热器并行执行
+ */
+public interface ChenilleCacheWarmer {
+
+    /**
+     * 缓存名称
+     */
+    String cacheName();
+
+    /**
+     * 需要预热的 key，如最近访问最多的主键
+     */
+    Flux<?> keys();
+
+    /**
+     * 加载二级缓存中不存在的 key，默认不加载
+     *
+     * @param keys 二级缓存中不存在的 key
+     * @return key -> 缓存值，未包含的 key 不写入缓存
+     */
+    default Mono<? extends Map<?, ?>> load(Collection<?> keys) {
+        return Mono.empty();
+    }
+}
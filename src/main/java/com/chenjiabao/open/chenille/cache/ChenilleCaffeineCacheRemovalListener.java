@@ -6,25 +6,40 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.Nullable;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一级缓存移除监听
+ * <p>
+ * 按移除原因统计次数：SIZE 超出最大缓存、EXPIRED 超出过期时间、EXPLICIT 显式移除、REPLACED 旧数据被更新、COLLECTED 被垃圾回收
+ */
 @Slf4j
 public class ChenilleCaffeineCacheRemovalListener implements RemovalListener<Object, Object> {
 
+    private final Map<RemovalCause, LongAdder> removals = new EnumMap<>(RemovalCause.class);
+
+    public ChenilleCaffeineCacheRemovalListener() {
+        for (RemovalCause cause : RemovalCause.values()) {
+            removals.put(cause, new LongAdder());
+        }
+    }
+
     @Override
     public void onRemoval(@Nullable Object key,
                           @Nullable Object value,
                           @NonNull RemovalCause cause) {
-        log.info("Caffeine [一级缓存] 移除: {}, value: {}, cause: {}", key, value, cause.name());
-        // 超出最大缓存
-        if (cause == RemovalCause.SIZE) {
-        }
-        // 超出过期时间
-        if (cause == RemovalCause.EXPIRED) {
-        }
-        // 显式移除
-        if (cause == RemovalCause.EXPLICIT) {
-        }
-        // 旧数据被更新
-        if (cause == RemovalCause.REPLACED) {
+        removals.get(cause).increment();
+        if (log.isDebugEnabled()) {
+            log.debug("Caffeine [一级缓存] 移除: {}, cause: {}", key, cause.name());
         }
     }
+
+    /**
+     * 指定原因的移除次数
+     */
+    public long removalCount(RemovalCause cause) {
+        return removals.get(cause).sum();
+    }
 }
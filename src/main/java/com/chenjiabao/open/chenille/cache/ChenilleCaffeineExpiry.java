@@ -0,0 +1,91 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.cache.support.NullValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一级缓存的过期策略
+ * <p>
+ * 普通缓存值按写入后或访问后过期，空值（{@link NullValue}）按 negativeTtl 写入后过期，
+ * 避免不存在的数据被长时间缓存。
+ * <p>
+ * 二级缓存熔断期间，被读取或写入的普通缓存值至少保留 degradedExpire，Redis 不可用时继续返回本地的旧值。
+ * <p>
+ * 配置了过期时间随机化时，每次写入（按访问过期时为每次访问）在过期时间上增加随机量，错开同时写入的缓存的过期时间
+ */
+public class ChenilleCaffeineExpiry implements Expiry<Object, Object> {
+
+    // 写入后过期时间(单位：纳秒)，小于 0 时不按写入过期
+    private final long expireAfterWrite;
+    // 访问后过期时间(单位：纳秒)，小于 0 时不按访问过期
+    private final long expireAfterAccess;
+    // 空值的过期时间(单位：纳秒)，小于 0 时与普通缓存值相同
+    private final long negativeTtl;
+    // 二级缓存熔断器，为 null 时不延长过期时间
+    private final ChenilleCircuitBreaker circuitBreaker;
+    // 过期时间随机化
+    private final ChenilleTtlJitter jitter;
+
+    /**
+     * @param expireAfterWrite  写入后过期时间(单位：毫秒)，为空时不设置
+     * @param expireAfterAccess 访问后过期时间(单位：毫秒)，为空时不设置，与 expireAfterWrite 同时配置时忽略
+     * @param negativeTtl       空值的过期时间(单位：毫秒)，为空或小于 1 时与普通缓存值相同
+     * @param circuitBreaker    二级缓存熔断器，为 null 时不延长过期时间
+     * @param jitter            过期时间随机化，为 null 时不随机化
+     */
+    public ChenilleCaffeineExpiry(Long expireAfterWrite,
+                                  Long expireAfterAccess,
+                                  Long negativeTtl,
+                                  ChenilleCircuitBreaker circuitBreaker,
+                                  ChenilleTtlJitter jitter) {
+        this.expireAfterWrite = expireAfterWrite == null ? -1 : TimeUnit.MILLISECONDS.toNanos(expireAfterWrite);
+        this.expireAfterAccess = expireAfterWrite != null || expireAfterAccess == null
+                ? -1
+                : TimeUnit.MILLISECONDS.toNanos(expireAfterAccess);
+        this.negativeTtl = negativeTtl == null || negativeTtl < 1 ? -1 : TimeUnit.MILLISECONDS.toNanos(negativeTtl);
+        this.circuitBreaker = circuitBreaker;
+        this.jitter = jitter == null ? ChenilleTtlJitter.NONE : jitter;
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return expireAfterWrite(value);
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterWrite(value);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        if (isNegative(value)) {
+            return currentDuration;
+        }
+        return degraded(expireAfterAccess < 0 ? currentDuration : jitter.apply(expireAfterAccess, TimeUnit.NANOSECONDS));
+    }
+
+    private long expireAfterWrite(Object value) {
+        long duration = expireAfterWrite >= 0 ? expireAfterWrite : expireAfterAccess;
+        if (isNegative(value)) {
+            return jitter.apply(duration < 0 ? negativeTtl : Math.min(duration, negativeTtl), TimeUnit.NANOSECONDS);
+        }
+        return degraded(duration < 0 ? Long.MAX_VALUE : jitter.apply(duration, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * 熔断期间至少保留 degradedExpire
+     */
+    private long degraded(long duration) {
+        if (circuitBreaker == null || circuitBreaker.degradedExpire() < 1 || !circuitBreaker.isDegraded()) {
+            return duration;
+        }
+        return Math.max(duration, TimeUnit.MILLISECONDS.toNanos(circuitBreaker.degradedExpire()));
+    }
+
+    private boolean isNegative(Object value) {
+        return negativeTtl >= 0 && value instanceof NullValue;
+    }
+}
@@ -0,0 +1,16 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import lombok.NonNull;
+
+/**
+ * 按估算字节数计算一级缓存条目的权重
+ */
+public record ChenilleCaffeineWeigher(ChenilleSizeEstimator sizeEstimator) implements Weigher<Object, Object> {
+
+    @Override
+    public int weigh(@NonNull Object key, @NonNull Object value) {
+        long size = sizeEstimator.estimate(key, value);
+        return (int) Math.max(1, Math.min(size, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,20 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * CBOR 编解码器
+ * <p>
+ * jackson-dataformat-cbor 是可选依赖，只有在依赖存在时才会加载该类
+ */
+final class ChenilleCborValueCodec {
+
+    private ChenilleCborValueCodec() {
+    }
+
+    static ChenilleJacksonValueCodec create() {
+        return new ChenilleJacksonValueCodec(ChenilleJacksonValueCodec.CBOR, "cbor",
+                ChenilleJacksonValueCodec.binary(new ObjectMapper(new CBORFactory())));
+    }
+}
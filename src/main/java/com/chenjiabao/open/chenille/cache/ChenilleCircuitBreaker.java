@@ -0,0 +1,222 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheCircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存熔断器，所有缓存共享
+ * <ul>
+ *   <li>关闭：正常访问 Redis，连续失败（含慢调用）达到阈值后打开</li>
+ *   <li>打开：直接跳过 Redis，不等待客户端超时；经过 openDuration 后进入半开</li>
+ *   <li>半开：放行少量请求试探，成功后关闭，失败后再次打开</li>
+ * </ul>
+ * 同时限制同时进行的二级缓存写入数量，超过后直接丢弃，避免 Redis 变慢时异步执行器中的任务堆积。
+ * 未启用时总是放行，也不限制写入数量
+ */
+@Slf4j
+public class ChenilleCircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long slowCallNanos;
+    private final long openDuration;
+    private final int halfOpenCalls;
+    private final long degradedExpire;
+    private final int maxPendingWrites;
+
+    private volatile State state = State.CLOSED;
+    // 进入当前状态的时间
+    private volatile long changedAt;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    private final Map<State, LongAdder> transitions = new EnumMap<>(State.class);
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public ChenilleCircuitBreaker(ChenilleCacheCircuitBreaker config) {
+        this.enabled = config != null && config.isEnabled();
+        ChenilleCacheCircuitBreaker settings = config == null ? new ChenilleCacheCircuitBreaker() : config;
+        this.failureThreshold = Math.max(1, settings.getFailureThreshold());
+        this.slowCallNanos = settings.getSlowCallThreshold() < 1
+                ? Long.MAX_VALUE
+                : TimeUnit.MILLISECONDS.toNanos(settings.getSlowCallThreshold());
+        this.openDuration = Math.max(0, settings.getOpenDuration());
+        this.halfOpenCalls = Math.max(1, settings.getHalfOpenCalls());
+        this.degradedExpire = settings.getDegradedExpire();
+        this.maxPendingWrites = Math.max(1, settings.getMaxPendingWrites());
+        for (State value : State.values()) {
+            transitions.put(value, new LongAdder());
+        }
+    }
+
+    /**
+     * 是否可以访问 Redis，放行后需要调用 {@link #onSuccess} 或 {@link #onFailure} 记录结果
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (System.currentTimeMillis() - changedAt < openDuration) {
+                rejected.increment();
+                return false;
+            }
+            transition(State.OPEN, State.HALF_OPEN);
+        }
+        if (halfOpenPermits.getAndDecrement() > 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() - changedAt >= openDuration) {
+            // 试探请求迟迟没有结果，重新熔断，下一个周期再试探
+            transition(State.HALF_OPEN, State.OPEN);
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * 记录一次成功的调用，超过慢调用阈值时视为失败
+     *
+     * @param nanos 耗时(单位：纳秒)
+     */
+    public void onSuccess(long nanos) {
+        if (!enabled) {
+            return;
+        }
+        if (nanos > slowCallNanos) {
+            onFailure();
+            return;
+        }
+        failures.set(0);
+        if (state == State.HALF_OPEN) {
+            transition(State.HALF_OPEN, State.CLOSED);
+        }
+    }
+
+    /**
+     * 记录一次失败的调用
+     */
+    public void onFailure() {
+        if (!enabled) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transition(State.HALF_OPEN, State.OPEN);
+        } else if (failures.incrementAndGet() >= failureThreshold) {
+            transition(State.CLOSED, State.OPEN);
+        }
+    }
+
+    /**
+     * 开始一次二级缓存写入，同时进行的写入过多时丢弃，开始后需要调用 {@link #finishWrite()}
+     *
+     * @return 是否可以写入
+     */
+    public boolean tryStartWrite() {
+        if (!enabled) {
+            return true;
+        }
+        if (pendingWrites.incrementAndGet() > maxPendingWrites) {
+            pendingWrites.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 二级缓存写入结束
+     */
+    public void finishWrite() {
+        if (enabled) {
+            pendingWrites.decrementAndGet();
+        }
+    }
+
+    /**
+     * 是否处于熔断（打开或半开）状态，此时一级缓存的过期时间被延长
+     */
+    public boolean isDegraded() {
+        return enabled && state != State.CLOSED;
+    }
+
+    /**
+     * 熔断期间一级缓存的过期时间(单位：毫秒)，小于 1 时不延长
+     */
+    public long degradedExpire() {
+        return degradedExpire;
+    }
+
+    /**
+     * 当前状态
+     */
+    public State state() {
+        return state;
+    }
+
+    /**
+     * 进入指定状态的次数
+     */
+    public long transitionCount(State to) {
+        return transitions.get(to).sum();
+    }
+
+    /**
+     * 熔断期间被拒绝的调用次数
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 因同时进行的写入过多而丢弃的写入次数
+     */
+    public long droppedWriteCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 正在进行的二级缓存写入数量
+     */
+    public int pendingWriteCount() {
+        return pendingWrites.get();
+    }
+
+    private synchronized void transition(State from, State to) {
+        if (state != from) {
+            return;
+        }
+        if (to == State.HALF_OPEN) {
+            halfOpenPermits.set(halfOpenCalls);
+        } else if (to == State.CLOSED) {
+            failures.set(0);
+        }
+        changedAt = System.currentTimeMillis();
+        state = to;
+        transitions.get(to).increment();
+        switch (to) {
+            case OPEN -> log.warn("二级缓存熔断器 {} -> {}，{} 毫秒内只使用一级缓存", from, to, openDuration);
+            case HALF_OPEN -> log.info("二级缓存熔断器 {} -> {}，放行 {} 个请求试探 Redis", from, to, halfOpenCalls);
+            case CLOSED -> log.info("二级缓存熔断器 {} -> {}，恢复访问 Redis", from, to);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 默认的缓存值大小估算器
+ * <p>
+ * 常见类型按对象布局直接估算，其余类型按 JSON 序列化后的长度估算
+ */
+public record ChenilleDefaultSizeEstimator(ChenilleJsonUtils jsonUtils) implements ChenilleSizeEstimator {
+
+    // 对象头 + 引用的近似开销
+    private static final long OBJECT_OVERHEAD = 16;
+
+    @Override
+    public long estimate(Object key, Object value) {
+        return sizeOf(key) + sizeOf(value);
+    }
+
+    private long sizeOf(Object value) {
+        return switch (value) {
+            case null -> 0;
+            case String str -> OBJECT_OVERHEAD + 24 + str.length() * 2L;
+            case byte[] bytes -> OBJECT_OVERHEAD + bytes.length;
+            case Number ignored -> OBJECT_OVERHEAD + 8;
+            case Boolean ignored -> OBJECT_OVERHEAD;
+            case Character ignored -> OBJECT_OVERHEAD;
+            case Enum<?> ignored -> 0;
+            case ChenilleCacheEntry entry -> OBJECT_OVERHEAD + 24 + sizeOf(entry.getValue());
+            case Collection<?> collection -> {
+                long size = OBJECT_OVERHEAD + 32L + collection.size() * 8L;
+                for (Object element : collection) {
+                    size += sizeOf(element);
+                }
+                yield size;
+            }
+            case Map<?, ?> map -> {
+                long size = OBJECT_OVERHEAD + 48L + map.size() * 32L;
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    size += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+                }
+                yield size;
+            }
+            default -> {
+                byte[] json = jsonUtils.toBytes(value);
+                yield OBJECT_OVERHEAD + (json == null ? 64 : json.length);
+            }
+        };
+    }
+}
@@ -0,0 +1,258 @@
+package com.chenjiabao.open.chenille.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热点 key 探测与本地固定
+ * <p>
+ * 使用带衰减的 Count-Min Sketch 对读取进行抽样计数：每 sampleRate 次读取只计数一次，
+ * 每个统计窗口结束时所有计数减半，内存占用固定为 depth * width 个 int，可以长期开启。
+ * <p>
+ * 估算频率达到阈值的 key 记入 Top-N，其中在一级缓存命中的会被固定在本地，
+ * 不受一级缓存淘汰与过期影响，按刷新间隔从二级缓存刷新，不再对 Redis 产生压力
+ */
+public class ChenilleHotKeys {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray counters;
+    private final int widthBits;
+    private final int sampleMask;
+    private final int sampleRate;
+    private final long window;
+    private final int topN;
+    private final long refreshInterval;
+    // 窗口内达到该计数视为热点
+    private final int thresholdCount;
+
+    private final AtomicLong lastDecay = new AtomicLong(System.currentTimeMillis());
+    // 热点 key -> 估算计数
+    private final Map<Object, Integer> top = new ConcurrentHashMap<>();
+    // 固定在本地的热点 key
+    private final Map<Object, Pin> pinned = new ConcurrentHashMap<>();
+    private final LongAdder sampled = new LongAdder();
+
+    /**
+     * @param sampleRate      抽样比例，会向上取整为 2 的幂
+     * @param window          统计窗口(单位：毫秒)
+     * @param threshold       热点阈值(单位：次/秒)
+     * @param topN            最多记录的热点 key 数量
+     * @param refreshInterval 固定在本地的热点 key 的刷新间隔(单位：毫秒)
+     * @param width           计数器宽度，会向上取整为 2 的幂
+     */
+    public ChenilleHotKeys(int sampleRate, long window, long threshold, int topN, long refreshInterval, int width) {
+        this.sampleRate = powerOfTwo(sampleRate);
+        this.sampleMask = this.sampleRate - 1;
+        int size = powerOfTwo(width);
+        this.widthBits = Integer.numberOfTrailingZeros(size);
+        this.counters = new AtomicIntegerArray(DEPTH * size);
+        this.window = Math.max(1, window);
+        this.topN = Math.max(1, topN);
+        this.refreshInterval = refreshInterval;
+        // 窗口内的访问次数换算为抽样后的计数
+        this.thresholdCount = (int) Math.max(1, Math.min(Integer.MAX_VALUE, threshold * this.window / 1000 / this.sampleRate));
+    }
+
+    /**
+     * 记录一次读取，按比例抽样
+     */
+    public void record(Object key) {
+        if ((ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return;
+        }
+        sampled.increment();
+        decayIfNeeded();
+
+        int hash = spread(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(i, hash)));
+        }
+        if (estimate >= thresholdCount) {
+            top.put(key, estimate);
+            if (top.size() > topN) {
+                // 超出 Top-N 时移除计数最小的 key
+                top.entrySet().stream()
+                        .min(Map.Entry.comparingByValue())
+                        .ifPresent(min -> {
+                            top.remove(min.getKey(), min.getValue());
+                            pinned.remove(min.getKey());
+                        });
+            }
+        }
+    }
+
+    /**
+     * 是否为热点 key
+     */
+    public boolean isHot(Object key) {
+        return top.containsKey(key);
+    }
+
+    /**
+     * 获取固定在本地的值
+     *
+     * @return 未固定时为 null
+     */
+    public Cache.ValueWrapper getPinned(Object key) {
+        Pin pin = pinned.get(key);
+        return pin == null ? null : new SimpleValueWrapper(pin.value);
+    }
+
+    /**
+     * 固定的值是否需要刷新，需要时只有一个调用方会得到 true
+     */
+    public boolean tryStartRefresh(Object key) {
+        Pin pin = pinned.get(key);
+        return pin != null
+                && System.currentTimeMillis() - pin.pinnedAt >= refreshInterval
+                && pin.refreshing.compareAndSet(false, true);
+    }
+
+    /**
+     * 刷新结束，值未被更新时（如回填因版本变化被放弃）允许下一次读取再次刷新
+     */
+    public void finishRefresh(Object key) {
+        Pin pin = pinned.get(key);
+        if (pin != null) {
+            pin.refreshing.set(false);
+        }
+    }
+
+    /**
+     * 固定热点 key 的值
+     */
+    public void pin(Object key, Object value) {
+        if (isHot(key)) {
+            pinned.put(key, new Pin(value));
+        }
+    }
+
+    /**
+     * 已固定时更新值，未固定时不做任何事
+     */
+    public void update(Object key, Object value) {
+        pinned.computeIfPresent(key, (k, old) -> new Pin(value));
+    }
+
+    /**
+     * 取消固定
+     */
+    public void unpin(Object key) {
+        pinned.remove(key);
+    }
+
+    /**
+     * 取消全部固定
+     */
+    public void unpinAll() {
+        pinned.clear();
+    }
+
+    /**
+     * 当前的热点 key，按估算频率从高到低排列
+     */
+    public List<HotKey> topKeys() {
+        List<HotKey> keys = new ArrayList<>(top.size());
+        top.forEach((key, count) -> keys.add(new HotKey(String.valueOf(key), rate(count), pinned.containsKey(key))));
+        keys.sort(Comparator.comparingLong(HotKey::rate).reversed());
+        return keys;
+    }
+
+    /**
+     * 固定在本地的 key 数量
+     */
+    public int pinnedCount() {
+        return pinned.size();
+    }
+
+    /**
+     * 抽样次数
+     */
+    public long sampledCount() {
+        return sampled.sum();
+    }
+
+    /**
+     * 最多记录的热点 key 数量
+     */
+    public int topN() {
+        return topN;
+    }
+
+    /**
+     * 窗口结束时所有计数减半，Top-N 中低于阈值的 key 被移除并取消固定
+     */
+    private void decayIfNeeded() {
+        long now = System.currentTimeMillis();
+        long last = lastDecay.get();
+        if (now - last < window || !lastDecay.compareAndSet(last, now)) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, count -> count >>> 1);
+        }
+        top.replaceAll((key, count) -> count >>> 1);
+        top.entrySet().removeIf(entry -> {
+            if (entry.getValue() < thresholdCount) {
+                pinned.remove(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 抽样计数换算为每秒访问次数
+     */
+    private long rate(int count) {
+        return (long) count * sampleRate * 1000 / window;
+    }
+
+    private int index(int row, int hash) {
+        int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        return (row << widthBits) + (h >>> (32 - widthBits) & ((1 << widthBits) - 1));
+    }
+
+    private static int spread(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int powerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * 热点 key
+     *
+     * @param key    缓存 key
+     * @param rate   估算的访问频率(单位：次/秒)
+     * @param pinned 是否固定在本地
+     */
+    public record HotKey(String key, long rate, boolean pinned) {
+    }
+
+    private static final class Pin {
+        private final Object value;
+        private final long pinnedAt = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Pin(Object value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+/**
+ * 基于 Jackson 的缓存值编解码器
+ * <p>
+ * 与 {@link GenericJackson2JsonRedisSerializer} 一样在数据中记录类型信息，读取时无需指定类型；
+ * 除 JSON 外还支持 Smile、CBOR 两种二进制格式，体积更小、解析更快。
+ * <p>
+ * Smile、CBOR 的依赖是可选的，相关类分别放在 {@link ChenilleSmileValueCodec}、{@link ChenilleCborValueCodec} 中，
+ * 只有确认依赖存在后才会加载，本类不引用任何可选依赖
+ *
+ * @param id         编解码器 ID
+ * @param name       编解码器名称
+ * @param serializer 序列化器
+ */
+public record ChenilleJacksonValueCodec(byte id,
+                                        String name,
+                                        GenericJackson2JsonRedisSerializer serializer) implements ChenilleValueCodec {
+
+    public static final byte JSON = 1;
+    public static final byte SMILE = 2;
+    public static final byte CBOR = 3;
+
+    /**
+     * JSON，与旧版本写入的数据格式完全一致
+     */
+    public static ChenilleJacksonValueCodec json() {
+        return new ChenilleJacksonValueCodec(JSON, "json", new GenericJackson2JsonRedisSerializer());
+    }
+
+    /**
+     * Smile（二进制 JSON），需要引入 jackson-dataformat-smile，调用前需确认依赖存在
+     */
+    public static ChenilleJacksonValueCodec smile() {
+        return ChenilleSmileValueCodec.create();
+    }
+
+    /**
+     * CBOR，需要引入 jackson-dataformat-cbor，调用前需确认依赖存在
+     */
+    public static ChenilleJacksonValueCodec cbor() {
+        return ChenilleCborValueCodec.create();
+    }
+
+    /**
+     * 基于二进制格式 ObjectMapper 的序列化器，记录类型信息
+     */
+    static GenericJackson2JsonRedisSerializer binary(ObjectMapper mapper) {
+        return GenericJackson2JsonRedisSerializer.builder()
+                .objectMapper(mapper)
+                .defaultTyping(true)
+                .build();
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return serializer.serialize(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        return serializer.deserialize(bytes);
+    }
+}
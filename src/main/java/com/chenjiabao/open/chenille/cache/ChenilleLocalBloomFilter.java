@@ -0,0 +1,67 @@
+package com.chenjiabao.open.chenille.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 本地布隆过滤器，位数组保存在堆内存中
+ * <p>
+ * 只在本节点生效，其他节点写入的 key 通过缓存变更通知加入；
+ * 重启后为空，需要通过 {@link ChenilleBloomFilterLoader} 在启动时加载全部存在的 key
+ */
+public class ChenilleLocalBloomFilter extends ChenilleBloomFilter {
+
+    // 单个数组最多 2^31 - 1 个 long
+    private static final long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    private final AtomicLongArray words;
+
+    /**
+     * @param expectedInsertions 预计元素数量
+     * @param fpp                误判率
+     */
+    public ChenilleLocalBloomFilter(long expectedInsertions, double fpp) {
+        super(expectedInsertions, fpp, MAX_BITS);
+        this.words = new AtomicLongArray((int) ((bitSize(expectedInsertions, fpp, MAX_BITS) + Long.SIZE - 1) / Long.SIZE));
+    }
+
+    @Override
+    public Mono<Void> put(Object key) {
+        set(offsets(key));
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> putAll(Collection<?> keys) {
+        keys.forEach(key -> set(offsets(key)));
+        return Mono.empty();
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    protected Mono<Boolean> contains(long[] offsets) {
+        for (long offset : offsets) {
+            long mask = 1L << offset;
+            if ((words.get((int) (offset >>> 6)) & mask) == 0) {
+                return Mono.just(false);
+            }
+        }
+        return Mono.just(true);
+    }
+
+    private void set(long[] offsets) {
+        for (long offset : offsets) {
+            int index = (int) (offset >>> 6);
+            long mask = 1L << offset;
+            if ((words.get(index) & mask) == 0) {
+                words.getAndAccumulate(index, mask, (word, bit) -> word | bit);
+            }
+        }
+    }
+}
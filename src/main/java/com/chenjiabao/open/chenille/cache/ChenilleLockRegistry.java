@@ -1,35 +1,125 @@
 package com.chenjiabao.open.chenille.cache;
 
-import java.lang.ref.ReferenceQueue;
-import java.lang.ref.WeakReference;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * 缓存锁注册中心
+ * <p>
+ * 使用固定大小（2 的幂）的分段锁数组，key 经过哈希后映射到其中一段，
+ * 无论缓存多少个 key，锁占用的内存都是恒定的。
+ * <p>
+ * 另外提供按 key 排队的异步锁，等待方不阻塞线程，锁释放后自动清理
  */
 public class ChenilleLockRegistry {
-    // 存放锁对象
-    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
-    // 引用队列，用于清理已经被垃圾回收的对象，防止锁池无限增长
-    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+    // 分段锁
+    private final ReentrantLock[] stripes;
+    // 分段掩码
+    private final int mask;
+    // 异步锁：key -> 队尾任务
+    private final Map<Object, CompletableFuture<Void>> asyncTails = new ConcurrentHashMap<>();
+    // 加锁次数
+    private final LongAdder acquisitions = new LongAdder();
+    // 加锁时发生竞争（需要等待）的次数
+    private final LongAdder contentions = new LongAdder();
+
+    /**
+     * @param stripes 分段数量，会向上取整为 2 的幂
+     */
+    public ChenilleLockRegistry(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
 
     /**
      * 根据 key 获取一个锁对象
      * @param key 锁的 key
-     * @return 锁对象
+     * @return 锁对象，不同 key 可能共享同一把锁
+     */
+    public ReentrantLock getLock(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        // 扰动，让高位也参与分段
+        h ^= (h >>> 16);
+        return stripes[h & mask];
+    }
+
+    /**
+     * 持有 key 对应的分段锁执行任务
+     * @param key 锁的 key
+     * @param action 任务
+     * @return 任务结果
      */
-    public static Object getLock(Object key) {
-        // 把 key 转成字符串，保证一致性
-        String lockKey = String.valueOf(key);
-
-        // 清理已经被 GC 回收的弱引用，避免内存泄漏
-        WeakReference<Object> ref;
-        while ((ref = (WeakReference<Object>) QUEUE.poll()) != null) {
-            LOCKS.values().remove(ref);
+    public <T> T withLock(Object key, Supplier<T> action) {
+        ReentrantLock lock = getLock(key);
+        acquisitions.increment();
+        if (!lock.tryLock()) {
+            contentions.increment();
+            lock.lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // 如果锁池里没有这个 key，就创建一个新的 Object 作为锁
-        return LOCKS.computeIfAbsent(lockKey, k -> new Object());
+    /**
+     * 按 key 排队异步执行任务
+     * <p>
+     * 同一个 key 的任务按提交顺序依次执行，前一个任务完成（包括失败）后才会开始下一个，等待期间不阻塞线程
+     * @param key 锁的 key
+     * @param action 任务
+     * @return 任务结果
+     */
+    public <T> CompletableFuture<T> withAsyncLock(Object key, Supplier<CompletableFuture<T>> action) {
+        CompletableFuture<Void> released = new CompletableFuture<>();
+        CompletableFuture<Void> previous = asyncTails.put(key, released);
+        acquisitions.increment();
+
+        CompletableFuture<Void> acquired;
+        if (previous == null || previous.isDone()) {
+            acquired = CompletableFuture.completedFuture(null);
+        } else {
+            contentions.increment();
+            acquired = previous;
+        }
+
+        CompletableFuture<T> result = acquired.thenCompose(ignored -> action.get());
+        result.whenComplete((value, error) -> {
+            // 队尾仍是自己说明没有后来者，移除登记，保证空闲 key 不占内存
+            asyncTails.remove(key, released);
+            released.complete(null);
+        });
+        return result;
+    }
+
+    /**
+     * 分段数量
+     */
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * 加锁次数
+     */
+    public long acquisitionCount() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * 加锁时发生竞争的次数
+     */
+    public long contentionCount() {
+        return contentions.sum();
     }
 }
@@ -0,0 +1,431 @@
+package com.chenjiabao.open.chenille.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * 堆外缓存
+ * <p>
+ * 预先分配若干块直接内存（{@link ByteBuffer#allocateDirect}）作为存储区，按固定大小的内存块管理，
+ * 缓存值序列化后占用若干个内存块，块之间通过索引数组串联。存储区满时按 LRU 淘汰最久未访问的缓存值。
+ * <p>
+ * 只有索引保存在堆内存中，缓存值本身不会增加 GC 的负担，适合保存较大的缓存值。
+ * 所有缓存共享同一个存储区，按缓存名称 + key 区分。
+ * <p>
+ * 存储区按 key 的哈希拆分为若干段，每段有各自的内存块、索引与锁，不同段的读写互不阻塞，
+ * LRU 淘汰在段内进行；单个缓存值最多占用一段的容量
+ */
+@Slf4j
+public class ChenilleOffHeapStore {
+
+    // 单个存储区的最大字节数
+    private static final int MAX_SLAB_BYTES = 1 << 30;
+    // 链表结束标记
+    private static final int END = -1;
+    // 默认分段数量
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final int blockSize;
+    private final int blockCount;
+
+    // 序列化后达到该大小(单位：字节)的缓存值才保存到堆外
+    private final int threshold;
+    // 过期时间(单位：毫秒)，小于 1 时不过期
+    private final long expire;
+    private final RedisSerializer<Object> serializer;
+    // 缓存值大小估算器，估算值小于阈值时不再序列化，为空时总是序列化后判断
+    private final ChenilleSizeEstimator sizeEstimator;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity   最大占用堆外内存(单位：字节)
+     * @param blockSize  内存块大小(单位：字节)
+     * @param threshold  序列化后达到该大小(单位：字节)的缓存值才保存到堆外
+     * @param expire     过期时间(单位：毫秒)，小于 1 时不过期
+     * @param serializer 缓存值序列化器
+     */
+    public ChenilleOffHeapStore(long capacity,
+                                int blockSize,
+                                int threshold,
+                                long expire,
+                                RedisSerializer<Object> serializer) {
+        this(capacity, blockSize, threshold, expire, DEFAULT_SEGMENTS, serializer, null);
+    }
+
+    /**
+     * @param capacity      最大占用堆外内存(单位：字节)
+     * @param blockSize     内存块大小(单位：字节)
+     * @param threshold     序列化后达到该大小(单位：字节)的缓存值才保存到堆外
+     * @param expire        过期时间(单位：毫秒)，小于 1 时不过期
+     * @param segments      分段数量，会向下取整为 2 的幂，不超过内存块数量
+     * @param serializer    缓存值序列化器
+     * @param sizeEstimator 缓存值大小估算器，估算值小于阈值时不再序列化，为空时总是序列化后判断
+     */
+    public ChenilleOffHeapStore(long capacity,
+                                int blockSize,
+                                int threshold,
+                                long expire,
+                                int segments,
+                                RedisSerializer<Object> serializer,
+                                ChenilleSizeEstimator sizeEstimator) {
+        this.blockSize = Math.max(64, Math.min(blockSize, MAX_SLAB_BYTES));
+        int totalBlocks = (int) Math.max(1, Math.min(capacity / this.blockSize, Integer.MAX_VALUE - 8));
+        this.threshold = threshold;
+        this.expire = expire;
+        this.serializer = serializer;
+        this.sizeEstimator = sizeEstimator;
+
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(segments, totalBlocks)));
+        int blocksPerSegment = totalBlocks / segmentCount;
+        this.blockCount = blocksPerSegment * segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new Segment(blocksPerSegment);
+        }
+    }
+
+    /**
+     * 获取缓存值
+     *
+     * @return 命中时为反序列化后的缓存值，未命中或已过期时为 null
+     */
+    public Cache.ValueWrapper get(String cacheName, Object key) {
+        StoreKey storeKey = new StoreKey(cacheName, key);
+        byte[] bytes = segmentFor(storeKey).get(storeKey);
+        if (bytes == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        try {
+            return new SimpleValueWrapper(serializer.deserialize(bytes));
+        } catch (Exception e) {
+            log.error("反序列化堆外缓存失败 -> {}", e.getMessage());
+            remove(cacheName, key);
+            return null;
+        }
+    }
+
+    /**
+     * 保存缓存值
+     * <p>
+     * 估算大小或序列化后小于阈值、超过单段容量的缓存值不会保存，调用方应改为保存到一级缓存
+     *
+     * @return 是否保存到了堆外缓存
+     */
+    public boolean put(String cacheName, Object key, Object value) {
+        if (value == null) {
+            return false;
+        }
+        // 估算的堆内存占用通常不小于序列化后的字节数，估算值已小于阈值时不再序列化
+        if (sizeEstimator != null && sizeEstimator.estimate(key, value) < threshold) {
+            return false;
+        }
+        byte[] bytes;
+        try {
+            bytes = serializer.serialize(value);
+        } catch (Exception e) {
+            log.error("序列化堆外缓存失败 -> {}", e.getMessage());
+            return false;
+        }
+        if (bytes == null || bytes.length < threshold) {
+            return false;
+        }
+        StoreKey storeKey = new StoreKey(cacheName, key);
+        return segmentFor(storeKey).put(storeKey, bytes);
+    }
+
+    /**
+     * 清理指定缓存值
+     */
+    public void remove(String cacheName, Object key) {
+        StoreKey storeKey = new StoreKey(cacheName, key);
+        segmentFor(storeKey).remove(storeKey);
+    }
+
+    /**
+     * 清理指定缓存下的全部缓存值
+     */
+    public void clear(String cacheName) {
+        clear(cacheName, key -> true);
+    }
+
+    /**
+     * 清理指定缓存下 key 满足条件的缓存值
+     */
+    public void clear(String cacheName, Predicate<Object> keyFilter) {
+        for (Segment segment : segments) {
+            segment.clear(cacheName, keyFilter);
+        }
+    }
+
+    private Segment segmentFor(StoreKey storeKey) {
+        int hash = storeKey.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * 最大占用堆外内存(单位：字节)
+     */
+    public long capacity() {
+        return (long) blockCount * blockSize;
+    }
+
+    /**
+     * 已使用的堆外内存(单位：字节)，按内存块计算
+     */
+    public long usedBytes() {
+        long used = 0;
+        for (Segment segment : segments) {
+            used += segment.usedBlocks();
+        }
+        return used * blockSize;
+    }
+
+    /**
+     * 缓存值数量
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * 分段数量
+     */
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * 命中次数
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 空间不足被淘汰的次数
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 一段存储区：内存块、空闲链表与按访问顺序排列的索引，由段内的锁保护
+     */
+    private final class Segment {
+        private final ByteBuffer[] slabs;
+        private final int blocksPerSlab;
+        private final int blockCount;
+        // 内存块链表：下一个内存块的索引，空闲块与已使用块共用
+        private final int[] next;
+        private int freeHead;
+        private int freeCount;
+
+        // 缓存索引，按访问顺序排列，头部为最久未访问
+        private final LinkedHashMap<StoreKey, StoreEntry> index = new LinkedHashMap<>(64, 0.75f, true);
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Segment(int blockCount) {
+            this.blockCount = blockCount;
+            this.blocksPerSlab = MAX_SLAB_BYTES / blockSize;
+            int slabCount = (blockCount + blocksPerSlab - 1) / blocksPerSlab;
+            this.slabs = new ByteBuffer[slabCount];
+            for (int i = 0; i < slabCount; i++) {
+                int blocks = Math.min(blocksPerSlab, blockCount - i * blocksPerSlab);
+                slabs[i] = ByteBuffer.allocateDirect(blocks * blockSize);
+            }
+
+            // 初始时所有内存块都是空闲的
+            this.next = new int[blockCount];
+            for (int i = 0; i < blockCount - 1; i++) {
+                next[i] = i + 1;
+            }
+            next[blockCount - 1] = END;
+            this.freeHead = 0;
+            this.freeCount = blockCount;
+        }
+
+        /**
+         * @return 序列化后的缓存值，未命中或已过期时为 null
+         */
+        private byte[] get(StoreKey storeKey) {
+            lock.lock();
+            try {
+                StoreEntry entry = index.get(storeKey);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.expireAt() > 0 && entry.expireAt() <= System.currentTimeMillis()) {
+                    index.remove(storeKey);
+                    release(entry);
+                    return null;
+                }
+                // 在锁内复制出来，释放锁后内存块可能被复用
+                return read(entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean put(StoreKey storeKey, byte[] bytes) {
+            int blocks = (bytes.length + blockSize - 1) / blockSize;
+            if (blocks > blockCount) {
+                return false;
+            }
+            lock.lock();
+            try {
+                StoreEntry previous = index.remove(storeKey);
+                if (previous != null) {
+                    release(previous);
+                }
+                // 空间不足时淘汰最久未访问的缓存值
+                Iterator<StoreEntry> eldest = index.values().iterator();
+                while (freeCount < blocks && eldest.hasNext()) {
+                    StoreEntry entry = eldest.next();
+                    eldest.remove();
+                    release(entry);
+                    evictions.increment();
+                }
+                int first = allocate(blocks);
+                write(first, bytes);
+                long expireAt = expire > 0 ? System.currentTimeMillis() + expire : 0;
+                index.put(storeKey, new StoreEntry(first, bytes.length, blocks, expireAt));
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(StoreKey storeKey) {
+            lock.lock();
+            try {
+                StoreEntry entry = index.remove(storeKey);
+                if (entry != null) {
+                    release(entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear(String cacheName, Predicate<Object> keyFilter) {
+            lock.lock();
+            try {
+                Iterator<Map.Entry<StoreKey, StoreEntry>> iterator = index.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<StoreKey, StoreEntry> entry = iterator.next();
+                    if (entry.getKey().cacheName().equals(cacheName) && keyFilter.test(entry.getKey().key())) {
+                        iterator.remove();
+                        release(entry.getValue());
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int usedBlocks() {
+            lock.lock();
+            try {
+                return blockCount - freeCount;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return index.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 从空闲链表中取出指定数量的内存块，返回第一个内存块的索引
+         */
+        private int allocate(int blocks) {
+            int first = freeHead;
+            int last = first;
+            for (int i = 1; i < blocks; i++) {
+                last = next[last];
+            }
+            freeHead = next[last];
+            next[last] = END;
+            freeCount -= blocks;
+            return first;
+        }
+
+        /**
+         * 将缓存值占用的内存块归还到空闲链表
+         */
+        private void release(StoreEntry entry) {
+            int last = entry.firstBlock();
+            for (int i = 1; i < entry.blocks(); i++) {
+                last = next[last];
+            }
+            next[last] = freeHead;
+            freeHead = entry.firstBlock();
+            freeCount += entry.blocks();
+        }
+
+        private void write(int first, byte[] bytes) {
+            int block = first;
+            for (int offset = 0; offset < bytes.length; offset += blockSize) {
+                int length = Math.min(blockSize, bytes.length - offset);
+                slabs[block / blocksPerSlab].put((block % blocksPerSlab) * blockSize, bytes, offset, length);
+                block = next[block];
+            }
+        }
+
+        private byte[] read(StoreEntry entry) {
+            byte[] bytes = new byte[entry.length()];
+            int block = entry.firstBlock();
+            for (int offset = 0; offset < bytes.length; offset += blockSize) {
+                int length = Math.min(blockSize, bytes.length - offset);
+                slabs[block / blocksPerSlab].get((block % blocksPerSlab) * blockSize, bytes, offset, length);
+                block = next[block];
+            }
+            return bytes;
+        }
+    }
+
+    private record StoreKey(String cacheName, Object key) {
+    }
+
+    /**
+     * @param firstBlock 第一个内存块的索引
+     * @param length     序列化后的字节数
+     * @param blocks     占用的内存块数量
+     * @param expireAt   过期时间点(毫秒时间戳)，0 表示不过期
+     */
+    private record StoreEntry(int firstBlock, int length, int blocks, long expireAt) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.chenjiabao.open.chenille.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 响应式单飞加载器
+ * <p>
+ * 同一个 key 同一时刻只订阅一次上游加载，并发的订阅方共享同一个缓存了结果的 {@link Mono}，
+ * 直到加载完成（值已写入缓存）后才从登记表中移除
+ */
+public class ChenilleReactiveSingleFlight {
+
+    // 正在加载中的 key -> 共享的加载结果
+    private final Map<Object, Mono<Object>> inFlight = new ConcurrentHashMap<>();
+    // 真正执行的加载次数
+    private final LongAdder executed = new LongAdder();
+    // 被合并的加载次数
+    private final LongAdder coalesced = new LongAdder();
+    // 已完成的加载次数
+    private final LongAdder completed = new LongAdder();
+    // 加载失败的次数
+    private final LongAdder failures = new LongAdder();
+    // 已完成的加载累计耗时(单位：纳秒)
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * 加载数据
+     *
+     * @param key    缓存 key
+     * @param loader 加载器，应在返回的 Mono 中完成缓存写入
+     * @return 共享的加载结果
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Mono<V> load(Object key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            Mono<Object> existing = inFlight.get(key);
+            if (existing != null) {
+                coalesced.increment();
+                return (Mono<V>) existing;
+            }
+
+            AtomicReference<Mono<Object>> self = new AtomicReference<>();
+            Mono<Object> shared = Mono.defer(() -> {
+                        long start = System.nanoTime();
+                        return Mono.defer(loader)
+                                .cast(Object.class)
+                                .doOnTerminate(() -> {
+                                    loadNanos.add(System.nanoTime() - start);
+                                    completed.increment();
+                                })
+                                .doOnError(e -> failures.increment());
+                    })
+                    .doFinally(signal -> inFlight.remove(key, self.get()))
+                    .cache();
+            self.set(shared);
+
+            Mono<Object> previous = inFlight.putIfAbsent(key, shared);
+            if (previous != null) {
+                coalesced.increment();
+                return (Mono<V>) previous;
+            }
+            executed.increment();
+            return (Mono<V>) shared;
+        });
+    }
+
+    /**
+     * 真正执行的加载次数
+     */
+    public long executedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * 被合并的加载次数
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 已完成的加载次数（含失败）
+     */
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * 加载失败（含超时）的次数
+     */
+    public long failureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * 已完成的加载累计耗时(单位：纳秒)
+     */
+    public long loadNanos() {
+        return loadNanos.sum();
+    }
+
+    /**
+     * 当前正在加载的 key 数量
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
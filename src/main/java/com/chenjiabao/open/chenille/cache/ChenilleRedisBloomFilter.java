@@ -0,0 +1,90 @@
+package com.chenjiabao.open.chenille.cache;
+
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Redis 布隆过滤器，位数组保存在 Redis 的字符串中，所有节点共享
+ * <p>
+ * 判断与加入都通过一条 BITFIELD 命令完成，每次只需要一次往返
+ */
+public class ChenilleRedisBloomFilter extends ChenilleBloomFilter {
+
+    // Redis 字符串最大 512MB
+    private static final long MAX_BITS = 1L << 32;
+    private static final BitFieldSubCommands.BitFieldType BIT = BitFieldSubCommands.BitFieldType.unsigned(1);
+
+    private final String key;
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    /**
+     * @param key                   保存位数组的 Redis 键
+     * @param expectedInsertions    预计元素数量
+     * @param fpp                   误判率
+     * @param reactiveRedisTemplate 响应式 Redis 模板
+     */
+    public ChenilleRedisBloomFilter(String key,
+                                    long expectedInsertions,
+                                    double fpp,
+                                    ReactiveRedisTemplate<String, Object> reactiveRedisTemplate) {
+        super(expectedInsertions, fpp, MAX_BITS);
+        this.key = key;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+    }
+
+    @Override
+    public Mono<Void> put(Object key) {
+        List<BitFieldSubCommands.BitFieldSubCommand> commands = new ArrayList<>(hashCount());
+        addSets(commands, key);
+        return bitField(commands).then();
+    }
+
+    @Override
+    public Mono<Void> putAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return Mono.empty();
+        }
+        List<BitFieldSubCommands.BitFieldSubCommand> commands = new ArrayList<>(keys.size() * hashCount());
+        keys.forEach(key -> addSets(commands, key));
+        return bitField(commands).then();
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    protected Mono<Boolean> contains(long[] offsets) {
+        List<BitFieldSubCommands.BitFieldSubCommand> commands = new ArrayList<>(offsets.length);
+        for (long offset : offsets) {
+            commands.add(BitFieldSubCommands.BitFieldGet.create(BIT, BitFieldSubCommands.Offset.offset(offset)));
+        }
+        return bitField(commands)
+                .map(values -> values.stream().allMatch(value -> value != null && value == 1L))
+                .defaultIfEmpty(true);
+    }
+
+    /**
+     * 保存位数组的 Redis 键
+     */
+    public String key() {
+        return key;
+    }
+
+    private void addSets(List<BitFieldSubCommands.BitFieldSubCommand> commands, Object key) {
+        for (long offset : offsets(key)) {
+            commands.add(BitFieldSubCommands.BitFieldSet.create(BIT, BitFieldSubCommands.Offset.offset(offset), 1));
+        }
+    }
+
+    private Mono<List<Long>> bitField(List<BitFieldSubCommands.BitFieldSubCommand> commands) {
+        return reactiveRedisTemplate.opsForValue()
+                .bitField(key, BitFieldSubCommands.create(commands.toArray(BitFieldSubCommands.BitFieldSubCommand[]::new)));
+    }
+}
@@ -7,6 +7,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 
+import java.util.List;
+
 /**
  * 缓存消息监听器
  */
@@ -20,14 +22,45 @@ public record ChenilleRedisCacheMessageListener(ChenilleCache chenilleCache,
     public void onMessage(@NonNull Message message,
                           byte[] pattern) {
         try {
-            ChenilleCacheMessage chenilleCacheMessage = chenilleJsonUtils.fromJsonBytes(message.getBody(),
-                    ChenilleCacheMessage.class);
-
-            if (chenilleCacheMessage != null) {
+            String self = twoLevelCacheManager.getInstanceId().toString();
+            List<ChenilleCacheMessage> messages = twoLevelCacheManager.getMessageCodec().decode(message.getBody());
+            for (ChenilleCacheMessage chenilleCacheMessage : messages) {
+                // 忽略自己发出的消息，避免刚写入的一级缓存被自己清理
+                if (self.equals(chenilleCacheMessage.getOrigin())) {
+                    continue;
+                }
+                // 按缓存名路由，本节点未创建过的缓存没有一级缓存需要清理
+                String cacheName = chenilleCacheMessage.getCacheName() == null
+                        ? chenilleCache.getName()
+                        : chenilleCacheMessage.getCacheName();
+                ChenilleTwoLevelCache cache = twoLevelCacheManager.getExistingTwoLevelCache(cacheName);
+                if (cache == null) {
+                    continue;
+                }
+                // 先推进版本栅栏，读取二级缓存期间收到的失效会让对应的回填作废
+                if (chenilleCacheMessage.getVersion() != null) {
+                    cache.versionFence().observe(chenilleCacheMessage.getVersion());
+                }
                 // 只清理一级缓存，避免再次触发广播
-                twoLevelCacheManager
-                        .getTwoLevelCache(chenilleCache.getName())
-                        .evictLocal(chenilleCacheMessage.getKey());
+                if (chenilleCacheMessage.isClear()) {
+                    if (chenilleCacheMessage.getPattern() == null) {
+                        cache.clearLocal();
+                    } else {
+                        cache.clearLocal(chenilleCacheMessage.getPattern());
+                    }
+                    cache.stats().recordInvalidationReceived(1);
+                    continue;
+                }
+                if (chenilleCacheMessage.getKeys() != null) {
+                    cache.evictLocalAll(chenilleCacheMessage.getKeys());
+                    cache.observeRemoteKeys(chenilleCacheMessage.getKeys());
+                    cache.stats().recordInvalidationReceived(chenilleCacheMessage.getKeys().size());
+                }
+                if (chenilleCacheMessage.getKey() != null) {
+                    cache.evictLocal(chenilleCacheMessage.getKey());
+                    cache.observeRemoteKeys(List.of(chenilleCacheMessage.getKey()));
+                    cache.stats().recordInvalidationReceived(1);
+                }
             }
         } catch (Exception e) {
             log.error("处理缓存失效通知异常", e);
@@ -0,0 +1,148 @@
+package com.chenjiabao.open.chenille.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 单飞加载器
+ * <p>
+ * 同一个 key 同一时刻只允许一个加载任务执行，其余并发调用方挂在同一个 {@link CompletableFuture} 上等待结果，
+ * 不占用锁，也不阻塞线程。加载失败或超时的结果不会被缓存。
+ */
+@Slf4j
+public class ChenilleSingleFlight {
+
+    // 正在加载中的 key -> 加载结果
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // 加载超时时间(单位：毫秒)
+    private final long loadTimeout;
+    // 真正执行的加载次数
+    private final LongAdder executed = new LongAdder();
+    // 被合并的加载次数
+    private final LongAdder coalesced = new LongAdder();
+    // 已完成的加载次数
+    private final LongAdder completed = new LongAdder();
+    // 加载失败的次数
+    private final LongAdder failures = new LongAdder();
+    // 已完成的加载累计耗时(单位：纳秒)
+    private final LongAdder loadNanos = new LongAdder();
+
+    public ChenilleSingleFlight(long loadTimeout) {
+        this.loadTimeout = loadTimeout;
+    }
+
+    /**
+     * 加载数据
+     * <p>
+     * 第一个调用方负责执行 loader，并在成功后通过 store 写入缓存；
+     * 并发的调用方直接复用第一个调用方的加载结果
+     *
+     * @param key    缓存 key
+     * @param loader 加载器
+     * @param store  加载成功后的缓存写入动作，在结果对外可见之前执行
+     * @return 加载结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> load(Object key,
+                                         Supplier<? extends CompletionStage<T>> loader,
+                                         Consumer<T> store) {
+        CompletableFuture<Object> promise = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            // 已有加载任务，复用其结果
+            coalesced.increment();
+            return (CompletableFuture<T>) existing.copy();
+        }
+
+        executed.increment();
+        long start = System.nanoTime();
+        CompletableFuture<T> loading;
+        try {
+            loading = loader.get().toCompletableFuture();
+        } catch (Throwable e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+
+        loading.orTimeout(loadTimeout, TimeUnit.MILLISECONDS)
+                .whenComplete((value, error) -> {
+                    loadNanos.add(System.nanoTime() - start);
+                    completed.increment();
+                    if (error != null) {
+                        failures.increment();
+                    }
+                    if (error == null) {
+                        try {
+                            // 先写缓存再移除加载标记，保证后来者要么命中缓存，要么复用本次加载
+                            store.accept(value);
+                        } catch (Exception e) {
+                            log.error("写入缓存失败 -> {}", e.getMessage());
+                        }
+                    }
+                    inFlight.remove(key, promise);
+                    if (error != null) {
+                        promise.completeExceptionally(error);
+                    } else {
+                        promise.complete(value);
+                    }
+                });
+
+        return (CompletableFuture<T>) promise.copy();
+    }
+
+    /**
+     * 加载超时时间(单位：毫秒)
+     */
+    public long loadTimeout() {
+        return loadTimeout;
+    }
+
+    /**
+     * 真正执行的加载次数
+     */
+    public long executedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * 被合并的加载次数
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 已完成的加载次数（含失败）
+     */
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * 加载失败（含超时）的次数
+     */
+    public long failureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * 已完成的加载累计耗时(单位：纳秒)
+     */
+    public long loadNanos() {
+        return loadNanos.sum();
+    }
+
+    /**
+     * 当前正在加载的 key 数量
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
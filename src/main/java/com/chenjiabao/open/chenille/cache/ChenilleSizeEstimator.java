@@ -0,0 +1,20 @@
+package com.chenjiabao.open.chenille.cache;
+
+/**
+ * 缓存值大小估算器
+ * <p>
+ * 一级缓存按字节权重淘汰时，用于估算每个缓存条目占用的堆内存，
+ * 使用者可以通过注入该类型的 Bean 替换默认实现
+ */
+@FunctionalInterface
+public interface ChenilleSizeEstimator {
+
+    /**
+     * 估算缓存条目占用的字节数
+     *
+     * @param key   缓存 key
+     * @param value 缓存值
+     * @return 估算的字节数
+     */
+    long estimate(Object key, Object value);
+}
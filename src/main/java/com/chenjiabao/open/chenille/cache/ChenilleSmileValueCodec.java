@@ -0,0 +1,20 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Smile 编解码器
+ * <p>
+ * jackson-dataformat-smile 是可选依赖，只有在依赖存在时才会加载该类
+ */
+final class ChenilleSmileValueCodec {
+
+    private ChenilleSmileValueCodec() {
+    }
+
+    static ChenilleJacksonValueCodec create() {
+        return new ChenilleJacksonValueCodec(ChenilleJacksonValueCodec.SMILE, "smile",
+                ChenilleJacksonValueCodec.binary(new ObjectMapper(new SmileFactory())));
+    }
+}
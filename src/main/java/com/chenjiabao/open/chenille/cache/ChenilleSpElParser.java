@@ -2,26 +2,49 @@ package com.chenjiabao.open.chenille.cache;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.beans.BeanUtils;
 import org.springframework.core.DefaultParameterNameDiscoverer;
-import org.springframework.expression.EvaluationContext;
+import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 /**
  * 提供 SpEL 表达式解析工具，支持缓存，提高性能
+ * <p>
+ * 每个方法只解析一次参数名与表达式：
+ * <ul>
+ *   <li>形如 #id、#user.id 的简单表达式不经过 SpEL，直接按参数下标与预先查找的 getter 取值</li>
+ *   <li>其余表达式以 {@link SpelCompilerMode#MIXED} 编译为字节码执行：参数的运行时类型变化使编译后的表达式失效时
+ *   退回解释执行，而 IMMEDIATE 模式会直接抛出异常；可以编译的表达式两者耗时相同，见 ChenilleSpElParserBenchmark</li>
+ *   <li>未指定表达式时，key 为 类名.方法名(参数...)，参数中的分隔符会转义，不同参数不会得到相同的 key</li>
+ * </ul>
  * @author Chen Jiabao
  */
 public class ChenilleSpElParser {
-    // 定义一个表达式解析器
-    private static final ExpressionParser PARSER = new SpelExpressionParser();
-    // 表达式缓存：method -> (keyExpression -> Expression)
-    private static final Map<Method, Map<String, Expression>> CACHE = new ConcurrentHashMap<>();
+    // 定义一个表达式解析器，表达式执行后编译为字节码，编译结果失效时退回解释执行
+    private static final ExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, ChenilleSpElParser.class.getClassLoader()));
+    // 所有上下文共用的属性访问器，避免每次新建上下文后重新反射查找 getter
+    private static final List<PropertyAccessor> PROPERTY_ACCESSORS = List.of(new ReflectivePropertyAccessor());
+    private static final ParameterNameDiscoverer NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+    // #参数名 或 #参数名.属性.属性
+    private static final Pattern SIMPLE_PATH = Pattern.compile("#[A-Za-z_$][\\w$]*(\\.[A-Za-z_$][\\w$]*)*");
+    // 方法 -> 方法信息
+    private static final Map<Method, MethodKeys> CACHE = new ConcurrentHashMap<>();
 
     /**
      * 解析 SpEL 表达式，生成缓存 key
@@ -30,60 +53,173 @@ public class ChenilleSpElParser {
      * @return 解析后的 key
      */
     public static String parseKey(String keyExpression, JoinPoint joinPoint) {
+        // 获取当前方法的签名
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodKeys methodKeys = CACHE.computeIfAbsent(signature.getMethod(), MethodKeys::new);
+
         // 如果没有表达式，使用默认的 key 生成规则
         if (keyExpression == null || keyExpression.isEmpty()) {
-            return generateDefaultKey(joinPoint);
+            return methodKeys.defaultKey(joinPoint.getArgs());
         }
+        return methodKeys.resolver(keyExpression).resolve(joinPoint.getTarget(), joinPoint.getArgs());
+    }
 
-        // 获取当前方法的签名
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
+    /**
+     * key 解析器
+     */
+    @FunctionalInterface
+    private interface KeyResolver {
+        String resolve(Object target, Object[] args);
+    }
 
-        // 获取该方法对应的缓存
-        Map<String, Expression> methodCache =
-                CACHE.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+    /**
+     * 方法信息：参数名、默认 key 前缀与各表达式的解析器
+     */
+    private static final class MethodKeys {
+        private final Method method;
+        private final String[] parameterNames;
+        // 类名.方法名
+        private final String prefix;
+        private final Map<String, KeyResolver> resolvers = new ConcurrentHashMap<>();
 
-        // 如果该表达式没有缓存，则解析并存入缓存
-        Expression expression = methodCache.computeIfAbsent(
-                keyExpression,
-                PARSER::parseExpression
-        );
+        private MethodKeys(Method method) {
+            this.method = method;
+            String[] names = NAME_DISCOVERER.getParameterNames(method);
+            this.parameterNames = names == null ? new String[0] : names;
+            this.prefix = method.getDeclaringClass().getName() + "." + method.getName();
+        }
 
-        // 创建 SpEL 上下文，绑定参数和目标对象
-        EvaluationContext context = new MethodBasedEvaluationContext(
-                joinPoint.getTarget(),
-                method,
-                joinPoint.getArgs(),
-                new DefaultParameterNameDiscoverer()
-        );
+        private KeyResolver resolver(String keyExpression) {
+            return resolvers.computeIfAbsent(keyExpression, expression -> {
+                KeyResolver simple = SIMPLE_PATH.matcher(expression).matches() ? simplePath(expression) : null;
+                return simple != null ? simple : compiled(PARSER.parseExpression(expression));
+            });
+        }
 
-        // 执行表达式，获取最终 key
-        return expression.getValue(context, String.class);
-    }
+        /**
+         * 简单表达式：按参数下标取值，再依次调用预先查找的 getter，无法预先确定时返回 null 使用 SpEL
+         */
+        private KeyResolver simplePath(String expression) {
+            String[] path = expression.substring(1).split("\\.");
+            int index = parameterIndex(path[0]);
+            if (index < 0) {
+                return null;
+            }
+            Method[] getters = new Method[path.length - 1];
+            Class<?> type = method.getParameterTypes()[index];
+            for (int i = 1; i < path.length; i++) {
+                Method getter = getter(type, path[i]);
+                if (getter == null) {
+                    return null;
+                }
+                getters[i - 1] = getter;
+                type = getter.getReturnType();
+            }
+            // 中间值为 null 等无法直接取值的情况交给 SpEL，保持与 SpEL 一致的行为
+            KeyResolver fallback = compiled(PARSER.parseExpression(expression));
+            return (target, args) -> {
+                Object value = args[index];
+                try {
+                    for (Method getter : getters) {
+                        if (value == null) {
+                            return fallback.resolve(target, args);
+                        }
+                        value = getter.invoke(value);
+                    }
+                } catch (IllegalAccessException | InvocationTargetException | IllegalArgumentException e) {
+                    return fallback.resolve(target, args);
+                }
+                return value == null ? null : value.toString();
+            };
+        }
 
-    /**
-     * 默认 key 的生成规则：类名 + 方法名 + 参数值
-     * @param joinPoint 连接点
-     * @return 生成的默认 key
-     */
-    private static String generateDefaultKey(JoinPoint joinPoint) {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
+        /**
+         * SpEL 表达式：参数名已解析，只需把参数值绑定到上下文
+         */
+        private KeyResolver compiled(Expression expression) {
+            return (target, args) -> {
+                StandardEvaluationContext context = new StandardEvaluationContext(target);
+                context.setPropertyAccessors(PROPERTY_ACCESSORS);
+                for (int i = 0; i < args.length; i++) {
+                    if (i < parameterNames.length) {
+                        context.setVariable(parameterNames[i], args[i]);
+                    }
+                    context.setVariable("p" + i, args[i]);
+                    context.setVariable("a" + i, args[i]);
+                }
+                return expression.getValue(context, String.class);
+            };
+        }
+
+        private int parameterIndex(String name) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (parameterNames[i].equals(name)) {
+                    return i;
+                }
+            }
+            int count = method.getParameterCount();
+            if (name.length() > 1 && (name.charAt(0) == 'p' || name.charAt(0) == 'a')) {
+                try {
+                    int index = Integer.parseInt(name.substring(1));
+                    return index < count ? index : -1;
+                } catch (NumberFormatException ignored) {
+                    // 不是 p0、a0 形式
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 默认 key 的生成规则：类名.方法名(参数1,参数2...)
+         * <p>
+         * 参数按 toString() 写入，其中的 \ 与 , 前加 \ 转义，null 写为 \N，
+         * 因此不同的参数列表不会得到相同的 key，与 JVM 实例无关
+         */
+        private String defaultKey(Object[] args) {
+            if (args == null || args.length == 0) {
+                return prefix + "()";
+            }
+            StringBuilder sb = new StringBuilder(prefix.length() + 2 + args.length * 16).append(prefix).append('(');
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendArg(sb, args[i]);
+            }
+            return sb.append(')').toString();
+        }
+    }
 
-        // 拼接 类名.方法名(
-        StringBuilder sb = new StringBuilder(method.getDeclaringClass().getName())
-                .append(".").append(method.getName()).append("(");
+    private static Method getter(Class<?> type, String property) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, property);
+        if (descriptor != null && descriptor.getReadMethod() != null) {
+            return descriptor.getReadMethod();
+        }
+        try {
+            // record 的访问方法
+            Method accessor = type.getMethod(property);
+            return accessor.getReturnType() == void.class ? null : accessor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
 
-        // 拼接参数列表
-        Object[] args = joinPoint.getArgs();
-        if (args != null && args.length > 0) {
-            for (Object arg : args) {
-                sb.append(arg != null ? arg.toString() : "null").append(",");
+    private static void appendArg(StringBuilder sb, Object arg) {
+        if (arg == null) {
+            sb.append("\\N");
+            return;
+        }
+        if (arg instanceof Number || arg instanceof Boolean) {
+            sb.append(arg);
+            return;
+        }
+        CharSequence chars = arg instanceof CharSequence sequence ? sequence : arg.toString();
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c == '\\' || c == ',') {
+                sb.append('\\');
             }
-            // 删除最后一个逗号
-            sb.setLength(sb.length() - 1);
+            sb.append(c);
         }
-        sb.append(")");
-        return sb.toString();
     }
 }
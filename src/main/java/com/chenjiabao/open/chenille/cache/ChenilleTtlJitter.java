@@ -0,0 +1,90 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheSpec;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheTtlJitter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 过期时间随机化
+ * <p>
+ * 实际过期时间 = 过期时间 + random(0, 过期时间 * percent + range)，只延长不缩短；
+ * 过期时间小于 1（不过期）时保持不变
+ *
+ * @param percent 按过期时间比例增加的最大随机量
+ * @param range   增加的最大随机时长(单位：毫秒)
+ */
+public record ChenilleTtlJitter(double percent, long range) {
+
+    /**
+     * 不随机化
+     */
+    public static final ChenilleTtlJitter NONE = new ChenilleTtlJitter(0, 0);
+
+    public ChenilleTtlJitter {
+        percent = Math.max(0, percent);
+        range = Math.max(0, range);
+    }
+
+    /**
+     * 指定缓存的随机化配置，specs 中未配置的项沿用全局配置
+     *
+     * @param chenilleCache 缓存配置
+     * @param cacheName     缓存名称，为 null 时使用全局配置
+     */
+    public static ChenilleTtlJitter of(ChenilleCache chenilleCache, String cacheName) {
+        ChenilleCacheTtlJitter global = chenilleCache.getTtlJitter();
+        double percent = global == null ? 0 : global.getPercent();
+        long range = global == null ? 0 : global.getRange();
+        ChenilleCacheSpec spec = cacheName == null ? null : chenilleCache.getSpecs().get(cacheName);
+        if (spec != null && spec.getJitterPercent() != null) {
+            percent = spec.getJitterPercent();
+        }
+        if (spec != null && spec.getJitterRange() != null) {
+            range = spec.getJitterRange();
+        }
+        return percent <= 0 && range < 1 ? NONE : new ChenilleTtlJitter(percent, range);
+    }
+
+    /**
+     * 是否随机化
+     */
+    public boolean isEnabled() {
+        return percent > 0 || range > 0;
+    }
+
+    /**
+     * 随机化过期时间
+     *
+     * @param ttl  过期时间
+     * @param unit ttl 的时间单位，返回值使用相同单位
+     */
+    public long apply(long ttl, TimeUnit unit) {
+        if (ttl < 1 || !isEnabled()) {
+            return ttl;
+        }
+        long bound = (long) (ttl * percent);
+        if (range > 0) {
+            long extra = unit.convert(range, TimeUnit.MILLISECONDS);
+            bound = bound + extra < 0 ? Long.MAX_VALUE : bound + extra;
+        }
+        if (bound < 1) {
+            return ttl;
+        }
+        long jittered = ttl + ThreadLocalRandom.current().nextLong(bound);
+        return jittered < 0 ? Long.MAX_VALUE : jittered;
+    }
+
+    /**
+     * 随机化过期时间，为零或负数时保持不变
+     */
+    public Duration apply(Duration ttl) {
+        if (ttl.isZero() || ttl.isNegative() || !isEnabled()) {
+            return ttl;
+        }
+        return Duration.ofMillis(apply(ttl.toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
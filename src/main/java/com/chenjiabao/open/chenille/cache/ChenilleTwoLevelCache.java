@@ -2,74 +2,116 @@ package com.chenjiabao.open.chenille.cache;
 
 import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
 import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheSpec;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheTtlJitter;
 import io.jsonwebtoken.lang.Assert;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.util.PatternMatchUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.Callable;
-import java.util.concurrent.Executor;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 /**
  * 二级缓存
  * <p>
  * 支持一级缓存（如 Caffeine）+ 二级缓存（如 Redis）
  *
- * @param primaryCache   一级缓存（一般用本地缓存，如 Caffeine）
- * @param secondaryCache 二级缓存（一般用分布式缓存，如 Redis）
+ * @param name           缓存名称
+ * @param primaryCache   一级缓存（一般用本地缓存，如 Caffeine），未启用时为 null
+ * @param secondaryCache 二级缓存（一般用分布式缓存，如 Redis），未启用时为 null
  * @param asyncExecutor  异步执行器，用于异步写二级缓存 用于异步写入二级缓存
- * @param redisTemplate  Redis 发布订阅用
+ * @param messagePublisher 缓存变更通知发布器
+ * @param singleFlight   单飞加载器，合并同一个 key 的并发加载
+ * @param reactiveSingleFlight 响应式单飞加载器，合并同一个 key 的并发响应式加载
+ * @param lockRegistry   缓存锁注册中心
+ * @param reactiveRedisTemplate 响应式 Redis 模板，二级缓存的非阻塞读写，为空时退化为在异步执行器中阻塞读写
+ * @param offHeapStore   堆外缓存，序列化后较大的缓存值保存在这里而不是一级缓存，未启用时为 null
+ * @param stats          缓存统计
+ * @param versionFence   版本栅栏，二级缓存读取期间 key 被写入或清理时放弃回填
+ * @param hotKeys        热点 key 探测，热点 key 固定在本地并定期从二级缓存刷新，未启用时为 null
+ * @param bloomFilter    布隆过滤器，写入非空值时加入 key，未启用时为 null
+ * @param circuitBreaker 二级缓存熔断器，熔断期间跳过二级缓存，只使用一级缓存
  */
 @Slf4j
-public record ChenilleTwoLevelCache(Cache primaryCache,
+public record ChenilleTwoLevelCache(String name,
+                                    Cache primaryCache,
                                     Cache secondaryCache,
-                                    RedisTemplate<String, Object> redisTemplate,
+                                    ChenilleCacheMessagePublisher messagePublisher,
                                     ChenilleJsonUtils  jsonUtils,
                                     ChenilleCache chenilleCache,
-                                    Executor asyncExecutor) implements Cache {
-
-    // null 占位符，避免缓存穿透
-    private static final Object NULL_PLACEHOLDER = new Object();
+                                    Executor asyncExecutor,
+                                    ChenilleSingleFlight singleFlight,
+                                    ChenilleReactiveSingleFlight reactiveSingleFlight,
+                                    ChenilleLockRegistry lockRegistry,
+                                    ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
+                                    ChenilleOffHeapStore offHeapStore,
+                                    ChenilleCacheStats stats,
+                                    ChenilleVersionFence versionFence,
+                                    ChenilleHotKeys hotKeys,
+                                    ChenilleBloomFilter bloomFilter,
+                                    ChenilleCircuitBreaker circuitBreaker) implements Cache {
 
     @Override
     @NonNull
     public String getName() {
-        return chenilleCache.getName();
+        return name;
     }
 
     @Override
     public Object getNativeCache() {
-        if (chenilleCache.getCaffeine().isEnabled()) {
+        if (isLocalEnabled()) {
             return primaryCache.getNativeCache();
         }
-        if (chenilleCache.getRedis().isEnabled()) {
+        if (isRemoteEnabled()) {
             return secondaryCache.getNativeCache();
         }
         return null;
     }
 
+    /**
+     * 当前缓存是否启用一级缓存
+     * <p>
+     * 全局或按缓存名关闭一级缓存时，管理器不会创建一级缓存
+     */
+    public boolean isLocalEnabled() {
+        return primaryCache != null;
+    }
+
+    /**
+     * 当前缓存是否启用二级缓存
+     * <p>
+     * 全局或按缓存名关闭二级缓存时，管理器不会创建二级缓存
+     */
+    public boolean isRemoteEnabled() {
+        return secondaryCache != null;
+    }
+
     @Override
     public ValueWrapper get(@NonNull Object key) {
         Assert.notNull(key, "key不可为空");
-        ValueWrapper value;
-        if (chenilleCache.getCaffeine().isEnabled() && primaryCache != null) {
-            value = primaryCache.get(key);
-            if (value != null) {
-                return value;
-            }
+        ValueWrapper value = getLocal(key);
+        if (value != null) {
+            return value;
         }
-        if (chenilleCache.getRedis().isEnabled() && secondaryCache != null) {
-            value = secondaryCache.get(key);
+        if (isRemoteEnabled()) {
+            long version = versionFence.current(key);
+            value = getRemote(key);
             if (value != null) {
-                // 回填
-                ValueWrapper finalValue = value;
-                asyncExecutor.execute(() -> {
-                    if (chenilleCache.getCaffeine().isEnabled() && primaryCache != null) {
-                        primaryCache.put(key, finalValue.get());
-                    }
-                });
+                backfillLater(key, value.get(), version);
                 return value;
             }
         }
@@ -77,100 +119,663 @@ public record ChenilleTwoLevelCache(Cache primaryCache,
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T get(@NonNull Object key, Class<T> type) {
-        // 一级缓存
-        T value;
-        if (chenilleCache.getCaffeine().isEnabled() && primaryCache != null) {
-            value = primaryCache.get(key, type);
-            if (value != null) {
-                return value;
+        ValueWrapper wrapper = getLocal(key);
+        if (wrapper == null && isRemoteEnabled()) {
+            long version = versionFence.current(key);
+            wrapper = getRemote(key);
+            if (wrapper != null) {
+                backfillLater(key, wrapper.get(), version);
             }
         }
-        if (chenilleCache.getRedis().isEnabled() && secondaryCache != null) {
-            value = secondaryCache.get(key, type);
-            if (value != null) {
-                // 回填
-                T finalValue = value;
-                asyncExecutor.execute(() -> {
-                    if (chenilleCache.getCaffeine().isEnabled() && primaryCache != null) {
-                        primaryCache.put(key, finalValue);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = unwrap(wrapper.get());
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("缓存值的类型不是 [" + type.getName() + "] -> " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * 获取缓存值，未命中时通过 valueLoader 加载
+     * <p>
+     * 同一个 key 的并发加载只会执行一次：抢到加载权的线程在当前线程执行加载，
+     * 保留调用方的事务、安全上下文等线程绑定状态；其余线程等待同一个加载结果，最多等待 loadTimeout，
+     * 超时后抛出 {@link ValueRetrievalException}，加载本身不受该时间限制，需要时由加载器自行设置超时。
+     * 两级缓存都未启用时直接执行加载
+     */
+    @Override
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        // 缓存尝试（无锁），缓存的 null 同样视为命中
+        ValueWrapper cached = tryGetFromCache(key);
+        if (cached != null) {
+            return unwrap(cached.get());
+        }
+        if (isCacheNotEnabled()) {
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+        // 抢到加载权的线程直接在当前线程执行加载，其余线程等待同一个加载结果
+        CompletableFuture<T> future = singleFlight.load(key,
+                () -> {
+                    try {
+                        return CompletableFuture.completedFuture(loadValue(key, valueLoader));
+                    } catch (Exception e) {
+                        return CompletableFuture.failedFuture(e);
                     }
-                });
-                return value;
+                },
+                loaded -> put(key, loaded));
+        try {
+            return future.get(singleFlight.loadTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (TimeoutException e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * 获取缓存值，未命中时异步加载
+     * <p>
+     * 同一个 key 的并发加载只会执行一次，调用方共享同一个加载结果，不阻塞调用线程；
+     * 加载在异步执行器中执行，超过 loadTimeout 未完成视为失败，失败结果不会被缓存
+     *
+     * @param key         缓存 key
+     * @param valueLoader 加载器
+     * @return 缓存值，加载结果为 null 时 future 的值为 null
+     */
+    public <T> CompletableFuture<T> getAsync(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        return retrieve(key, () -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
             }
+        }, asyncExecutor));
+    }
+
+    /**
+     * 异步获取缓存值
+     * <p>
+     * 一级缓存直接读内存，二级缓存通过 {@link ReactiveRedisTemplate} 非阻塞读取，命中后回填一级缓存
+     *
+     * @param key 缓存 key
+     * @return 命中时为 {@link ValueWrapper}，未命中时 future 的值为 null；两级缓存都未启用时返回 null
+     */
+    @Override
+    public CompletableFuture<?> retrieve(@NonNull Object key) {
+        ValueWrapper wrapper = getLocal(key);
+        if (wrapper != null) {
+            return CompletableFuture.completedFuture(new SimpleValueWrapper(unwrap(wrapper.get())));
+        }
+        if (isRemoteEnabled()) {
+            return retrieveRemote(key);
         }
         return null;
     }
 
+    /**
+     * 异步获取缓存值，未命中时通过 valueLoader 加载
+     * <p>
+     * 同一个 key 的并发加载只会执行一次，失败或超时的结果不会被缓存
+     *
+     * @param key         缓存 key
+     * @param valueLoader 异步加载器
+     * @return 缓存值
+     */
     @Override
-    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
-        // 缓存尝试（无锁）
-        T value = tryGetFromCache(key);
-        if (value != null) {
-            return unwrap(value);
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(@NonNull Object key,
+                                             @NonNull Supplier<CompletableFuture<T>> valueLoader) {
+        return retrieveWrapper(key).thenCompose(wrapper -> {
+            if (wrapper != null) {
+                return CompletableFuture.completedFuture((T) wrapper.get());
+            }
+            if (isCacheNotEnabled()) {
+                return valueLoader.get();
+            }
+            return singleFlight.load(key,
+                    // 抢到加载权后再次检查缓存（可能有其他调用方刚刚完成加载）
+                    () -> retrieveWrapper(key).thenCompose(latest -> latest != null
+                            ? CompletableFuture.completedFuture((T) latest.get())
+                            : valueLoader.get()),
+                    loaded -> put(key, loaded));
+        });
+    }
+
+    /**
+     * 异步获取缓存值，支持提前刷新与过期后返回旧值
+     * <p>
+     * 缓存值以 {@link ChenilleCacheEntry} 保存：
+     * <ul>
+     *   <li>未到刷新时间：直接返回；启用概率提前刷新时，按 XFetch 以一定概率当作已到刷新时间处理</li>
+     *   <li>已到刷新时间但未逻辑过期：立即返回旧值，并在异步执行器中触发一次后台加载（同一个 key 只加载一次）</li>
+     *   <li>逻辑过期或未命中：加载后返回</li>
+     * </ul>
+     *
+     * @param key          缓存 key
+     * @param refreshAfter 写入后多久需要刷新(单位：毫秒)
+     * @param staleFor     需要刷新后还可以返回旧值的时长(单位：毫秒)
+     * @param valueLoader  异步加载器
+     * @return 缓存值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieveRefreshing(@NonNull Object key,
+                                                       long refreshAfter,
+                                                       long staleFor,
+                                                       @NonNull Supplier<CompletableFuture<T>> valueLoader) {
+        return retrieveWrapper(key).thenCompose(wrapper -> {
+            if (wrapper != null && wrapper.get() instanceof ChenilleCacheEntry entry) {
+                long now = System.currentTimeMillis();
+                if (now < entry.getRefreshTime() && !shouldRefreshEarly(entry, now)) {
+                    return CompletableFuture.completedFuture((T) entry.getValue());
+                }
+                // 二级缓存熔断期间，逻辑过期的旧值同样先返回
+                if (now < entry.getExpireTime() || circuitBreaker.isDegraded()) {
+                    // 返回旧值，后台刷新
+                    long start = System.currentTimeMillis();
+                    singleFlight.load(key,
+                            () -> CompletableFuture.supplyAsync(valueLoader, asyncExecutor).thenCompose(f -> f),
+                            loaded -> put(key, ChenilleCacheEntry.of(loaded, refreshAfter, staleFor,
+                                    System.currentTimeMillis() - start)))
+                            .exceptionally(e -> {
+                                log.error("后台刷新缓存失败 -> {}", e.getMessage());
+                                return null;
+                            });
+                    return CompletableFuture.completedFuture((T) entry.getValue());
+                }
+            }
+            long start = System.currentTimeMillis();
+            return singleFlight.load(key,
+                    valueLoader,
+                    loaded -> put(key, ChenilleCacheEntry.of(loaded, refreshAfter, staleFor,
+                            System.currentTimeMillis() - start)));
+        });
+    }
+
+    /**
+     * 是否在到达刷新时间前提前刷新（XFetch）
+     * <p>
+     * now - loadTime * beta * ln(random) >= refreshTime 时提前刷新：越接近刷新时间、加载越慢，概率越大，
+     * 读取越频繁的 key 越早被刷新
+     */
+    private boolean shouldRefreshEarly(ChenilleCacheEntry entry, long now) {
+        ChenilleCacheTtlJitter jitter = chenilleCache.getTtlJitter();
+        if (jitter == null || !jitter.isEarlyRefresh() || entry.getLoadTime() <= 0) {
+            return false;
         }
-        if ((chenilleCache.getCaffeine().isEnabled() && primaryCache != null) ||
-                (chenilleCache.getRedis().isEnabled() && secondaryCache != null)) {
-            synchronized (ChenilleLockRegistry.getLock(key)) {
-                // 第二次缓存尝试（可能有其他线程已经加载）
-                value = tryGetFromCache(key);
-                if (value != null) {
-                    return unwrap(value);
+        double gap = -entry.getLoadTime() * jitter.getBeta() * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        return now + gap >= entry.getRefreshTime();
+    }
+
+    private CompletableFuture<ValueWrapper> retrieveWrapper(Object key) {
+        CompletableFuture<?> future = retrieve(key);
+        if (future == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return future.thenApply(ValueWrapper.class::cast);
+    }
+
+    /**
+     * 异步读取二级缓存，命中后回填一级缓存
+     */
+    private CompletableFuture<ValueWrapper> retrieveRemote(Object key) {
+        // 读取二级缓存前记录版本，读取期间被写入或清理时放弃回填
+        long version = versionFence.current(key);
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (reactiveRedisTemplate == null) {
+            // 与非阻塞读取一致，读取失败视为未命中，失败已由 readRemote 计入熔断器与统计
+            return CompletableFuture.supplyAsync(() -> {
+                ValueWrapper wrapper;
+                try {
+                    wrapper = readRemote(key);
+                } catch (RuntimeException e) {
+                    log.error("从二级缓存中获取值失败 -> {}", e.getMessage());
+                    return null;
                 }
+                return wrapper == null ? null : backfill(key, wrapper.get(), version);
+            }, asyncExecutor);
+        }
+        long start = System.nanoTime();
+        return recordRemote(reactiveRedisTemplate.opsForValue().get(remoteKey(key)), false)
+                .doOnSuccess(value -> {
+                    stats.recordRemoteRead(value == null ? 0 : 1, value == null ? 1 : 0, System.nanoTime() - start);
+                    if (value instanceof NullValue) {
+                        stats.recordNegativeHit(false, 1);
+                    }
+                })
+                .map(value -> backfill(key, value, version))
+                .onErrorResume(e -> {
+                    stats.recordRemoteError();
+                    log.error("从二级缓存中获取值失败 -> {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .toFuture();
+    }
+
+    /**
+     * 批量获取缓存值
+     * <p>
+     * 一级缓存命中的 key 直接在本地返回，其余 key 通过一次 MGET 从二级缓存获取，并批量回填一级缓存
+     *
+     * @param keys 缓存 key
+     * @return 命中的 key -> 缓存值，未命中或缓存值为 null 的 key 不包含在内
+     */
+    public <K> CompletableFuture<Map<K, Object>> getAll(@NonNull Collection<K> keys) {
+        Map<K, Object> result = new LinkedHashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            ValueWrapper wrapper = getLocal(key);
+            if (wrapper == null) {
+                missing.add(key);
+            } else if (unwrap(wrapper.get()) != null) {
+                result.put(key, unwrap(wrapper.get()));
+            }
+        }
+        if (missing.isEmpty() || !isRemoteEnabled()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return retrieveRemoteAll(missing).thenApply(found -> {
+            result.putAll(found);
+            return result;
+        });
+    }
 
-                // 执行加载
+    /**
+     * 批量读取二级缓存，命中后批量回填一级缓存
+     */
+    private <K> CompletableFuture<Map<K, Object>> retrieveRemoteAll(List<K> keys) {
+        long[] versions = new long[keys.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = versionFence.current(keys.get(i));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        if (reactiveRedisTemplate == null) {
+            // 与非阻塞读取一致，读取失败视为全部未命中，失败已由 readRemote 计入熔断器与统计
+            return CompletableFuture.supplyAsync(() -> {
+                List<Object> values = new ArrayList<>(keys.size());
                 try {
-                    value = valueLoader.call();
-                    Object toCache = (value == null ? NULL_PLACEHOLDER : value);
-                    asyncExecutor.execute(() -> {
-                        put(key, toCache);
-                    });
-                    return value;
-                } catch (Exception e) {
-                    throw new ValueRetrievalException(key, valueLoader, e);
+                    for (K key : keys) {
+                        ValueWrapper wrapper = readRemote(key);
+                        values.add(wrapper == null ? null : Objects.requireNonNullElse(wrapper.get(), NullValue.INSTANCE));
+                    }
+                } catch (RuntimeException e) {
+                    log.error("从二级缓存中批量获取值失败 -> {}", e.getMessage());
+                    return Map.<K, Object>of();
                 }
+                return backfillAll(keys, values, versions);
+            }, asyncExecutor);
+        }
+        List<String> remoteKeys = keys.stream().map(this::remoteKey).toList();
+        long start = System.nanoTime();
+        return recordRemote(reactiveRedisTemplate.opsForValue().multiGet(remoteKeys), false)
+                .doOnNext(values -> {
+                    int hits = (int) values.stream().filter(Objects::nonNull).count();
+                    stats.recordRemoteRead(hits, keys.size() - hits, System.nanoTime() - start);
+                    stats.recordNegativeHit(false, (int) values.stream().filter(NullValue.class::isInstance).count());
+                })
+                .map(values -> backfillAll(keys, values, versions))
+                .onErrorResume(e -> {
+                    stats.recordRemoteError();
+                    log.error("从二级缓存中批量获取值失败 -> {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(Map.of())
+                .toFuture();
+    }
+
+    /**
+     * 批量回填一级缓存
+     *
+     * @param keys     缓存 key
+     * @param values   与 key 一一对应的二级缓存值，未命中为 null
+     * @param versions 与 key 一一对应的读取前的版本
+     * @return 命中且值不为 null 的 key -> 缓存值
+     */
+    private <K> Map<K, Object> backfillAll(List<K> keys, List<?> values, long[] versions) {
+        Map<K, Object> found = new HashMap<>();
+        int backfilled = 0;
+        for (int i = 0; i < keys.size() && i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            Object actual = value instanceof NullValue ? null : value;
+            if (putLocalIfCurrent(keys.get(i), actual, versions[i])) {
+                backfilled++;
+            }
+            if (actual != null) {
+                found.put(keys.get(i), actual);
             }
         }
-        return null;
+        stats.recordBackfill(backfilled);
+        return found;
+    }
+
+    /**
+     * 回填一级缓存
+     *
+     * @param version 读取二级缓存前的版本
+     */
+    private ValueWrapper backfill(Object key, Object value, long version) {
+        Object actual = value instanceof NullValue ? null : value;
+        if (putLocalIfCurrent(key, actual, version)) {
+            stats.recordBackfill(1);
+        }
+        return new SimpleValueWrapper(actual);
+    }
+
+    /**
+     * 在异步执行器中回填一级缓存，不阻塞当前读取
+     *
+     * @param version 读取二级缓存前的版本
+     */
+    private void backfillLater(Object key, Object value, long version) {
+        if (isLocalEnabled()) {
+            asyncExecutor.execute(() -> {
+                if (putLocalIfCurrent(key, value, version)) {
+                    stats.recordBackfill(1);
+                }
+            });
+        }
+    }
+
+    /**
+     * 版本未变化时才写入一级缓存
+     * <p>
+     * 写入后再检查一次版本，写入期间 key 被写入或清理时撤销本次写入，保证过期的回填不会留在一级缓存中
+     *
+     * @return 是否写入
+     */
+    private boolean putLocalIfCurrent(Object key, Object value, long version) {
+        if (!isLocalEnabled() || !versionFence.isCurrent(key, version)) {
+            return false;
+        }
+        storeLocal(key, value);
+        if (!versionFence.isCurrent(key, version)) {
+            removeLocal(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 执行加载，加载前再次检查缓存（可能有其他调用方刚刚完成加载）
+     */
+    private <T> T loadValue(Object key, Callable<T> valueLoader) throws Exception {
+        ValueWrapper cached = tryGetFromCache(key);
+        if (cached != null) {
+            return unwrap(cached.get());
+        }
+        return valueLoader.call();
+    }
+
+    /**
+     * key 是否可能存在
+     * <p>
+     * 为 false 时 key 一定不存在，可以不读取缓存、不执行加载；未启用布隆过滤器或判断失败时为 true
+     */
+    public Mono<Boolean> mightContain(@NonNull Object key) {
+        if (bloomFilter == null) {
+            return Mono.just(true);
+        }
+        return bloomFilter.mightContain(key)
+                .onErrorResume(e -> {
+                    log.error("布隆过滤器判断失败 -> {}", e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * 其他节点写入或清理的 key 加入本节点的布隆过滤器
+     * <p>
+     * 共享的布隆过滤器已由写入的节点加入；清理的 key 加入后只会增加误判，不会漏判
+     */
+    public void observeRemoteKeys(@NonNull Collection<?> keys) {
+        if (bloomFilter != null && !bloomFilter.isShared()) {
+            bloomFilter.putAll(keys).subscribe();
+        }
+    }
+
+    /**
+     * 写入非空值时把 key 加入布隆过滤器
+     */
+    private void remember(Object key, Object value) {
+        if (bloomFilter != null && value != null) {
+            bloomFilter.put(key).subscribe(null, e -> log.error("加入布隆过滤器失败 -> {}", e.getMessage()));
+        }
+    }
+
+    /**
+     * 批量写入时把值不为空的 key 通过一次调用加入布隆过滤器
+     */
+    private void rememberAll(Map<?, ?> entries) {
+        if (bloomFilter != null) {
+            List<Object> keys = new ArrayList<>(entries.size());
+            entries.forEach((key, value) -> {
+                if (value != null) {
+                    keys.add(key);
+                }
+            });
+            bloomFilter.putAll(keys).subscribe(null, e -> log.error("批量加入布隆过滤器失败 -> {}", e.getMessage()));
+        }
+    }
+
+    /**
+     * 一级缓存和二级缓存是否都未启用
+     */
+    private boolean isCacheNotEnabled() {
+        return !isLocalEnabled() && !isRemoteEnabled();
     }
 
     /**
      * 尝试从缓存中获取值
+     *
+     * @return 命中时为 {@link ValueWrapper}（缓存的 null 同样返回 wrapper），未命中为 null
      */
-    private <T> T tryGetFromCache(Object key) {
+    private ValueWrapper tryGetFromCache(Object key) {
         try {
             // 一级缓存
-            ValueWrapper wrapper = null;
-            if (chenilleCache.getCaffeine().isEnabled() && primaryCache != null) {
-                wrapper = primaryCache.get(key);
-            }
-            if (wrapper == null && chenilleCache.getRedis().isEnabled() && secondaryCache != null) {
+            ValueWrapper wrapper = getLocal(key);
+            if (wrapper == null && isRemoteEnabled()) {
                 // 一级缓存未命中，查二级缓存
-                wrapper = secondaryCache.get(key);
+                long version = versionFence.current(key);
+                wrapper = getRemote(key);
                 if (wrapper != null) {
-                    ValueWrapper finalWrapper = wrapper;
-                    asyncExecutor.execute(() -> {
-                        if (chenilleCache.getCaffeine().isEnabled() && primaryCache != null) {
-                            primaryCache.put(key, finalWrapper.get());
-                        }
-                    });
+                    backfillLater(key, wrapper.get(), version);
                 }
             }
 
-            if (wrapper != null) {
-                @SuppressWarnings("unchecked")
-                T value = (T) wrapper.get();
-                return value;
-            }
+            return wrapper;
         } catch (Exception e) {
             log.error("从缓存中获取值失败 -> {}", e.getMessage());
         }
         return null;
     }
 
+    /**
+     * 读取本地缓存：先读固定的热点 key，再读一级缓存，未命中再读堆外缓存
+     */
+    private ValueWrapper getLocal(Object key) {
+        if (!isLocalEnabled()) {
+            return null;
+        }
+        long version = 0;
+        if (hotKeys != null) {
+            hotKeys.record(key);
+            ValueWrapper pinned = hotKeys.getPinned(key);
+            if (pinned != null) {
+                if (hotKeys.tryStartRefresh(key)) {
+                    refreshPinned(key, pinned.get());
+                }
+                return recordLocal(pinned);
+            }
+            version = versionFence.current(key);
+        }
+        ValueWrapper wrapper = primaryCache.get(key);
+        if (wrapper == null && offHeapStore != null) {
+            wrapper = offHeapStore.get(name, key);
+        }
+        if (wrapper != null && hotKeys != null && hotKeys.isHot(key)) {
+            // 固定期间 key 被写入或清理时撤销固定，避免固定旧值
+            hotKeys.pin(key, wrapper.get());
+            if (!versionFence.isCurrent(key, version)) {
+                hotKeys.unpin(key);
+            }
+        }
+        return recordLocal(wrapper);
+    }
+
+    /**
+     * 记录一级缓存读取，命中空值时统一返回值为 null 的 {@link ValueWrapper}
+     */
+    private ValueWrapper recordLocal(ValueWrapper wrapper) {
+        stats.recordLocal(wrapper != null);
+        if (wrapper != null && unwrap(wrapper.get()) == null) {
+            stats.recordNegativeHit(true, 1);
+            return wrapper.get() == null ? wrapper : new SimpleValueWrapper(null);
+        }
+        return wrapper;
+    }
+
+    /**
+     * 刷新固定的热点 key：已不是热点时取消固定，否则从二级缓存重新读取，
+     * 回填一级缓存时一并更新固定的值，二级缓存中已不存在时取消固定；
+     * 未启用二级缓存时取消固定，下一次读取按一级缓存重新固定，一级缓存中已过期的值不会一直固定
+     */
+    private void refreshPinned(Object key, Object current) {
+        if (!hotKeys.isHot(key) || !isRemoteEnabled()) {
+            hotKeys.unpin(key);
+            return;
+        }
+        if (circuitBreaker.isDegraded()) {
+            // 二级缓存熔断，继续使用固定的值，只重置刷新时间
+            hotKeys.update(key, current);
+            return;
+        }
+        retrieveRemote(key).whenComplete((wrapper, e) -> {
+            if (e != null || wrapper == null) {
+                hotKeys.unpin(key);
+            } else {
+                hotKeys.finishRefresh(key);
+            }
+        });
+    }
+
+    /**
+     * 阻塞读取二级缓存，熔断期间视为未命中
+     */
+    private ValueWrapper getRemote(Object key) {
+        if (!circuitBreaker.tryAcquire()) {
+            return null;
+        }
+        return readRemote(key);
+    }
+
+    /**
+     * 阻塞读取二级缓存，调用前需要经过熔断器
+     */
+    private ValueWrapper readRemote(Object key) {
+        long start = System.nanoTime();
+        try {
+            ValueWrapper wrapper = secondaryCache.get(key);
+            long nanos = System.nanoTime() - start;
+            circuitBreaker.onSuccess(nanos);
+            stats.recordRemoteRead(wrapper == null ? 0 : 1, wrapper == null ? 1 : 0, nanos);
+            if (wrapper != null && unwrap(wrapper.get()) == null) {
+                stats.recordNegativeHit(false, 1);
+            }
+            return wrapper;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            stats.recordRemoteError();
+            throw e;
+        }
+    }
+
+    /**
+     * 开始一次二级缓存写入或清理，熔断或同时进行的写入过多时跳过
+     *
+     * @return 是否可以写入，可以写入时结束后需要调用 {@link ChenilleCircuitBreaker#finishWrite()}
+     */
+    private boolean tryStartRemoteWrite() {
+        if (!circuitBreaker.tryStartWrite()) {
+            log.warn("二级缓存 [{}] 同时进行的写入过多，丢弃本次写入", name);
+            return false;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            circuitBreaker.finishWrite();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 把二级缓存调用的结果记录到熔断器，写入或清理结束后释放写入名额
+     */
+    private <T> Mono<T> recordRemote(Mono<T> remote, boolean write) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return remote.doOnSuccess(value -> circuitBreaker.onSuccess(System.nanoTime() - start))
+                    .doOnError(e -> circuitBreaker.onFailure())
+                    .doFinally(signal -> {
+                        if (write) {
+                            circuitBreaker.finishWrite();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 在异步执行器中阻塞写入或清理二级缓存，结果记录到熔断器，结束后释放写入名额
+     *
+     * @param action 操作名称，用于日志
+     * @param task   写入或清理
+     */
+    private void executeRemote(String action, Runnable task) {
+        executeRemote(action, true, task);
+    }
+
+    /**
+     * @param timed 是否统计慢调用
+     */
+    private void executeRemote(String action, boolean timed, Runnable task) {
+        try {
+            asyncExecutor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    task.run();
+                    circuitBreaker.onSuccess(timed ? System.nanoTime() - start : 0);
+                } catch (RuntimeException e) {
+                    circuitBreaker.onFailure();
+                    stats.recordRemoteError();
+                    log.error("{}失败 -> {}", action, e.getMessage());
+                } finally {
+                    circuitBreaker.finishWrite();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.finishWrite();
+            log.error("{}失败，异步执行器拒绝执行 -> {}", action, e.getMessage());
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <T> T unwrap(Object value) {
-        return value == NULL_PLACEHOLDER ? null : (T) value;
+        return value instanceof NullValue ? null : (T) value;
     }
 
     /**
@@ -179,16 +784,151 @@ public record ChenilleTwoLevelCache(Cache primaryCache,
     @Override
     public void put(@NonNull Object key, Object value) {
         putLocal(key, value);
-        putRemote(key, value);
+        putRemote(key, value, true);
+    }
+
+    /**
+     * 不存在时才缓存（一级+二级）
+     * <p>
+     * 同一个 key 的检查与写入在分段锁内完成
+     */
+    @Override
+    public ValueWrapper putIfAbsent(@NonNull Object key, Object value) {
+        return lockRegistry.withLock(key, () -> {
+            ValueWrapper existing = get(key);
+            if (existing == null) {
+                put(key, value);
+            }
+            return existing;
+        });
+    }
+
+    /**
+     * 不存在时才缓存（一级+二级），等待期间不阻塞线程
+     */
+    public CompletableFuture<ValueWrapper> putIfAbsentAsync(@NonNull Object key, Object value) {
+        return lockRegistry.withAsyncLock(key, () -> CompletableFuture.supplyAsync(() -> {
+            ValueWrapper existing = get(key);
+            if (existing == null) {
+                put(key, value);
+            }
+            return existing;
+        }, asyncExecutor));
+    }
+
+    /**
+     * 批量缓存数据（一级+二级），只发送一条变更通知
+     */
+    public void putAll(@NonNull Map<?, ?> entries) {
+        putLocalAll(entries);
+        putRemoteAll(entries, true);
+    }
+
+    /**
+     * 批量缓存一级缓存
+     */
+    public void putLocalAll(@NonNull Map<?, ?> entries) {
+        if (isLocalEnabled()) {
+            entries.forEach((key, value) -> {
+                versionFence.advance(key);
+                storeLocal(key, value);
+            });
+        }
+        rememberAll(entries);
+    }
+
+    /**
+     * 批量缓存二级缓存，写入命令通过同一个连接流水线发送，只发送一条变更通知
+     */
+    public void putRemoteAll(@NonNull Map<?, ?> entries) {
+        rememberAll(entries);
+        putRemoteAll(entries, false);
+    }
+
+    /**
+     * @param settle 写入完成后是否同步一级缓存
+     */
+    private void putRemoteAll(Map<?, ?> entries, boolean settle) {
+        if (entries.isEmpty() || !isRemoteEnabled()) {
+            return;
+        }
+        if (!tryStartRemoteWrite()) {
+            return;
+        }
+        List<Object> keys = new ArrayList<>(entries.keySet());
+        long start = System.nanoTime();
+        if (reactiveRedisTemplate != null) {
+            recordRemote(Flux.fromIterable(entries.entrySet())
+                    .flatMap(entry -> {
+                        Object toStore = (entry.getValue() == null ? NullValue.INSTANCE : entry.getValue());
+                        Duration ttl = remoteTtl(entry.getKey(), entry.getValue());
+                        return ttl.isZero() || ttl.isNegative()
+                                ? reactiveRedisTemplate.opsForValue().set(remoteKey(entry.getKey()), toStore)
+                                : reactiveRedisTemplate.opsForValue().set(remoteKey(entry.getKey()), toStore, ttl);
+                    })
+                    .then(), true)
+                    .subscribe(null,
+                            e -> {
+                                stats.recordRemoteError();
+                                log.error("批量写入二级缓存失败 -> {}", e.getMessage());
+                            },
+                            () -> {
+                                stats.recordRemoteWrite(System.nanoTime() - start);
+                                if (settle) {
+                                    entries.forEach((key, value) -> settleLocal(key, value, false));
+                                } else {
+                                    entries.forEach(this::evictNegativeLocal);
+                                }
+                                asyncPublishAll(keys);
+                            });
+            return;
+        }
+        executeRemote("批量写入二级缓存", () -> {
+            // 二级缓存自行把 null 转换为 NullValue
+            entries.forEach(secondaryCache::put);
+            stats.recordRemoteWrite(System.nanoTime() - start);
+            if (settle) {
+                entries.forEach((key, value) -> settleLocal(key, value, false));
+            } else {
+                entries.forEach(this::evictNegativeLocal);
+            }
+            asyncPublishAll(keys);
+        });
     }
 
     /**
      * 只缓存一级缓存
+     * <p>
+     * 启用堆外缓存时，序列化后超过阈值的缓存值只保存在堆外缓存中
      */
     public void putLocal(@NonNull Object key, Object value){
-        if (chenilleCache.getCaffeine().isEnabled() && primaryCache != null) {
-            Object toCache = (value == null ? NULL_PLACEHOLDER : value);
+        if (isLocalEnabled()) {
+            versionFence.advance(key);
+            storeLocal(key, value);
+        }
+        remember(key, value);
+    }
+
+    /**
+     * 写入一级缓存，不推进版本
+     */
+    private void storeLocal(Object key, Object value) {
+        if (isLocalEnabled()) {
+            if (offHeapStore != null && offHeapStore.put(name, key, value)) {
+                primaryCache.evict(key);
+                if (hotKeys != null) {
+                    hotKeys.update(key, value);
+                }
+                return;
+            }
+            Object toCache = (value == null ? NullValue.INSTANCE : value);
             primaryCache.put(key, toCache);
+            if (offHeapStore != null) {
+                offHeapStore.remove(name, key);
+            }
+            if (hotKeys != null) {
+                hotKeys.update(key, toCache);
+            }
         }
     }
 
@@ -196,59 +936,259 @@ public record ChenilleTwoLevelCache(Cache primaryCache,
      * 只缓存二级缓存,触发缓存变更通知
      */
     public void putRemote(@NonNull Object key, Object value){
-        if (chenilleCache.getRedis().isEnabled() && secondaryCache != null) {
-            Object toCache = (value == null ? NULL_PLACEHOLDER : value);
-            asyncExecutor.execute(()->{
-                secondaryCache.put(key, toCache);
-                asyncPublish(key, toCache);
+        remember(key, value);
+        putRemote(key, value, false);
+    }
+
+    /**
+     * @param settle 写入完成后是否同步一级缓存
+     */
+    private void putRemote(Object key, Object value, boolean settle) {
+        if (isRemoteEnabled() && tryStartRemoteWrite()) {
+            long start = System.nanoTime();
+            if (reactiveRedisTemplate != null) {
+                Object toStore = (value == null ? NullValue.INSTANCE : value);
+                Duration ttl = remoteTtl(key, value);
+                recordRemote(ttl.isZero() || ttl.isNegative()
+                        ? reactiveRedisTemplate.opsForValue().set(remoteKey(key), toStore)
+                        : reactiveRedisTemplate.opsForValue().set(remoteKey(key), toStore, ttl), true)
+                        .subscribe(ok -> {
+                                    stats.recordRemoteWrite(System.nanoTime() - start);
+                                    if (settle) {
+                                        settleLocal(key, value, false);
+                                    } else {
+                                        evictNegativeLocal(key, value);
+                                    }
+                                    asyncPublish(key, value);
+                                },
+                                e -> {
+                                    stats.recordRemoteError();
+                                    log.error("写入二级缓存失败 -> {}", e.getMessage());
+                                });
+                return;
+            }
+            executeRemote("写入二级缓存", () -> {
+                secondaryCache.put(key, value);
+                stats.recordRemoteWrite(System.nanoTime() - start);
+                if (settle) {
+                    settleLocal(key, value, false);
+                } else {
+                    evictNegativeLocal(key, value);
+                }
+                asyncPublish(key, value);
             });
         }
     }
 
+    /**
+     * 只写入二级缓存的非空值后清理本地缓存的空值
+     * <p>
+     * 本节点会忽略自己发出的变更通知，不清理时一级缓存会一直返回 null 直到空值过期
+     */
+    private void evictNegativeLocal(Object key, Object value) {
+        if (value == null || !isLocalEnabled()) {
+            return;
+        }
+        ValueWrapper pinned = hotKeys == null ? null : hotKeys.getPinned(key);
+        ValueWrapper wrapper = pinned != null ? pinned : primaryCache.get(key);
+        if (wrapper != null && unwrap(wrapper.get()) == null) {
+            evictLocal(key);
+        }
+    }
+
     /**
      * 清理缓存（一级+二级）
      */
     @Override
     public void evict(@NonNull Object key) {
         evictLocal(key);
-        evictRemote(key);
+        evictRemote(key, true);
     }
 
     /**
      * 只清理本地一级缓存，不触发二级缓存和广播
      */
     public void evictLocal(Object key) {
-        if (chenilleCache.getCaffeine().isEnabled() && primaryCache != null) {
-            primaryCache.evict(key);
+        if (isLocalEnabled()) {
+            versionFence.advance(key);
+            removeLocal(key);
+        }
+    }
+
+    /**
+     * 清理一级缓存，不推进版本
+     */
+    private void removeLocal(Object key) {
+        primaryCache.evict(key);
+        if (offHeapStore != null) {
+            offHeapStore.remove(name, key);
+        }
+        if (hotKeys != null) {
+            hotKeys.unpin(key);
+        }
+    }
+
+    /**
+     * 二级缓存写入或清理完成后再推进一次版本并同步一级缓存，
+     * 覆盖二级缓存更新完成前读到旧值的回填
+     *
+     * @param key     缓存 key
+     * @param value   写入的值
+     * @param evicted 是否为清理
+     */
+    private void settleLocal(Object key, Object value, boolean evicted) {
+        if (isLocalEnabled()) {
+            versionFence.advance(key);
+            if (evicted) {
+                removeLocal(key);
+            } else {
+                storeLocal(key, value);
+            }
+        }
+    }
+
+    /**
+     * 批量清理缓存（一级+二级），只发送一条变更通知
+     */
+    public void evictAll(@NonNull Collection<?> keys) {
+        evictLocalAll(keys);
+        evictRemoteAll(keys, true);
+    }
+
+    /**
+     * 批量清理本地一级缓存，不触发二级缓存和广播
+     */
+    public void evictLocalAll(@NonNull Collection<?> keys) {
+        if (isLocalEnabled()) {
+            keys.forEach(this::evictLocal);
         }
     }
 
+    /**
+     * 批量清理远程二级缓存，通过一次 DEL 完成，不触发一级缓存
+     */
+    public void evictRemoteAll(@NonNull Collection<?> keys) {
+        evictRemoteAll(keys, false);
+    }
+
+    /**
+     * @param settle 清理完成后是否同步一级缓存
+     */
+    private void evictRemoteAll(Collection<?> keys, boolean settle) {
+        if (keys.isEmpty() || !isRemoteEnabled() || !tryStartRemoteWrite()) {
+            return;
+        }
+        List<Object> evicted = new ArrayList<>(keys);
+        if (reactiveRedisTemplate != null) {
+            recordRemote(reactiveRedisTemplate.delete(evicted.stream().map(this::remoteKey).toArray(String[]::new)), true)
+                    .subscribe(count -> {
+                                if (settle) {
+                                    evicted.forEach(key -> settleLocal(key, null, true));
+                                }
+                                asyncPublishAll(evicted);
+                            },
+                            e -> log.error("批量清理二级缓存失败 -> {}", e.getMessage()));
+            return;
+        }
+        executeRemote("批量清理二级缓存", () -> {
+            evicted.forEach(secondaryCache::evict);
+            if (settle) {
+                evicted.forEach(key -> settleLocal(key, null, true));
+            }
+            asyncPublishAll(evicted);
+        });
+    }
+
     /**
      * 只清理远程二级缓存，不触发一级缓存
      */
     public void evictRemote(Object key) {
-        if (chenilleCache.getRedis().isEnabled() && secondaryCache != null) {
-            asyncExecutor.execute(()->{
+        evictRemote(key, false);
+    }
+
+    /**
+     * @param settle 清理完成后是否同步一级缓存
+     */
+    private void evictRemote(Object key, boolean settle) {
+        if (isRemoteEnabled() && tryStartRemoteWrite()) {
+            if (reactiveRedisTemplate != null) {
+                recordRemote(reactiveRedisTemplate.delete(remoteKey(key)), true)
+                        .subscribe(count -> {
+                                    if (settle) {
+                                        settleLocal(key, null, true);
+                                    }
+                                    asyncPublish(key, null);
+                                },
+                                e -> log.error("清理二级缓存失败 -> {}", e.getMessage()));
+                return;
+            }
+            executeRemote("清理二级缓存", () -> {
                 secondaryCache.evict(key);
+                if (settle) {
+                    settleLocal(key, null, true);
+                }
                 asyncPublish(key, null);
             });
         }
     }
 
     /**
-     * 清理一级缓存和二级缓存
+     * 清理一级缓存和二级缓存，其他节点收到一条清理通知后清理各自的一级缓存
      */
     @Override
     public void clear() {
         clearLocal();
-        clearRemote();
+        clearRemote(null, true);
     }
+
+    /**
+     * 清理一级缓存和二级缓存中匹配模式的 key，其他节点收到一条清理通知后清理各自的一级缓存
+     *
+     * @param pattern key 的匹配模式，支持 * 通配符，如 user:*
+     */
+    public void evictByPattern(@NonNull String pattern) {
+        clearLocal(pattern);
+        clearRemote(pattern, true);
+    }
+
     /**
      * 清理一级缓存
      */
     public void clearLocal() {
-        if (chenilleCache.getCaffeine().isEnabled() && primaryCache != null) {
+        if (isLocalEnabled()) {
+            versionFence.advanceAll();
             primaryCache.clear();
+            if (offHeapStore != null) {
+                offHeapStore.clear(name);
+            }
+            if (hotKeys != null) {
+                hotKeys.unpinAll();
+            }
+        }
+    }
+
+    /**
+     * 清理一级缓存中匹配模式的 key
+     * <p>
+     * 按 key 的字符串形式匹配，一级缓存不是 Caffeine 时清理整个一级缓存
+     *
+     * @param pattern key 的匹配模式，支持 * 通配符
+     */
+    public void clearLocal(@NonNull String pattern) {
+        if (!isLocalEnabled()) {
+            return;
+        }
+        if (!(primaryCache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            clearLocal();
+            return;
+        }
+        versionFence.advanceAll();
+        nativeCache.asMap().keySet().removeIf(key -> PatternMatchUtils.simpleMatch(pattern, String.valueOf(key)));
+        if (offHeapStore != null) {
+            offHeapStore.clear(name, key -> PatternMatchUtils.simpleMatch(pattern, String.valueOf(key)));
+        }
+        if (hotKeys != null) {
+            hotKeys.unpinAll();
         }
     }
 
@@ -256,9 +1196,72 @@ public record ChenilleTwoLevelCache(Cache primaryCache,
      * 清理二级缓存
      */
     public void clearRemote() {
-        if (chenilleCache.getRedis().isEnabled() && secondaryCache != null) {
-            asyncExecutor.execute(secondaryCache::clear);
+        clearRemote(null, false);
+    }
+
+    /**
+     * 清理二级缓存中匹配模式的 key
+     *
+     * @param pattern key 的匹配模式，支持 * 通配符
+     */
+    public void clearRemote(@NonNull String pattern) {
+        clearRemote(pattern, false);
+    }
+
+    /**
+     * 通过 SCAN 分批扫描、UNLINK 分批删除，不阻塞 Redis；完成后发送一条清理通知
+     *
+     * @param pattern key 的匹配模式，为 null 时清理整个缓存
+     * @param settle  清理完成后是否再次清理一级缓存，覆盖清理期间读到旧值的回填
+     */
+    private void clearRemote(String pattern, boolean settle) {
+        if (!isRemoteEnabled() || !tryStartRemoteWrite()) {
+            return;
+        }
+        Runnable completed = () -> {
+            if (settle) {
+                if (pattern == null) {
+                    clearLocal();
+                } else {
+                    clearLocal(pattern);
+                }
+            }
+            if (messagePublisher != null) {
+                messagePublisher.publishClear(getName(), pattern, versionFence.tick());
+                stats.recordInvalidationSent(1);
+            }
+        };
+        String remotePattern = remotePattern(pattern == null ? "*" : pattern);
+        if (reactiveRedisTemplate != null) {
+            int batchSize = Math.max(1, chenilleCache.getClearBatchSize());
+            reactiveRedisTemplate.scan(ScanOptions.scanOptions().match(remotePattern).count(batchSize).build())
+                    .buffer(batchSize)
+                    .concatMap(keys -> reactiveRedisTemplate.unlink(keys.toArray(String[]::new)))
+                    .reduce(0L, Long::sum)
+                    // 清理耗时与 key 的数量有关，不计入慢调用
+                    .doOnSuccess(count -> circuitBreaker.onSuccess(0))
+                    .doOnError(e -> circuitBreaker.onFailure())
+                    .doFinally(signal -> circuitBreaker.finishWrite())
+                    .subscribe(count -> {
+                                log.debug("清理二级缓存 [{}] 匹配 {} 的 key {} 个", name, remotePattern, count);
+                                completed.run();
+                            },
+                            e -> {
+                                stats.recordRemoteError();
+                                log.error("清理二级缓存失败 -> {}", e.getMessage());
+                            });
+            return;
         }
+        executeRemote("清理二级缓存", false, () -> {
+            RedisCache redisCache = pattern != null ? redisCache() : null;
+            if (redisCache != null) {
+                // 缓存写入器配置了 SCAN 批量策略时同样分批扫描删除
+                redisCache.getNativeCache().clean(redisCache.getName(), remotePattern.getBytes(StandardCharsets.UTF_8));
+            } else {
+                secondaryCache.clear();
+            }
+            completed.run();
+        });
     }
 
     /**
@@ -266,12 +1269,96 @@ public record ChenilleTwoLevelCache(Cache primaryCache,
      * 异步通过发布订阅主题消息，其他节点监听到之后进行相关本地缓存操作，防止本地缓存脏数据
      */
     void asyncPublish(Object key, Object value){
-        asyncExecutor.execute(() -> {
-            ChenilleCacheMessage message = new ChenilleCacheMessage();
-            message.setCacheName(chenilleCache.getName());
-            message.setKey(key);
-            message.setValue(value);
-            redisTemplate.convertAndSend(chenilleCache.getTopic(), message);
-        });
+        if (messagePublisher != null) {
+            messagePublisher.publish(getName(), Collections.singletonList(key), versionFence.tick());
+            stats.recordInvalidationSent(1);
+        }
+    }
+
+    /**
+     * 批量变更时只发送一条通知
+     */
+    void asyncPublishAll(Collection<?> keys){
+        if (messagePublisher != null) {
+            messagePublisher.publish(getName(), keys, versionFence.tick());
+            stats.recordInvalidationSent(keys.size());
+        }
+    }
+
+    /**
+     * 二级缓存对应的 {@link RedisCache}，不是 Redis 缓存时为 null
+     * <p>
+     * RedisCacheManager 开启事务支持时返回的缓存被 {@link TransactionAwareCacheDecorator} 包装，需要先取出被包装的缓存，
+     * 否则按缓存名称配置的过期时间、key 前缀都无法读取
+     */
+    private RedisCache redisCache() {
+        Cache target = secondaryCache instanceof TransactionAwareCacheDecorator decorator
+                ? decorator.getTargetCache()
+                : secondaryCache;
+        return target instanceof RedisCache redisCache ? redisCache : null;
+    }
+
+    /**
+     * 二级缓存中实际存储的 key，与 {@link RedisCache} 的 key 规则保持一致
+     */
+    private String remoteKey(Object key) {
+        return remotePrefix() + key;
+    }
+
+    /**
+     * 二级缓存 key 的前缀
+     */
+    private String remotePrefix() {
+        RedisCache redisCache = redisCache();
+        if (redisCache != null) {
+            RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+            return configuration.usePrefix()
+                    ? configuration.getKeyPrefixFor(redisCache.getName())
+                    : "";
+        }
+        return secondaryCache.getName() + "::";
+    }
+
+    /**
+     * 二级缓存中的匹配模式：前缀按字面匹配，pattern 中只保留 * 通配符，与一级缓存的匹配规则一致
+     */
+    private String remotePattern(String pattern) {
+        return escapeGlob(remotePrefix(), true) + escapeGlob(pattern, false);
+    }
+
+    private static String escapeGlob(String value, boolean escapeStar) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '?' || c == '[' || c == ']' || c == '\\' || (escapeStar && c == '*')) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * 二级缓存过期时间，与 {@link RedisCache} 的配置保持一致（RedisCache 的 TtlFunction 已按配置随机化）
+     */
+    private Duration remoteTtl(Object key, Object value) {
+        if (value instanceof ChenilleCacheEntry entry) {
+            // 带逻辑过期时间的缓存值，至少保留到逻辑过期
+            return Duration.ofMillis(Math.max(1, entry.getExpireTime() - System.currentTimeMillis()));
+        }
+        RedisCache redisCache = redisCache();
+        if (redisCache != null) {
+            return redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        }
+        if (value == null || value instanceof NullValue) {
+            ChenilleCacheSpec spec = chenilleCache.getSpecs().get(name);
+            long negativeTtl = spec != null && spec.getNegativeTtl() != null
+                    ? spec.getNegativeTtl()
+                    : chenilleCache.getNegativeTtl();
+            if (negativeTtl > 0) {
+                return ChenilleTtlJitter.of(chenilleCache, name).apply(Duration.ofMillis(negativeTtl));
+            }
+        }
+        return ChenilleTtlJitter.of(chenilleCache, name).apply(Duration.ofMillis(chenilleCache.getRedis().getExpire()));
     }
 }
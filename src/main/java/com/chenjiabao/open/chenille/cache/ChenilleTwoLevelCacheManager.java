@@ -2,54 +2,192 @@ package com.chenjiabao.open.chenille.cache;
 
 import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
 import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheBloomFilter;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheHotKey;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheSpec;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * 二级缓存管理器
  */
-public class ChenilleTwoLevelCacheManager implements CacheManager {
+@Slf4j
+public class ChenilleTwoLevelCacheManager implements CacheManager, DisposableBean {
 
     private final CacheManager primaryCacheManager;
     private final CacheManager secondaryCacheManager;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
     private final Map<String, Cache> cacheMap = new ConcurrentHashMap<>();
     private final ChenilleCache chenilleCache;
     private final Executor asyncExecutor;
     private final ChenilleJsonUtils jsonUtils;
+    private final ChenilleLockRegistry lockRegistry;
+    // 本实例 ID，用于识别自己发出的缓存变更通知
+    private final UUID instanceId = UUID.randomUUID();
+    private final ChenilleCacheMessageCodec messageCodec;
+    private final ChenilleCacheMessagePublisher messagePublisher;
+    private final List<Consumer<ChenilleTwoLevelCache>> cacheCreatedListeners = new CopyOnWriteArrayList<>();
+    private final ChenilleOffHeapStore offHeapStore;
+    private final ChenilleCircuitBreaker circuitBreaker;
 
     public ChenilleTwoLevelCacheManager(CacheManager primaryCacheManager,
                                         CacheManager secondaryCacheManager,
                                         RedisTemplate<String, Object> redisTemplate,
+                                        ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
                                         ChenilleCache chenilleCache,
-                                        Executor asyncExecutor, ChenilleJsonUtils jsonUtils) {
+                                        Executor asyncExecutor, ChenilleJsonUtils jsonUtils,
+                                        ChenilleOffHeapStore offHeapStore,
+                                        ChenilleCircuitBreaker circuitBreaker) {
         this.primaryCacheManager = primaryCacheManager;
         this.secondaryCacheManager = secondaryCacheManager;
         this.redisTemplate = redisTemplate;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
         this.chenilleCache = chenilleCache;
         this.asyncExecutor = asyncExecutor;
         this.jsonUtils = jsonUtils;
+        this.offHeapStore = offHeapStore;
+        this.circuitBreaker = circuitBreaker == null
+                ? new ChenilleCircuitBreaker(chenilleCache.getCircuitBreaker())
+                : circuitBreaker;
+        this.lockRegistry = new ChenilleLockRegistry(chenilleCache.getLockStripes());
+        this.messageCodec = new ChenilleCacheMessageCodec(jsonUtils, chenilleCache.getMessageKeyTypes());
+        this.messagePublisher = (redisTemplate == null && reactiveRedisTemplate == null)
+                ? null
+                : new ChenilleCacheMessagePublisher(chenilleCache.getTopic(),
+                        instanceId,
+                        messageCodec,
+                        redisTemplate,
+                        reactiveRedisTemplate,
+                        asyncExecutor,
+                        chenilleCache.getPublishWindow(),
+                        chenilleCache.getPublishBatchSize(),
+                        this.circuitBreaker);
     }
 
     @Override
     public Cache getCache(@NonNull String name) {
-        return cacheMap.computeIfAbsent(name, cacheName ->
-                new ChenilleTwoLevelCache(
-                        Objects.requireNonNull(primaryCacheManager.getCache(cacheName)),
-                        secondaryCacheManager.getCache(cacheName),
-                        redisTemplate,
-                        jsonUtils,
-                        chenilleCache,
-                        asyncExecutor
-                ));
+        Cache existing = cacheMap.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        boolean localEnabled = isLocalEnabled(name);
+        ChenilleTwoLevelCache created = new ChenilleTwoLevelCache(
+                name,
+                localEnabled ? primaryCacheManager.getCache(name) : null,
+                isRemoteEnabled(name) ? secondaryCacheManager.getCache(name) : null,
+                messagePublisher,
+                jsonUtils,
+                chenilleCache,
+                asyncExecutor,
+                new ChenilleSingleFlight(chenilleCache.getLoadTimeout()),
+                new ChenilleReactiveSingleFlight(),
+                lockRegistry,
+                reactiveRedisTemplate,
+                offHeapStore,
+                new ChenilleCacheStats(),
+                new ChenilleVersionFence(chenilleCache.getVersionStripes()),
+                localEnabled ? createHotKeys() : null,
+                createBloomFilter(name),
+                circuitBreaker
+        );
+        Cache previous = cacheMap.putIfAbsent(name, created);
+        if (previous != null) {
+            return previous;
+        }
+        cacheCreatedListeners.forEach(listener -> listener.accept(created));
+        return created;
+    }
+
+    /**
+     * 注册缓存创建监听，已创建的缓存会立即回调
+     */
+    public void addCacheCreatedListener(@NonNull Consumer<ChenilleTwoLevelCache> listener) {
+        cacheCreatedListeners.add(listener);
+        getTwoLevelCaches().forEach(listener);
+    }
+
+    /**
+     * 创建热点 key 探测，未启用时为 null
+     */
+    private ChenilleHotKeys createHotKeys() {
+        ChenilleCacheHotKey hotKey = chenilleCache.getHotKey();
+        if (hotKey == null || !hotKey.isEnabled()) {
+            return null;
+        }
+        return new ChenilleHotKeys(hotKey.getSampleRate(),
+                hotKey.getWindow(),
+                hotKey.getThreshold(),
+                hotKey.getTopN(),
+                hotKey.getRefreshInterval(),
+                hotKey.getSketchWidth());
+    }
+
+    /**
+     * 创建布隆过滤器，全局或按缓存名未启用时为 null
+     * <p>
+     * 类型为 redis 但没有响应式 Redis 模板时使用本地布隆过滤器
+     */
+    private ChenilleBloomFilter createBloomFilter(String cacheName) {
+        ChenilleCacheBloomFilter bloomFilter = chenilleCache.getBloomFilter();
+        ChenilleCacheSpec spec = chenilleCache.getSpecs().get(cacheName);
+        if (bloomFilter == null || !bloomFilter.isEnabled() || spec == null || !Boolean.TRUE.equals(spec.getBloomFilter())) {
+            return null;
+        }
+        long expectedInsertions = spec.getBloomExpectedInsertions() != null
+                ? spec.getBloomExpectedInsertions()
+                : bloomFilter.getExpectedInsertions();
+        double fpp = spec.getBloomFpp() != null ? spec.getBloomFpp() : bloomFilter.getFpp();
+        if ("redis".equalsIgnoreCase(bloomFilter.getType())) {
+            if (reactiveRedisTemplate != null) {
+                return new ChenilleRedisBloomFilter(bloomFilter.getKeyPrefix() + cacheName,
+                        expectedInsertions,
+                        fpp,
+                        reactiveRedisTemplate);
+            }
+            log.warn("缓存 [{}] 的布隆过滤器类型为 redis，但未启用 Redis，使用本地布隆过滤器", cacheName);
+        }
+        return new ChenilleLocalBloomFilter(expectedInsertions, fpp);
+    }
+
+    /**
+     * 指定缓存是否启用一级缓存
+     */
+    private boolean isLocalEnabled(String cacheName) {
+        ChenilleCacheSpec spec = chenilleCache.getSpecs().get(cacheName);
+        return primaryCacheManager != null
+                && (spec == null || spec.getCaffeineEnabled() == null || spec.getCaffeineEnabled());
+    }
+
+    /**
+     * 指定缓存是否启用二级缓存
+     */
+    private boolean isRemoteEnabled(String cacheName) {
+        ChenilleCacheSpec spec = chenilleCache.getSpecs().get(cacheName);
+        return secondaryCacheManager != null
+                && (spec == null || spec.getRedisEnabled() == null || spec.getRedisEnabled());
+    }
+
+    /**
+     * 获取已创建的缓存，不存在时不会创建
+     */
+    public ChenilleTwoLevelCache getExistingTwoLevelCache(@NonNull String name) {
+        return (ChenilleTwoLevelCache) cacheMap.get(name);
     }
 
     /**
@@ -59,10 +197,67 @@ public class ChenilleTwoLevelCacheManager implements CacheManager {
         return (ChenilleTwoLevelCache) getCache(name);
     }
 
+    /**
+     * 获取已创建的全部二级缓存
+     */
+    public Collection<ChenilleTwoLevelCache> getTwoLevelCaches() {
+        return cacheMap.values().stream()
+                .map(ChenilleTwoLevelCache.class::cast)
+                .toList();
+    }
+
+    /**
+     * 缓存锁注册中心，所有缓存共享
+     */
+    public ChenilleLockRegistry getLockRegistry() {
+        return lockRegistry;
+    }
+
+    /**
+     * 堆外缓存，所有缓存共享，未启用时为 null
+     */
+    public ChenilleOffHeapStore getOffHeapStore() {
+        return offHeapStore;
+    }
+
+    /**
+     * 二级缓存熔断器，所有缓存共享
+     */
+    public ChenilleCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 缓存变更通知发布器，未启用二级缓存时为 null
+     */
+    public ChenilleCacheMessagePublisher getMessagePublisher() {
+        return messagePublisher;
+    }
+
+    /**
+     * 本实例 ID
+     */
+    public UUID getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * 缓存消息编解码器
+     */
+    public ChenilleCacheMessageCodec getMessageCodec() {
+        return messageCodec;
+    }
+
     @Override
     @NonNull
     public Collection<String> getCacheNames() {
-        return primaryCacheManager.getCacheNames();
+        return Collections.unmodifiableSet(cacheMap.keySet());
     }
 
+    @Override
+    public void destroy() {
+        if (messagePublisher != null) {
+            messagePublisher.shutdown();
+        }
+    }
 }
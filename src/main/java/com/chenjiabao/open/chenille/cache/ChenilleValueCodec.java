@@ -0,0 +1,37 @@
+package com.chenjiabao.open.chenille.cache;
+
+/**
+ * 缓存值编解码器
+ * <p>
+ * 负责缓存值与字节之间的转换，写入 Redis 时会在前面加上一个头部字节记录编解码器 ID，
+ * 读取时按头部字节选择编解码器，因此不同节点使用不同的编解码器也可以互相读取。
+ * 使用者可以通过注入该类型的 Bean 增加自定义编解码器
+ */
+public interface ChenilleValueCodec {
+
+    /**
+     * 编解码器 ID，写入头部字节，取值范围 1-8，内置编解码器占用 1-3
+     */
+    byte id();
+
+    /**
+     * 编解码器名称，用于 chenille.config.cache.codec.type 选择写入时使用的编解码器
+     */
+    String name();
+
+    /**
+     * 编码
+     *
+     * @param value 缓存值，不为 null
+     * @return 编码后的字节
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 解码
+     *
+     * @param bytes 编码后的字节
+     * @return 缓存值
+     */
+    Object decode(byte[] bytes);
+}
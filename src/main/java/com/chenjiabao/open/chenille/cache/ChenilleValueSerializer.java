@@ -0,0 +1,171 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.exception.ChenilleChannelException;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存值序列化器
+ * <p>
+ * 数据格式：
+ * <pre>
+ *   header(1) [originalLength(4)] payload
+ * </pre>
+ * header 的低 7 位为编解码器 ID，最高位表示 payload 是否经过压缩，压缩时紧跟 4 字节的原始长度。
+ * header 的取值（0x01-0x08、0x81-0x88）不可能是 JSON 文本的第一个字节，
+ * 因此没有头部的数据按旧版本的 JSON 格式读取；使用 JSON 编解码器且未压缩时也不写头部，旧版本节点可以直接读取
+ */
+public class ChenilleValueSerializer implements RedisSerializer<Object> {
+
+    private static final int COMPRESSED = 0x80;
+    private static final int MAX_CODEC_ID = 8;
+    private static final byte[] EMPTY = new byte[0];
+
+    // 写入时使用的编解码器
+    private final ChenilleValueCodec writer;
+    // 编解码器 ID -> 编解码器，读取时使用
+    private final ChenilleValueCodec[] readers = new ChenilleValueCodec[MAX_CODEC_ID + 1];
+    // 没有头部时使用的编解码器
+    private final ChenilleValueCodec legacy;
+    // 编码后达到该大小(单位：字节)时压缩，小于 1 时不压缩
+    private final int compressThreshold;
+    // 压缩级别(0-9)
+    private final int compressionLevel;
+
+    /**
+     * @param writer            写入时使用的编解码器
+     * @param readers           读取时可以识别的编解码器，会自动包含 writer
+     * @param compressThreshold 编码后达到该大小(单位：字节)时压缩，小于 1 时不压缩
+     * @param compressionLevel  压缩级别(0-9)
+     */
+    public ChenilleValueSerializer(ChenilleValueCodec writer,
+                                   Collection<? extends ChenilleValueCodec> readers,
+                                   int compressThreshold,
+                                   int compressionLevel) {
+        this.writer = writer;
+        for (ChenilleValueCodec reader : readers) {
+            register(reader);
+        }
+        register(writer);
+        this.legacy = this.readers[ChenilleJacksonValueCodec.JSON] != null
+                ? this.readers[ChenilleJacksonValueCodec.JSON]
+                : ChenilleJacksonValueCodec.json();
+        this.compressThreshold = compressThreshold;
+        this.compressionLevel = Math.max(Deflater.NO_COMPRESSION, Math.min(Deflater.BEST_COMPRESSION, compressionLevel));
+    }
+
+    private void register(ChenilleValueCodec codec) {
+        if (codec.id() < 1 || codec.id() > MAX_CODEC_ID) {
+            throw ChenilleChannelException.builder()
+                    .logMessage("缓存值编解码器 ID 必须在 1-" + MAX_CODEC_ID + " 之间 -> " + codec.name())
+                    .build()
+                    .logError();
+        }
+        readers[codec.id()] = codec;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        byte[] payload = writer.encode(value);
+        if (compressThreshold > 0 && payload.length >= compressThreshold) {
+            byte[] compressed = compress(payload);
+            // 压缩后没有变小时不压缩
+            if (compressed.length + 4 < payload.length) {
+                byte[] bytes = new byte[compressed.length + 5];
+                bytes[0] = (byte) (writer.id() | COMPRESSED);
+                bytes[1] = (byte) (payload.length >>> 24);
+                bytes[2] = (byte) (payload.length >>> 16);
+                bytes[3] = (byte) (payload.length >>> 8);
+                bytes[4] = (byte) payload.length;
+                System.arraycopy(compressed, 0, bytes, 5, compressed.length);
+                return bytes;
+            }
+        }
+        if (writer.id() == ChenilleJacksonValueCodec.JSON) {
+            return payload;
+        }
+        byte[] bytes = new byte[payload.length + 1];
+        bytes[0] = writer.id();
+        System.arraycopy(payload, 0, bytes, 1, payload.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        int header = bytes[0] & 0xFF;
+        int id = header & ~COMPRESSED;
+        if (id < 1 || id > MAX_CODEC_ID) {
+            // 没有头部，旧版本的 JSON 数据
+            return legacy.decode(bytes);
+        }
+        ChenilleValueCodec codec = readers[id];
+        if (codec == null) {
+            throw new SerializationException("未知的缓存值编解码器 -> " + id);
+        }
+        if ((header & COMPRESSED) == 0) {
+            return codec.decode(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+        int length = ((bytes[1] & 0xFF) << 24) | ((bytes[2] & 0xFF) << 16) | ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+        return codec.decode(decompress(bytes, 5, length));
+    }
+
+    private byte[] compress(byte[] payload) {
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+            byte[] buffer = new byte[Math.min(payload.length, 8 * 1024)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] decompress(byte[] bytes, int offset, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            byte[] payload = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(payload, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new SerializationException("解压缓存值失败 -> 数据不完整");
+            }
+            return payload;
+        } catch (DataFormatException e) {
+            throw new SerializationException("解压缓存值失败 -> " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 写入时使用的编解码器
+     */
+    public ChenilleValueCodec writer() {
+        return writer;
+    }
+}
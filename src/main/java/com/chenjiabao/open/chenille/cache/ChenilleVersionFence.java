@@ -0,0 +1,89 @@
+package com.chenjiabao.open.chenille.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 版本栅栏
+ * <p>
+ * 按 key 的哈希分段记录最近一次失效的版本号，一级缓存的每次写入、清理、收到失效通知都会推进对应分段的版本。
+ * 回填一级缓存前先记下版本，读完二级缓存后只有版本未变化时才写入，
+ * 避免二级缓存读取期间到达的失效被过期的回填覆盖。
+ * <p>
+ * 版本号由混合逻辑时钟生成（毫秒时间戳左移 16 位 + 逻辑计数），收到其他节点的版本号后时钟不会回退，
+ * 因此版本号在集群内单调递增。不同 key 可能共享同一个分段，只会导致少量回填被放弃，不会读到旧值
+ */
+public class ChenilleVersionFence {
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * @param stripes 分段数量，会向上取整为 2 的幂
+     */
+    public ChenilleVersionFence(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * key 当前的版本，回填前记录
+     */
+    public long current(Object key) {
+        return stripes.get(index(key));
+    }
+
+    /**
+     * 版本是否仍是最新的，即记录之后 key 没有被写入或清理
+     */
+    public boolean isCurrent(Object key, long version) {
+        return stripes.get(index(key)) == version;
+    }
+
+    /**
+     * 推进 key 的版本
+     *
+     * @return 新的版本号
+     */
+    public long advance(Object key) {
+        long version = tick();
+        stripes.accumulateAndGet(index(key), version, Math::max);
+        return version;
+    }
+
+    /**
+     * 推进所有 key 的版本，清空缓存时使用
+     *
+     * @return 新的版本号
+     */
+    public long advanceAll() {
+        long version = tick();
+        for (int i = 0; i < stripes.length(); i++) {
+            stripes.accumulateAndGet(i, version, Math::max);
+        }
+        return version;
+    }
+
+    /**
+     * 收到其他节点的版本号，时钟至少推进到该版本
+     */
+    public void observe(long remoteVersion) {
+        clock.accumulateAndGet(remoteVersion, Math::max);
+    }
+
+    /**
+     * 生成一个新的版本号
+     */
+    public long tick() {
+        return clock.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis() << 16));
+    }
+
+    private int index(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        // 扰动，让高位也参与分段
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+}
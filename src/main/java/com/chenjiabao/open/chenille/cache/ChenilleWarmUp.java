@@ -0,0 +1,134 @@
+package com.chenjiabao.open.chenille.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 缓存预热
+ * <p>
+ * 启动时先恢复一级缓存快照，再并行执行全部 {@link ChenilleCacheWarmer}；关闭时写入一级缓存快照。
+ * 预热失败或超时只记录日志，不影响应用启动
+ */
+@Slf4j
+public class ChenilleWarmUp {
+
+    private final ChenilleTwoLevelCacheManager cacheManager;
+    private final List<ChenilleCacheWarmer> warmers;
+    // 一级缓存快照，未启用时为 null
+    private final ChenilleCacheSnapshot snapshot;
+    private final Duration timeout;
+    private final int parallelism;
+    private final int batchSize;
+
+    /**
+     * @param cacheManager 二级缓存管理器
+     * @param warmers      预热器
+     * @param snapshot     一级缓存快照，为 null 时不恢复也不写入快照
+     * @param timeout      预热的最长等待时间(单位：毫秒)
+     * @param parallelism  同时执行的预热器数量
+     * @param batchSize    每批预热的 key 数量
+     */
+    public ChenilleWarmUp(ChenilleTwoLevelCacheManager cacheManager,
+                          List<ChenilleCacheWarmer> warmers,
+                          ChenilleCacheSnapshot snapshot,
+                          long timeout,
+                          int parallelism,
+                          int batchSize) {
+        this.cacheManager = cacheManager;
+        this.warmers = warmers == null ? List.of() : List.copyOf(warmers);
+        this.snapshot = snapshot;
+        this.timeout = Duration.ofMillis(Math.max(1, timeout));
+        this.parallelism = Math.max(1, parallelism);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * 恢复快照并执行预热器，最多等待 timeout
+     */
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        if (snapshot != null) {
+            try {
+                int restored = snapshot.restore(cacheManager);
+                if (restored > 0) {
+                    log.info("从快照 {} 恢复一级缓存 {} 个，耗时 {} 毫秒", snapshot.path(), restored, System.currentTimeMillis() - start);
+                }
+            } catch (Exception e) {
+                log.warn("恢复缓存快照 {} 失败 -> {}", snapshot.path(), e.getMessage());
+            }
+        }
+        if (warmers.isEmpty()) {
+            return;
+        }
+        try {
+            Long warmed = Flux.fromIterable(warmers)
+                    .flatMap(this::warm, parallelism)
+                    .reduce(0L, Long::sum)
+                    .block(timeout);
+            log.info("缓存预热完成，共 {} 个 key，耗时 {} 毫秒", warmed, System.currentTimeMillis() - start);
+        } catch (IllegalStateException e) {
+            log.warn("缓存预热超过 {} 毫秒，不再等待 -> {}", timeout.toMillis(), e.getMessage());
+        }
+    }
+
+    /**
+     * 写入一级缓存快照
+     */
+    public void saveSnapshot() {
+        if (snapshot == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            int saved = snapshot.save(cacheManager.getTwoLevelCaches());
+            log.info("一级缓存快照写入 {}，共 {} 个，耗时 {} 毫秒", snapshot.path(), saved, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("写入缓存快照 {} 失败 -> {}", snapshot.path(), e.getMessage());
+        }
+    }
+
+    /**
+     * 执行一个预热器，一批 key 通过一次 Redis 往返读取，二级缓存中也不存在的 key 交给预热器加载
+     *
+     * @return 预热的 key 数量
+     */
+    private Mono<Long> warm(ChenilleCacheWarmer warmer) {
+        return Mono.defer(() -> {
+                    ChenilleTwoLevelCache cache = cacheManager.getTwoLevelCache(warmer.cacheName());
+                    return warmer.keys()
+                            .buffer(batchSize)
+                            .concatMap(batch -> Mono.fromFuture(() -> cache.getAll(batch))
+                                    .flatMap(found -> found.size() == batch.size()
+                                            ? Mono.just(found.size())
+                                            : load(warmer, cache, batch, found.keySet()).map(loaded -> found.size() + loaded)))
+                            .reduce(0L, Long::sum);
+                })
+                .onErrorResume(e -> {
+                    log.warn("缓存 [{}] 预热失败 -> {}", warmer.cacheName(), e.getMessage());
+                    return Mono.just(0L);
+                });
+    }
+
+    private Mono<Integer> load(ChenilleCacheWarmer warmer,
+                               ChenilleTwoLevelCache cache,
+                               List<?> batch,
+                               Set<?> found) {
+        Collection<Object> missing = new HashSet<>(batch);
+        missing.removeAll(found);
+        return warmer.load(missing)
+                .map(loaded -> {
+                    if (!loaded.isEmpty()) {
+                        cache.putAll(loaded);
+                    }
+                    return loaded.size();
+                })
+                .defaultIfEmpty(0);
+    }
+}
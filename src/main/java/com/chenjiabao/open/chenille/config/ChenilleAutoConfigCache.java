@@ -1,19 +1,41 @@
 package com.chenjiabao.open.chenille.config;
 
 import com.chenjiabao.open.chenille.aspect.ChenilleCacheAspect;
+import com.chenjiabao.open.chenille.cache.ChenilleBloomFilter;
+import com.chenjiabao.open.chenille.cache.ChenilleBloomFilterLoader;
+import com.chenjiabao.open.chenille.cache.ChenilleCacheEndpoint;
+import com.chenjiabao.open.chenille.cache.ChenilleCacheMeterBinder;
 import com.chenjiabao.open.chenille.cache.ChenilleCaffeineCacheRemovalListener;
+import com.chenjiabao.open.chenille.cache.ChenilleCacheSnapshot;
+import com.chenjiabao.open.chenille.cache.ChenilleCacheWarmer;
+import com.chenjiabao.open.chenille.cache.ChenilleCaffeineExpiry;
+import com.chenjiabao.open.chenille.cache.ChenilleTtlJitter;
+import com.chenjiabao.open.chenille.cache.ChenilleCircuitBreaker;
+import com.chenjiabao.open.chenille.cache.ChenilleCaffeineWeigher;
+import com.chenjiabao.open.chenille.cache.ChenilleDefaultSizeEstimator;
+import com.chenjiabao.open.chenille.cache.ChenilleJacksonValueCodec;
+import com.chenjiabao.open.chenille.cache.ChenilleOffHeapStore;
+import com.chenjiabao.open.chenille.cache.ChenilleSizeEstimator;
 import com.chenjiabao.open.chenille.cache.ChenilleRedisCacheMessageListener;
 import com.chenjiabao.open.chenille.cache.ChenilleTwoLevelCacheManager;
+import com.chenjiabao.open.chenille.cache.ChenilleValueCodec;
+import com.chenjiabao.open.chenille.cache.ChenilleValueSerializer;
+import com.chenjiabao.open.chenille.cache.ChenilleWarmUp;
 import com.chenjiabao.open.chenille.core.ChenilleCacheUtils;
 import com.chenjiabao.open.chenille.core.ChenilleHardwareUtils;
 import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
 import com.chenjiabao.open.chenille.core.ChenilleStringUtils;
 import com.chenjiabao.open.chenille.exception.ChenilleChannelException;
 import com.chenjiabao.open.chenille.model.property.ChenilleCacheCaffeine;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheCodec;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheOffHeap;
 import com.chenjiabao.open.chenille.model.property.ChenilleCacheRedis;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheSpec;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheWarmUp;
 import com.chenjiabao.open.chenille.model.property.ChenilleProperties;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -24,9 +46,12 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
@@ -37,11 +62,18 @@ import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSeriali
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.ClassUtils;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 @Slf4j
 @ConditionalOnWebApplication
@@ -59,43 +91,173 @@ public class ChenilleAutoConfigCache {
     @ConditionalOnProperty(prefix = "chenille.config.cache.caffeine", name = "enabled", havingValue = "true")
     static class CaffeineCacheConfig {
 
+        @Bean
+        @ConditionalOnMissingBean
+        public ChenilleCaffeineCacheRemovalListener chenilleCaffeineCacheRemovalListener() {
+            return new ChenilleCaffeineCacheRemovalListener();
+        }
+
         @Bean
         @ConditionalOnMissingBean
         public CaffeineCacheManager caffeineCacheManager(ChenilleProperties chenilleProperties,
+                                                         ChenilleCaffeineCacheRemovalListener removalListener,
                                                          @Autowired(required = false) @Qualifier("chenilleIoExecutor") ThreadPoolTaskExecutor ioExecutor,
-                                                         @Autowired(required = false) ChenilleHardwareUtils chenilleHardwareUtils) {
+                                                         @Autowired(required = false) ChenilleHardwareUtils chenilleHardwareUtils,
+                                                         @Autowired(required = false) ChenilleSizeEstimator sizeEstimator,
+                                                         @Autowired(required = false) ChenilleJsonUtils jsonUtils,
+                                                         @Autowired(required = false) ChenilleCircuitBreaker circuitBreaker) {
             if (chenilleHardwareUtils == null) {
                 chenilleHardwareUtils = new ChenilleHardwareUtils();
             }
+            if (sizeEstimator == null) {
+                sizeEstimator = new ChenilleDefaultSizeEstimator(jsonUtils == null ? new ChenilleJsonUtils() : jsonUtils);
+            }
 
             ChenilleCacheCaffeine caffeine = chenilleProperties.getCache().getCaffeine();
-            CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(caffeine.getName());
+            Executor executor = ioExecutor == null ? ForkJoinPool.commonPool() : ioExecutor;
+            ChenilleCaffeineWeigher weigher = new ChenilleCaffeineWeigher(sizeEstimator);
+            // 动态模式，任意缓存名都会按默认配置创建一级缓存
+            CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
 
             // 估算最大缓存条目数（默认 10% 的可用内存，假设平均对象大小 ~1KB，最多 100w 条）
             int maximumSize = caffeine.getMaximumSize() == null
                     ? (int) Math.min(((double) chenilleHardwareUtils.maxMemory() / 1024) * 0.1, 1_000_000)
                     : caffeine.getMaximumSize();
 
-            // 初始容量：默认 10% 的 maximumSize，至少 64，不超过 maximumSize
-            int initialCapacity = caffeine.getInitialCapacity() == null
-                    ? Math.max(64, (int) (maximumSize * 0.1))
-                    : caffeine.getInitialCapacity();
+            // 按字节淘汰：maxWeightBytes 优先，其次为堆内存百分比
+            Long maximumWeight = caffeine.getMaxWeightBytes() != null
+                    ? caffeine.getMaxWeightBytes()
+                    : caffeine.getHeapPercent() == null
+                    ? null
+                    : chenilleHardwareUtils.maxMemory() * Math.min(100, Math.max(1, caffeine.getHeapPercent())) / 100;
+            // 按字节淘汰时 maximumWeight 为全部一级缓存的总预算，按缓存拆分，避免每个缓存都占满整个预算
+            Long sharedWeight = sharedWeight(maximumWeight, chenilleProperties.getCache().getSpecs());
 
-            initialCapacity = Math.min(initialCapacity, maximumSize);
+            caffeineCacheManager.setCaffeine(caffeineBuilder(caffeine.getInitialCapacity(),
+                    maximumSize,
+                    sharedWeight,
+                    weigher,
+                    null,
+                    caffeine.getExpire(),
+                    chenilleProperties.getCache().getNegativeTtl(),
+                    circuitBreaker,
+                    ChenilleTtlJitter.of(chenilleProperties.getCache(), null),
+                    removalListener,
+                    executor));
 
-            caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
-                    // 设置初始缓存大小
-                    .initialCapacity(initialCapacity)
-                    // 设置最大缓存
-                    .maximumSize(maximumSize)
-                    .executor(ioExecutor == null ? ForkJoinPool.commonPool() : ioExecutor)
-                    .removalListener(new ChenilleCaffeineCacheRemovalListener())
-                    .expireAfterAccess(Duration.ofMillis(caffeine.getExpire()))
-                    .recordStats()
-            );
+            // 按缓存名称单独配置的一级缓存
+            chenilleProperties.getCache().getSpecs().forEach((name, spec) -> {
+                if (Boolean.FALSE.equals(spec.getCaffeineEnabled())) {
+                    return;
+                }
+                Long expireAfterWrite = spec.getExpireAfterWrite();
+                Long expireAfterAccess = expireAfterWrite != null
+                        ? null
+                        : spec.getExpireAfterAccess() != null ? spec.getExpireAfterAccess() : caffeine.getExpire();
+                Long specWeight = spec.getMaxWeightBytes() != null
+                        ? spec.getMaxWeightBytes()
+                        : spec.getMaximumSize() != null ? null : sharedWeight;
+                caffeineCacheManager.registerCustomCache(name, caffeineBuilder(caffeine.getInitialCapacity(),
+                        spec.getMaximumSize() == null ? maximumSize : spec.getMaximumSize(),
+                        specWeight,
+                        weigher,
+                        expireAfterWrite,
+                        expireAfterAccess,
+                        spec.getNegativeTtl() != null ? spec.getNegativeTtl() : chenilleProperties.getCache().getNegativeTtl(),
+                        circuitBreaker,
+                        ChenilleTtlJitter.of(chenilleProperties.getCache(), name),
+                        removalListener,
+                        executor).build());
+            });
             return caffeineCacheManager;
         }
 
+        /**
+         * 未单独配置容量的缓存分到的字节数
+         * <p>
+         * 总预算先扣除单独配置了 maxWeightBytes 的缓存，剩余部分由未单独配置容量的缓存与默认配置平分，
+         * 按默认配置动态创建的缓存各自使用默认配置的一份
+         *
+         * @param maximumWeight 全部一级缓存的最大占用字节数，为空时不按字节淘汰
+         * @param specs         按缓存名称单独配置
+         * @return 每份的字节数，maximumWeight 为空时为空
+         */
+        private static Long sharedWeight(Long maximumWeight, Map<String, ChenilleCacheSpec> specs) {
+            if (maximumWeight == null) {
+                return null;
+            }
+            long reserved = 0;
+            int shares = 1;
+            for (ChenilleCacheSpec spec : specs.values()) {
+                if (Boolean.FALSE.equals(spec.getCaffeineEnabled())) {
+                    continue;
+                }
+                if (spec.getMaxWeightBytes() != null) {
+                    reserved += spec.getMaxWeightBytes();
+                } else if (spec.getMaximumSize() == null) {
+                    shares++;
+                }
+            }
+            long remaining = maximumWeight - reserved;
+            if (remaining < shares) {
+                log.warn("按缓存名称配置的一级缓存 max-weight-bytes 合计 {} 字节，超过总预算 {} 字节，其余缓存按总预算平分",
+                        reserved, maximumWeight);
+                remaining = maximumWeight;
+            }
+            return Math.max(1, remaining / shares);
+        }
+
+        /**
+         * 构建 Caffeine
+         *
+         * @param initialCapacity   初始容量，为空时默认 10% 的 maximumSize，至少 64，不超过 maximumSize
+         * @param maximumSize       最大容量，maximumWeight 为空时生效
+         * @param maximumWeight     最大占用字节数，不为空时按 weigher 估算的字节数淘汰
+         * @param weigher           权重计算
+         * @param expireAfterWrite  写入后过期时间(单位：毫秒)，为空时不设置
+         * @param expireAfterAccess 访问后过期时间(单位：毫秒)，为空时不设置
+         * @param negativeTtl       空值的过期时间(单位：毫秒)，小于 1 时与普通缓存值相同
+         * @param circuitBreaker    二级缓存熔断器，熔断期间延长过期时间，为空时不延长
+         * @param jitter            过期时间随机化
+         * @param removalListener   移除监听
+         * @param executor          执行器
+         */
+        private static Caffeine<Object, Object> caffeineBuilder(Integer initialCapacity,
+                                                                int maximumSize,
+                                                                Long maximumWeight,
+                                                                ChenilleCaffeineWeigher weigher,
+                                                                Long expireAfterWrite,
+                                                                Long expireAfterAccess,
+                                                                long negativeTtl,
+                                                                ChenilleCircuitBreaker circuitBreaker,
+                                                                ChenilleTtlJitter jitter,
+                                                                ChenilleCaffeineCacheRemovalListener removalListener,
+                                                                Executor executor) {
+            int capacity = initialCapacity == null
+                    ? Math.max(64, (int) (maximumSize * 0.1))
+                    : initialCapacity;
+            capacity = Math.min(capacity, maximumSize);
+
+            Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                    // 设置初始缓存大小
+                    .initialCapacity(capacity)
+                    .executor(executor)
+                    .removalListener(removalListener)
+                    .recordStats();
+            if (maximumWeight != null) {
+                // 按估算的字节数淘汰
+                builder.maximumWeight(maximumWeight).weigher(weigher);
+            } else {
+                // 设置最大缓存
+                builder.maximumSize(maximumSize);
+            }
+            if (expireAfterWrite != null || expireAfterAccess != null || negativeTtl > 0) {
+                // 空值按 negativeTtl 单独过期，二级缓存熔断期间延长过期时间，过期时间随机化错开同时写入的缓存
+                builder.expireAfter(new ChenilleCaffeineExpiry(expireAfterWrite, expireAfterAccess, negativeTtl, circuitBreaker, jitter));
+            }
+            return builder;
+        }
+
     }
 
     @AutoConfiguration(before = ChenilleAutoConfigCache.class)
@@ -116,7 +278,40 @@ public class ChenilleAutoConfigCache {
 
         @Bean
         @ConditionalOnMissingBean
-        public ReactiveRedisTemplate<String,Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory){
+        public ChenilleValueSerializer chenilleValueSerializer(ChenilleProperties chenilleProperties,
+                                                               @Autowired(required = false) List<ChenilleValueCodec> customCodecs) {
+            ChenilleCacheCodec codec = chenilleProperties.getCache().getCodec();
+            // 内置编解码器 + 自定义编解码器，读取时都可以识别
+            Map<String, ChenilleValueCodec> codecs = new LinkedHashMap<>();
+            codecs.put("json", ChenilleJacksonValueCodec.json());
+            if (ClassUtils.isPresent("com.fasterxml.jackson.dataformat.smile.SmileFactory", null)) {
+                codecs.put("smile", ChenilleJacksonValueCodec.smile());
+            }
+            if (ClassUtils.isPresent("com.fasterxml.jackson.dataformat.cbor.CBORFactory", null)) {
+                codecs.put("cbor", ChenilleJacksonValueCodec.cbor());
+            }
+            if (customCodecs != null) {
+                customCodecs.forEach(custom -> codecs.put(custom.name(), custom));
+            }
+
+            ChenilleValueCodec writer = codecs.get(codec.getType());
+            if (writer == null) {
+                throw ChenilleChannelException.builder()
+                        .logMessage("注入 ChenilleValueSerializer Bean 失败 -> 未知的缓存值编解码器 " + codec.getType()
+                                + "，可选值为 " + codecs.keySet())
+                        .build()
+                        .logError();
+            }
+            return new ChenilleValueSerializer(writer,
+                    codecs.values(),
+                    codec.getCompressThreshold(),
+                    codec.getCompressionLevel());
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactiveRedisTemplate<String,Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory,
+                                                                          ChenilleValueSerializer valueSerializer){
             // Key 序列化器
             RedisSerializationContext.RedisSerializationContextBuilder<String, Object> builder =
                     RedisSerializationContext.newSerializationContext(new StringRedisSerializer());
@@ -124,9 +319,9 @@ public class ChenilleAutoConfigCache {
             // Value 序列化器
             RedisSerializationContext<String, Object> context = builder
                     .key(new StringRedisSerializer())
-                    .value(new GenericJackson2JsonRedisSerializer())
+                    .value(valueSerializer)
                     .hashKey(new StringRedisSerializer())
-                    .hashValue(new GenericJackson2JsonRedisSerializer())
+                    .hashValue(valueSerializer)
                     .build();
 
             return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, context);
@@ -134,20 +329,22 @@ public class ChenilleAutoConfigCache {
 
         @Bean
         @ConditionalOnMissingBean
-        public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                           ChenilleValueSerializer valueSerializer) {
             RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
             redisTemplate.setConnectionFactory(redisConnectionFactory);
             redisTemplate.setKeySerializer(new StringRedisSerializer());
-            redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+            redisTemplate.setValueSerializer(valueSerializer);
             redisTemplate.setHashKeySerializer(new StringRedisSerializer());
-            redisTemplate.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+            redisTemplate.setHashValueSerializer(valueSerializer);
             return redisTemplate;
         }
 
         @Bean
         @ConditionalOnMissingBean
         public RedisCacheManager redisCacheManager(ChenilleProperties chenilleProperties,
-                                                   @Autowired(required = false) RedisConnectionFactory redisConnectionFactory) {
+                                                   @Autowired(required = false) RedisConnectionFactory redisConnectionFactory,
+                                                   ChenilleValueSerializer valueSerializer) {
             if (redisConnectionFactory == null) {
                 throw ChenilleChannelException.builder()
                         .logMessage("注入 RedisCacheManager Bean 失败 -> 启用 chenille.config.cache.redis 时，需要同时启用 spring.redis")
@@ -160,20 +357,47 @@ public class ChenilleAutoConfigCache {
                     .serializeKeysWith(RedisSerializationContext.SerializationPair
                             .fromSerializer(new StringRedisSerializer()))
                     .serializeValuesWith(RedisSerializationContext.SerializationPair
-                            .fromSerializer(new GenericJackson2JsonRedisSerializer()))
-                    .entryTtl(Duration.ofMillis(redis.getExpire()));
+                            .fromSerializer(valueSerializer))
+                    .entryTtl(ttlFunction(redis.getExpire(),
+                            chenilleProperties.getCache().getNegativeTtl(),
+                            ChenilleTtlJitter.of(chenilleProperties.getCache(), null)));
 
-            // 未来可增加多个缓存
             Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
             cacheConfigs.put(redis.getName(), defaultConfig);
+            // 按缓存名称单独配置的二级缓存过期时间
+            chenilleProperties.getCache().getSpecs().forEach((name, spec) -> {
+                if (spec.getRedisExpire() != null || spec.getNegativeTtl() != null
+                        || spec.getJitterPercent() != null || spec.getJitterRange() != null) {
+                    cacheConfigs.put(name, defaultConfig.entryTtl(ttlFunction(
+                            spec.getRedisExpire() != null ? spec.getRedisExpire() : redis.getExpire(),
+                            spec.getNegativeTtl() != null ? spec.getNegativeTtl() : chenilleProperties.getCache().getNegativeTtl(),
+                            ChenilleTtlJitter.of(chenilleProperties.getCache(), name))));
+                }
+            });
 
-            return RedisCacheManager.builder(redisConnectionFactory)
+            // 清理缓存时通过 SCAN 分批扫描删除，避免 KEYS 阻塞 Redis
+            RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory,
+                    BatchStrategies.scan(Math.max(1, chenilleProperties.getCache().getClearBatchSize())));
+            return RedisCacheManager.builder(cacheWriter)
                     .cacheDefaults(defaultConfig)
                     .withInitialCacheConfigurations(cacheConfigs)
                     .transactionAware() // 开启事务支持
                     .build();
         }
 
+        /**
+         * 二级缓存过期时间：空值（{@link NullValue}）按 negativeTtl 过期，每次写入按 jitter 随机化
+         *
+         * @param expire      过期时间(单位：毫秒)
+         * @param negativeTtl 空值的过期时间(单位：毫秒)，小于 1 时与普通缓存值相同
+         * @param jitter      过期时间随机化
+         */
+        private static RedisCacheWriter.TtlFunction ttlFunction(long expire, long negativeTtl, ChenilleTtlJitter jitter) {
+            Duration ttl = Duration.ofMillis(expire);
+            Duration negative = negativeTtl > 0 ? Duration.ofMillis(negativeTtl) : ttl;
+            return (key, value) -> jitter.apply(value == null || value instanceof NullValue ? negative : ttl);
+        }
+
         @Bean
         public RedisMessageListenerContainer redisMessageListenerContainer(ChenilleProperties chenilleProperties,
                                                                            @Autowired(required = false) RedisConnectionFactory connectionFactory,
@@ -200,6 +424,65 @@ public class ChenilleAutoConfigCache {
         }
     }
 
+    @AutoConfiguration(before = ChenilleAutoConfigCache.class)
+    @ConditionalOnClass(name = "org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer")
+    @ConditionalOnProperty(prefix = "chenille.config.cache.off-heap", name = "enabled", havingValue = "true")
+    static class OffHeapCacheConfig {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ChenilleOffHeapStore chenilleOffHeapStore(ChenilleProperties chenilleProperties,
+                                                         @Autowired(required = false) ChenilleValueSerializer valueSerializer,
+                                                         @Autowired(required = false) ChenilleSizeEstimator sizeEstimator,
+                                                         @Autowired(required = false) ChenilleJsonUtils jsonUtils) {
+            ChenilleCacheOffHeap offHeap = chenilleProperties.getCache().getOffHeap();
+            ChenilleCacheCaffeine caffeine = chenilleProperties.getCache().getCaffeine();
+            // 未配置过期时间时与一级缓存保持一致
+            Long expire = offHeap.getExpire() != null
+                    ? offHeap.getExpire()
+                    : caffeine == null ? null : caffeine.getExpire();
+            if (sizeEstimator == null) {
+                sizeEstimator = new ChenilleDefaultSizeEstimator(jsonUtils == null ? new ChenilleJsonUtils() : jsonUtils);
+            }
+            return new ChenilleOffHeapStore(offHeap.getCapacity(),
+                    offHeap.getBlockSize(),
+                    offHeap.getThreshold(),
+                    expire == null ? 0 : expire,
+                    offHeap.getSegments(),
+                    valueSerializer == null ? new GenericJackson2JsonRedisSerializer() : valueSerializer,
+                    sizeEstimator);
+        }
+    }
+
+    @AutoConfiguration(after = ChenilleAutoConfigCache.class)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    static class CacheMetricsConfig {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ChenilleCacheMeterBinder chenilleCacheMeterBinder(ChenilleTwoLevelCacheManager twoLevelCacheManager,
+                                                                 @Autowired(required = false) ChenilleCaffeineCacheRemovalListener removalListener) {
+            return new ChenilleCacheMeterBinder(twoLevelCacheManager, removalListener);
+        }
+    }
+
+    @AutoConfiguration(after = ChenilleAutoConfigCache.class)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class CacheEndpointConfig {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ChenilleCacheEndpoint chenilleCacheEndpoint(ChenilleTwoLevelCacheManager twoLevelCacheManager) {
+            return new ChenilleCacheEndpoint(twoLevelCacheManager);
+        }
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ChenilleCircuitBreaker chenilleCacheCircuitBreaker(ChenilleProperties chenilleProperties) {
+        return new ChenilleCircuitBreaker(chenilleProperties.getCache().getCircuitBreaker());
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public ChenilleTwoLevelCacheManager twoLevelCacheManager(
@@ -207,8 +490,11 @@ public class ChenilleAutoConfigCache {
             @Autowired(required = false) CaffeineCacheManager caffeineCacheManager,
             @Autowired(required = false) RedisCacheManager redisCacheManager,
             @Autowired(required = false) RedisTemplate<String, Object> redisTemplate,
+            @Autowired(required = false) ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
             @Autowired(required = false) ChenilleJsonUtils jsonUtils,
-            @Autowired(required = false) @Qualifier("chenilleIoExecutor") ThreadPoolTaskExecutor ioExecutor) {
+            @Autowired(required = false) @Qualifier("chenilleIoExecutor") ThreadPoolTaskExecutor ioExecutor,
+            @Autowired(required = false) ChenilleOffHeapStore offHeapStore,
+            ChenilleCircuitBreaker circuitBreaker) {
 
         if(jsonUtils == null) {
             jsonUtils = new ChenilleJsonUtils();
@@ -217,9 +503,79 @@ public class ChenilleAutoConfigCache {
         return new ChenilleTwoLevelCacheManager(caffeineCacheManager,
                 redisCacheManager,
                 redisTemplate,
+                reactiveRedisTemplate,
                 chenilleProperties.getCache(),
                 ioExecutor == null ? ForkJoinPool.commonPool() : ioExecutor,
-                jsonUtils);
+                jsonUtils,
+                offHeapStore,
+                circuitBreaker);
+    }
+
+    /**
+     * 启动时通过 {@link ChenilleBloomFilterLoader} 加载布隆过滤器，在 Web 服务启动前开始，加载在后台进行，
+     * 加载完成前过滤器不拦截任何 key；启用了布隆过滤器但没有加载器的缓存，过滤器始终不拦截任何 key
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "chenilleBloomFilterInitializer")
+    @ConditionalOnProperty(prefix = "chenille.config.cache.bloom-filter", name = "enabled", havingValue = "true")
+    public SmartInitializingSingleton chenilleBloomFilterInitializer(ChenilleProperties chenilleProperties,
+                                                                     ChenilleTwoLevelCacheManager cacheManager,
+                                                                     @Autowired(required = false) List<ChenilleBloomFilterLoader> loaders) {
+        return () -> {
+            Set<String> loaded = loaders == null ? Set.of()
+                    : loaders.stream().map(ChenilleBloomFilterLoader::cacheName).collect(Collectors.toSet());
+            chenilleProperties.getCache().getSpecs().forEach((name, spec) -> {
+                if (Boolean.TRUE.equals(spec.getBloomFilter()) && !loaded.contains(name)) {
+                    log.warn("缓存 [{}] 启用了布隆过滤器但没有对应的 ChenilleBloomFilterLoader，过滤器不会拦截任何 key", name);
+                }
+            });
+            if (loaders == null) {
+                return;
+            }
+            int batchSize = chenilleProperties.getCache().getBloomFilter().getBatchSize();
+            for (ChenilleBloomFilterLoader loader : loaders) {
+                ChenilleBloomFilter bloomFilter = cacheManager.getTwoLevelCache(loader.cacheName()).bloomFilter();
+                if (bloomFilter == null) {
+                    log.warn("缓存 [{}] 未启用布隆过滤器，忽略加载器 {}", loader.cacheName(), loader.getClass().getName());
+                    continue;
+                }
+                bloomFilter.populate(loader.keys(), batchSize)
+                        .subscribe(count -> log.info("缓存 [{}] 的布隆过滤器加载完成，共 {} 个 key", loader.cacheName(), count),
+                                e -> log.error("缓存 [{}] 的布隆过滤器加载失败", loader.cacheName(), e));
+            }
+        };
+    }
+
+    /**
+     * 缓存预热与一级缓存快照，由 {@link ChenilleAutoConfigLifecycle} 在启动完成与关闭时调用
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ChenilleWarmUp chenilleWarmUp(ChenilleProperties chenilleProperties,
+                                         ChenilleTwoLevelCacheManager cacheManager,
+                                         @Autowired(required = false) List<ChenilleCacheWarmer> warmers,
+                                         @Autowired(required = false) ChenilleValueSerializer valueSerializer) {
+        ChenilleCacheWarmUp warmUp = chenilleProperties.getCache().getWarmUp();
+        ChenilleCacheSnapshot snapshot = null;
+        if (warmUp.isSnapshotEnabled()) {
+            if (ClassUtils.isPresent("com.github.benmanes.caffeine.cache.Caffeine", null)) {
+                Path path = warmUp.getSnapshotPath() == null || warmUp.getSnapshotPath().isBlank()
+                        ? Path.of(System.getProperty("java.io.tmpdir"), "chenille-cache.snapshot")
+                        : Path.of(warmUp.getSnapshotPath());
+                snapshot = new ChenilleCacheSnapshot(path,
+                        warmUp.getSnapshotMaxEntries(),
+                        warmUp.getSnapshotMaxAge(),
+                        valueSerializer == null ? new GenericJackson2JsonRedisSerializer() : valueSerializer);
+            } else {
+                log.warn("一级缓存快照需要 Caffeine，已忽略 chenille.config.cache.warm-up.snapshot-enabled");
+            }
+        }
+        return new ChenilleWarmUp(cacheManager,
+                warmers,
+                snapshot,
+                warmUp.getTimeout(),
+                warmUp.getParallelism(),
+                warmUp.getBatchSize());
     }
 
     @Bean
@@ -1,8 +1,10 @@
 package com.chenjiabao.open.chenille.config;
 
+import com.chenjiabao.open.chenille.cache.ChenilleWarmUp;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
@@ -40,6 +42,28 @@ public class ChenilleAutoConfigLifecycle {
         return event -> log.info("🛑 Chenille: 服务正在关闭");
     }
 
+    /**
+     * 应用启动完成后恢复一级缓存快照并执行缓存预热器
+     * <p>
+     * 在 ApplicationReadyEvent 中同步等待预热完成（最多 warm-up.timeout），之后应用才报告就绪（ReadinessState.ACCEPTING_TRAFFIC）
+     */
+    @Bean
+    @ConditionalOnBean(ChenilleWarmUp.class)
+    @ConditionalOnMissingBean(name = "chenilleCacheWarmUpListener")
+    public ApplicationListener<ApplicationReadyEvent> chenilleCacheWarmUpListener(ChenilleWarmUp warmUp) {
+        return event -> warmUp.warmUp();
+    }
+
+    /**
+     * 应用关闭时写入一级缓存快照，此时缓存尚未销毁
+     */
+    @Bean
+    @ConditionalOnBean(ChenilleWarmUp.class)
+    @ConditionalOnMissingBean(name = "chenilleCacheSnapshotListener")
+    public ApplicationListener<ContextClosedEvent> chenilleCacheSnapshotListener(ChenilleWarmUp warmUp) {
+        return event -> warmUp.saveSnapshot();
+    }
+
     /**
      * 监听应用停止事件
      */
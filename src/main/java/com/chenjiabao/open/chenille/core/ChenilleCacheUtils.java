@@ -1,21 +1,35 @@
 package com.chenjiabao.open.chenille.core;
 
+import com.chenjiabao.open.chenille.cache.ChenilleTtlJitter;
 import com.chenjiabao.open.chenille.cache.ChenilleTwoLevelCache;
 import com.chenjiabao.open.chenille.cache.ChenilleTwoLevelCacheManager;
 import com.chenjiabao.open.chenille.exception.ChenilleChannelException;
 import com.chenjiabao.open.chenille.model.property.ChenilleCache;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import jakarta.annotation.Nullable;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.RedisStringCommands;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -28,6 +42,27 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
                                  ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
                                  ChenilleJsonUtils  jsonUtils) {
 
+    // 批量写入时同时等待回复的最大命令数
+    private static final int PIPELINE_DEPTH = 256;
+
+    /**
+     * 删除旧 key，分批写入全部元素（避免参数过多超出 Lua 栈），有元素且 ttl 大于 0 时设置过期时间
+     * <p>
+     * ARGV[1] 为过期时间(单位：毫秒)，ARGV[2] 为写入命令，之后为元素；HSET 每批 1000 个参数，正好是 500 个字段-值对
+     */
+    private static final RedisScript<Long> REPLACE_SCRIPT = RedisScript.of("""
+            local ttl = tonumber(ARGV[1])
+            local command = ARGV[2]
+            redis.call('UNLINK', KEYS[1])
+            for i = 3, #ARGV, 1000 do
+                redis.call(command, KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV)))
+            end
+            if ttl > 0 and #ARGV > 2 then
+                redis.call('PEXPIRE', KEYS[1], ttl)
+            end
+            return #ARGV - 2
+            """, Long.class);
+
     /**
      * 放入缓存（默认缓存）
      */
@@ -42,6 +77,27 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
         return executeOnCache(cacheName, cache -> cache.put(key, value));
     }
 
+    /**
+     * 不存在时才放入缓存（默认缓存）
+     *
+     * @return 放入前已存在的值，不存在时为空
+     */
+    public <V> Mono<V> putIfAbsent(@NonNull String key, @NonNull V value) {
+        return putIfAbsent(chenilleCache.getName(), key, value);
+    }
+
+    /**
+     * 不存在时才放入缓存
+     *
+     * @return 放入前已存在的值，不存在时为空
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Mono<V> putIfAbsent(@NonNull String cacheName, @NonNull String key, @NonNull V value) {
+        return executeOnCacheWithResult(cacheName, cache ->
+                Mono.fromFuture(() -> cache.putIfAbsentAsync(key, value))
+                        .mapNotNull(wrapper -> (V) wrapper.get()));
+    }
+
     /**
      * 放入缓存，仅放入一级缓存
      */
@@ -79,11 +135,19 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
 
     /**
      * 获取缓存值
+     * <p>
+     * 缓存值的类型与 type 不一致时发出 {@link IllegalStateException}，与 {@link Cache#get(Object, Class)} 一致
      */
     public <K, V> Mono<V> get(@NonNull String cacheName, @NonNull K key, @NonNull Class<V> type) {
-        return executeOnCacheWithResult(cacheName, cache -> Mono.fromCallable(() -> cache.get(key, type))
-                .flatMap(v -> v == null ? Mono.empty() : Mono.just(v))
-                .onErrorResume(Mono::error));
+        return executeOnCacheWithResult(cacheName, cache -> retrieve(cache, key)
+                .mapNotNull(Cache.ValueWrapper::get)
+                .handle((value, sink) -> {
+                    if (type.isInstance(value)) {
+                        sink.next(type.cast(value));
+                    } else {
+                        sink.error(new IllegalStateException("缓存值的类型不是 [" + type.getName() + "] -> " + value));
+                    }
+                }));
     }
 
     /**
@@ -97,19 +161,68 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
      * 获取缓存值（带加载器）
      */
     public <K, V> Mono<V> get(@NonNull String cacheName, @NonNull K key, @NonNull Callable<V> loader) {
+        // 同一个 key 的并发加载只执行一次，且不阻塞订阅线程
         return executeOnCacheWithResult(cacheName, cache ->
-                Mono.fromCallable(() -> {
-                    Cache.ValueWrapper wrapper = cache.get(key);
-                    if (wrapper != null && wrapper.get() != null) {
-                        return (V) wrapper.get();
-                    }
-                    V v = loader.call();
-                    cache.put(key, v);
-                    return v;
-                })
+                Mono.fromFuture(() -> cache.getAsync(key, loader))
         );
     }
 
+    /**
+     * 批量获取缓存值（默认缓存）
+     */
+    public <K, V> Mono<Map<K, V>> getAll(@NonNull Collection<K> keys, @NonNull Class<V> type) {
+        return getAll(chenilleCache.getName(), keys, type);
+    }
+
+    /**
+     * 批量获取缓存值
+     * <p>
+     * 一级缓存未命中的 key 通过一次 Redis 往返获取
+     *
+     * @return 命中的 key -> 缓存值，未命中的 key 不包含在内
+     */
+    public <K, V> Mono<Map<K, V>> getAll(@NonNull String cacheName, @NonNull Collection<K> keys, @NonNull Class<V> type) {
+        return executeOnCacheWithResult(cacheName, cache ->
+                Mono.fromFuture(() -> cache.getAll(keys))
+                        .map(found -> {
+                            Map<K, V> result = new LinkedHashMap<>(found.size());
+                            found.forEach((k, v) -> {
+                                if (type.isInstance(v)) {
+                                    result.put(k, type.cast(v));
+                                }
+                            });
+                            return result;
+                        }));
+    }
+
+    /**
+     * 批量放入缓存（默认缓存）
+     */
+    public Mono<Void> putAll(@NonNull Map<?, ?> entries) {
+        return putAll(chenilleCache.getName(), entries);
+    }
+
+    /**
+     * 批量放入缓存
+     */
+    public Mono<Void> putAll(@NonNull String cacheName, @NonNull Map<?, ?> entries) {
+        return executeOnCache(cacheName, cache -> cache.putAll(entries));
+    }
+
+    /**
+     * 批量删除缓存（默认缓存）
+     */
+    public Mono<Void> evictAll(@NonNull Collection<?> keys) {
+        return evictAll(chenilleCache.getName(), keys);
+    }
+
+    /**
+     * 批量删除缓存
+     */
+    public Mono<Void> evictAll(@NonNull String cacheName, @NonNull Collection<?> keys) {
+        return executeOnCache(cacheName, cache -> cache.evictAll(keys));
+    }
+
     /**
      * 删除缓存（默认缓存）
      */
@@ -152,6 +265,24 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
         return executeOnCache(cacheName, cache -> cache.evictRemote(key));
     }
 
+    /**
+     * 按模式删除缓存（默认缓存）
+     *
+     * @param pattern key 的匹配模式，支持 * 通配符，如 user:*
+     */
+    public Mono<Void> evictByPattern(@NonNull String pattern) {
+        return evictByPattern(chenilleCache.getName(), pattern);
+    }
+
+    /**
+     * 按模式删除缓存，二级缓存通过 SCAN 分批扫描、UNLINK 分批删除
+     *
+     * @param pattern key 的匹配模式，支持 * 通配符，如 user:*
+     */
+    public Mono<Void> evictByPattern(@NonNull String cacheName, @NonNull String pattern) {
+        return executeOnCache(cacheName, cache -> cache.evictByPattern(pattern));
+    }
+
     /**
      * 清空缓存
      */
@@ -204,23 +335,68 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
 
     /**
      * 获取或计算并缓存（如果不存在则存入）
+     * <p>
+     * 启用布隆过滤器时，判断为不存在的 key 直接返回空，不读取缓存也不执行加载；
+     * 缓存的 null 视为命中直接返回空，加载结果为空时缓存 null，避免同一个不存在的 key 反复穿透
      */
     @SuppressWarnings("unchecked")
     public <K, V> Mono<V> computeIfAbsent(@NonNull String cacheName, @NonNull K key,
                                     @NonNull Function<K, Mono<V>> mappingFunction) {
-        return executeOnCacheWithResult(cacheName, cache ->
-                Mono.defer(() -> {
-                    Cache.ValueWrapper wrapper = cache.get(key);
-                    if (wrapper != null && wrapper.get() != null) {
-                        return Mono.just((V) Objects.requireNonNull(wrapper.get()));
-                    }
-                    // 通过 Reactive Supplier 获取数据
-                    return mappingFunction.apply(key)
-                            .doOnNext(v -> cache.put(key, v));
-                })
+        return executeOnCacheWithResult(cacheName, cache -> whenMightContain(cache, key,
+                retrieve(cache, key)
+                        // 通过 Reactive Supplier 获取数据，同一个 key 的并发未命中只订阅一次上游
+                        .switchIfEmpty(Mono.defer(() -> cache.reactiveSingleFlight().load(key, () ->
+                                mappingFunction.apply(key)
+                                        .<Cache.ValueWrapper>map(SimpleValueWrapper::new)
+                                        .defaultIfEmpty(new SimpleValueWrapper(null))
+                                        .doOnNext(wrapper -> cache.put(key, wrapper.get())))))
+                        .mapNotNull(wrapper -> (V) wrapper.get()))
+        );
+    }
+
+    /**
+     * 获取或计算并缓存，支持提前刷新与过期后返回旧值
+     * <p>
+     * 写入后超过 refreshAfter 的缓存值仍会立即返回，同时在后台刷新；
+     * 超过 refreshAfter + staleFor 后视为未命中
+     *
+     * @param refreshAfter 写入后多久需要刷新
+     * @param staleFor     需要刷新后还可以返回旧值的时长
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Mono<V> computeIfAbsent(@NonNull String cacheName, @NonNull K key,
+                                          @NonNull Duration refreshAfter,
+                                          @NonNull Duration staleFor,
+                                          @NonNull Function<K, Mono<V>> mappingFunction) {
+        return executeOnCacheWithResult(cacheName, cache -> whenMightContain(cache, key,
+                Mono.fromFuture(() -> cache.retrieveRefreshing(key,
+                        refreshAfter.toMillis(),
+                        staleFor.toMillis(),
+                        () -> mappingFunction.apply(key).toFuture())))
         );
     }
 
+    /**
+     * 布隆过滤器判断 key 可能存在时才订阅 source，否则为空
+     */
+    private <T> Mono<T> whenMightContain(@NonNull ChenilleTwoLevelCache cache, @NonNull Object key, @NonNull Mono<T> source) {
+        return cache.mightContain(key).flatMap(present -> present ? source : Mono.empty());
+    }
+
+    /**
+     * 非阻塞读取缓存，未命中时为空；缓存值为 null 时为值为 null 的 {@link Cache.ValueWrapper}
+     */
+    private Mono<Cache.ValueWrapper> retrieve(@NonNull ChenilleTwoLevelCache cache, @NonNull Object key) {
+        return Mono.defer(() -> {
+            CompletableFuture<?> future = cache.retrieve(key);
+            if (future == null) {
+                return Mono.empty();
+            }
+            return Mono.fromFuture(future)
+                    .cast(Cache.ValueWrapper.class);
+        });
+    }
+
     /**
      * 执行缓存操作
      */
@@ -300,6 +476,8 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
 
     /**
      * 获取 Redis 中的 List 值
+     * <p>
+     * 一次返回全部元素，较大的 List 使用 {@link #streamRedisList}
      */
     public <T> Flux<T> getRedisList(@NonNull String key, @NonNull Class<T> clazz) {
         if (isRedisNotEnabled()) return Flux.empty();
@@ -310,6 +488,8 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
 
     /**
      * 获取 Redis 中的 Set 值
+     * <p>
+     * 一次返回全部元素，较大的 Set 使用 {@link #streamRedisSet}
      */
     public <T> Flux<T> getRedisSet(@NonNull String key, @NonNull Class<T> clazz) {
         if (isRedisNotEnabled()) return Flux.empty();
@@ -320,6 +500,8 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
 
     /**
      * 获取 Redis 中的 Map 值
+     * <p>
+     * 一次返回全部字段，较大的 Hash 使用 {@link #streamRedisMap}
      */
     public <K, V> Mono<Map<K, V>> getRedisMap(@NonNull String key,
                                         @NonNull Class<K> keyClazz,
@@ -335,6 +517,109 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
                 .collectMap(Map.Entry::getKey, Map.Entry::getValue);
     }
 
+    /**
+     * 分页读取 Redis 中的 List 值，每页大小为 chenille.config.cache.redis-page-size
+     */
+    public <T> Flux<T> streamRedisList(@NonNull String key, @NonNull Class<T> clazz) {
+        return streamRedisList(key, clazz, chenilleCache.getRedisPageSize());
+    }
+
+    /**
+     * 分页读取 Redis 中的 List 值
+     * <p>
+     * 按 LRANGE 窗口逐页读取，下游消费完当前页后才读取下一页，内存中最多保留一页元素；
+     * 读取期间 List 被修改时，窗口按读取时的下标计算，可能重复或遗漏元素
+     *
+     * @param pageSize 每页元素数量
+     */
+    public <T> Flux<T> streamRedisList(@NonNull String key, @NonNull Class<T> clazz, int pageSize) {
+        if (isRedisNotEnabled()) return Flux.empty();
+
+        int size = Math.max(1, pageSize);
+        return rangePage(key, 0, size)
+                .expand(page -> page.size() < size ? Mono.empty() : rangePage(key, page.start() + size, size))
+                .concatMapIterable(ListPage::elements, 1)
+                .filter(clazz::isInstance)
+                .map(clazz::cast);
+    }
+
+    /**
+     * 分页读取 Redis 中的 Set 值，每页大小为 chenille.config.cache.redis-page-size
+     */
+    public <T> Flux<T> streamRedisSet(@NonNull String key, @NonNull Class<T> clazz) {
+        return streamRedisSet(key, clazz, chenilleCache.getRedisPageSize());
+    }
+
+    /**
+     * 分页读取 Redis 中的 Set 值
+     * <p>
+     * 通过 SSCAN 按游标逐页读取，下游有需求时才读取下一页；
+     * 与 SSCAN 的语义一致，读取期间一直存在的元素至少返回一次，可能重复返回
+     *
+     * @param pageSize 每页元素数量（SSCAN 的 COUNT）
+     */
+    public <T> Flux<T> streamRedisSet(@NonNull String key, @NonNull Class<T> clazz, int pageSize) {
+        if (isRedisNotEnabled()) return Flux.empty();
+
+        int size = Math.max(1, pageSize);
+        return reactiveRedisTemplate.opsForSet().scan(key, ScanOptions.scanOptions().count(size).build())
+                .limitRate(size)
+                .filter(clazz::isInstance)
+                .map(clazz::cast);
+    }
+
+    /**
+     * 分页读取 Redis 中的 Map 值，每页大小为 chenille.config.cache.redis-page-size
+     */
+    public <K, V> Flux<Map.Entry<K, V>> streamRedisMap(@NonNull String key,
+                                                     @NonNull Class<K> keyClazz,
+                                                     @NonNull Class<V> valueClazz) {
+        return streamRedisMap(key, keyClazz, valueClazz, chenilleCache.getRedisPageSize());
+    }
+
+    /**
+     * 分页读取 Redis 中的 Map 值
+     * <p>
+     * 通过 HSCAN 按游标逐页读取，下游有需求时才读取下一页；
+     * 与 HSCAN 的语义一致，读取期间一直存在的字段至少返回一次，可能重复返回
+     *
+     * @param pageSize 每页字段数量（HSCAN 的 COUNT）
+     */
+    public <K, V> Flux<Map.Entry<K, V>> streamRedisMap(@NonNull String key,
+                                                     @NonNull Class<K> keyClazz,
+                                                     @NonNull Class<V> valueClazz,
+                                                     int pageSize) {
+        if (isRedisNotEnabled()) return Flux.empty();
+
+        int size = Math.max(1, pageSize);
+        return reactiveRedisTemplate.opsForHash().scan(key, ScanOptions.scanOptions().count(size).build())
+                .limitRate(size)
+                .filter(entry -> keyClazz.isInstance(entry.getKey()) && valueClazz.isInstance(entry.getValue()))
+                .map(entry -> Map.entry(keyClazz.cast(entry.getKey()), valueClazz.cast(entry.getValue())));
+    }
+
+    /**
+     * 读取 List 中从 start 开始的一页
+     */
+    private Mono<ListPage> rangePage(String key, long start, int size) {
+        return reactiveRedisTemplate.opsForList().range(key, start, start + size - 1)
+                .collectList()
+                .map(elements -> new ListPage(start, elements));
+    }
+
+    /**
+     * List 的一页
+     *
+     * @param start    第一个元素的下标
+     * @param elements 元素
+     */
+    private record ListPage(long start, List<Object> elements) {
+
+        int size() {
+            return elements.size();
+        }
+    }
+
     /**
      * 获取 Redis 中的 JSON 值
      *
@@ -354,37 +639,146 @@ public record ChenilleCacheUtils(ChenilleCache chenilleCache,
                 });
     }
 
+    /**
+     * 获取 Redis 中以 {@link #putRedisValue} 写入的值
+     * <p>
+     * 直接读取原始字节并按指定类型反序列化，不经过 RedisTemplate 的值序列化器，也不做中间的 JSON 字符串转换
+     *
+     * @param key  Redis 键
+     * @param type 值类型，可通过 {@link ChenilleJsonUtils#constructType} 构造后复用
+     * @return 反序列化后的值，不存在或反序列化失败时为空
+     */
+    public <T> Mono<T> getRedisValue(@NonNull String key, @NonNull JavaType type) {
+        if (isRedisNotEnabled()) return Mono.empty();
+
+        ByteBuffer rawKey = reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().write(key);
+        return reactiveRedisTemplate.execute(connection -> connection.stringCommands().get(rawKey))
+                .next()
+                .mapNotNull(buffer -> {
+                    if (buffer.hasArray()) {
+                        return jsonUtils.<T>fromJsonBytes(buffer.array(),
+                                buffer.arrayOffset() + buffer.position(),
+                                buffer.remaining(),
+                                type);
+                    }
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    return jsonUtils.<T>fromJsonBytes(bytes, 0, bytes.length, type);
+                });
+    }
+
+    /**
+     * 以 JSON 字节写入 Redis，不记录类型信息，通过 {@link #getRedisValue} 按类型读取
+     * <p>
+     * 不必启用 chenille.config.cache.redis 配置，不被二级缓存管理器管理
+     *
+     * @param value    值，为 null 时不写入
+     * @param ttl      过期时间，按全局的 ttl-jitter 配置随机化
+     * @param timeUnit 时间单位
+     */
+    public Mono<Void> putRedisValue(@NonNull String key, Object value, long ttl, @NonNull TimeUnit timeUnit) {
+        if (isRedisNotEnabled() || value == null) return Mono.empty();
+
+        byte[] bytes = jsonUtils.toBytes(value);
+        if (bytes == null) return Mono.empty();
+        ByteBuffer rawKey = reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().write(key);
+        Expiration expiration = ttl > 0
+                ? Expiration.from(ChenilleTtlJitter.of(chenilleCache, null).apply(ttl, timeUnit), timeUnit)
+                : Expiration.persistent();
+        return reactiveRedisTemplate.execute(connection -> connection.stringCommands()
+                        .set(rawKey, ByteBuffer.wrap(bytes), expiration, RedisStringCommands.SetOption.upsert()))
+                .then();
+    }
+
     /**
      * redis 缓存
      * <p>
      * 不必启用 chenille.config.cache.redis 配置
      * <p>
      * 不被二级缓存管理器管理，直接走 RedisTemplate
+     * <p>
+     * Map、List、Set 分别以 Hash、List、Set 保存，通过一次脚本调用原子地替换整个 key 并设置过期时间，
+     * 不会在旧值上追加，也不会出现写入成功但未设置过期时间的 key；空集合会删除 key
      *
-     * @param ttl 过期时间
+     * @param ttl 过期时间，小于 1 时不过期，按全局的 ttl-jitter 配置随机化
      * @param timeUnit 时间单位
      */
     public Mono<Void> putRedis(@NonNull String key, Object value,long ttl, @NonNull TimeUnit timeUnit){
         if (isRedisNotEnabled()) return Mono.empty();
 
-        Mono<Boolean> putMono;
+        Duration expire = ChenilleTtlJitter.of(chenilleCache, null).apply(Duration.ofMillis(timeUnit.toMillis(ttl)));
+        RedisSerializationContext<String, Object> context = reactiveRedisTemplate.getSerializationContext();
 
-        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
-            putMono = reactiveRedisTemplate.opsForValue().set(key, value, Duration.ofMillis(timeUnit.toMillis(ttl)));
-        } else if (value instanceof Map<?, ?> map) {
-            putMono = reactiveRedisTemplate.opsForHash().putAll(key, map)
-                    .then(reactiveRedisTemplate.expire(key, Duration.ofMillis(timeUnit.toMillis(ttl))));
+        if (value instanceof Map<?, ?> map) {
+            List<ByteBuffer> elements = new ArrayList<>(map.size() * 2);
+            map.forEach((field, fieldValue) -> {
+                elements.add(write(context.getHashKeySerializationPair(), field));
+                elements.add(write(context.getHashValueSerializationPair(), fieldValue));
+            });
+            return replaceRedis(key, "HSET", elements, expire);
         } else if (value instanceof List<?> list) {
-            putMono = reactiveRedisTemplate.opsForList().rightPushAll(key, list)
-                    .then(reactiveRedisTemplate.expire(key, Duration.ofMillis(timeUnit.toMillis(ttl))));
+            return replaceRedis(key, "RPUSH", writeAll(context, list), expire);
         } else if (value instanceof Set<?> set) {
-            putMono = reactiveRedisTemplate.opsForSet().add(key, set.toArray())
-                    .then(reactiveRedisTemplate.expire(key, Duration.ofMillis(timeUnit.toMillis(ttl))));
-        } else {
-            putMono = reactiveRedisTemplate.opsForValue().set(key, jsonUtils.toJson(value), Duration.ofMillis(timeUnit.toMillis(ttl)));
+            return replaceRedis(key, "SADD", writeAll(context, set), expire);
         }
 
-        return putMono.then();
+        Object toStore = value instanceof String || value instanceof Number || value instanceof Boolean
+                ? value
+                : jsonUtils.toJson(value);
+        return (expire.isZero() || expire.isNegative()
+                ? reactiveRedisTemplate.opsForValue().set(key, toStore)
+                : reactiveRedisTemplate.opsForValue().set(key, toStore, expire))
+                .then();
+    }
+
+    /**
+     * 批量写入 Redis，每个 key 的写入方式与 {@link #putRedis} 相同
+     * <p>
+     * 全部命令连续发出、不逐条等待回复，在共享的连接上以流水线方式执行，
+     * 写入 n 个 key 的耗时接近一次往返而不是 n 次往返；每个 key 单独随机化过期时间
+     *
+     * @param entries  Redis 键 -> 值
+     * @param ttl      过期时间，小于 1 时不过期
+     * @param timeUnit 时间单位
+     */
+    public Mono<Void> putRedisAll(@NonNull Map<String, Object> entries, long ttl, @NonNull TimeUnit timeUnit) {
+        if (isRedisNotEnabled() || entries.isEmpty()) return Mono.empty();
+
+        return Flux.fromIterable(entries.entrySet())
+                .flatMap(entry -> putRedis(entry.getKey(), entry.getValue(), ttl, timeUnit), PIPELINE_DEPTH)
+                .then();
+    }
+
+    /**
+     * 通过脚本原子地替换 Hash、List、Set 并设置过期时间
+     *
+     * @param command  写入命令：HSET、RPUSH、SADD
+     * @param elements 已序列化的命令参数
+     */
+    private Mono<Void> replaceRedis(String key, String command, List<ByteBuffer> elements, Duration expire) {
+        List<ByteBuffer> args = new ArrayList<>(elements.size() + 2);
+        args.add(StandardCharsets.UTF_8.encode(String.valueOf(expire.toMillis())));
+        args.add(StandardCharsets.UTF_8.encode(command));
+        args.addAll(elements);
+        return reactiveRedisTemplate.execute(REPLACE_SCRIPT,
+                        List.of(key),
+                        args,
+                        (RedisElementWriter<ByteBuffer>) buffer -> buffer,
+                        RedisElementReader.from(new GenericToStringSerializer<>(Long.class)))
+                .then();
+    }
+
+    private static List<ByteBuffer> writeAll(RedisSerializationContext<String, Object> context, Collection<?> values) {
+        List<ByteBuffer> elements = new ArrayList<>(values.size());
+        for (Object element : values) {
+            elements.add(context.getValueSerializationPair().write(element));
+        }
+        return elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ByteBuffer write(RedisSerializationContext.SerializationPair<?> pair, Object value) {
+        return ((RedisSerializationContext.SerializationPair<Object>) pair).write(value);
     }
 
 
@@ -1,10 +1,13 @@
 package com.chenjiabao.open.chenille.core;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.reflect.Type;
+
 /**
  * JSON 工具类（基于 Jackson）
  *
@@ -114,6 +117,35 @@ public class ChenilleJsonUtils {
         }
     }
 
+    /**
+     * 将 JSON 字节反序列化为指定类型的对象
+     *
+     * @param json   JSON 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param type   对象类型，可通过 {@link #constructType(Type)} 构造后复用
+     * @param <T>    对象类型参数
+     * @return 反序列化后的对象
+     */
+    public <T> T fromJsonBytes(byte[] json, int offset, int length, JavaType type) {
+        try {
+            return OBJECT_MAPPER.readValue(json, offset, length, type);
+        } catch (Exception e) {
+            log.error("反序列化 JSON 字节数组为对象失败，目标类型={}", type, e);
+            return null;
+        }
+    }
+
+    /**
+     * 构造 Jackson 类型，构造结果可以复用
+     *
+     * @param type Java 类型（支持泛型）
+     * @return Jackson 类型
+     */
+    public JavaType constructType(Type type) {
+        return OBJECT_MAPPER.getTypeFactory().constructType(type);
+    }
+
     /**
      * 获取 ObjectMapper 实例
      *
@@ -5,6 +5,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 缓存配置
  * @author ChenJiaBao
@@ -25,6 +30,68 @@ public class ChenilleCache {
      * 缓存主题
      */
     private String topic = "chenille-cache-topic";
+    /**
+     * 缓存变更通知的合并窗口(单位：毫秒)
+     * <p>
+     * 窗口内的变更合并为一条消息发送，小于 1 时每次变更立即发送
+     */
+    private long publishWindow = 10L;
+    /**
+     * 单条缓存变更通知最多携带的 key 数量，达到后立即发送
+     */
+    private int publishBatchSize = 512;
+    /**
+     * 缓存变更通知中允许还原的 key 类型，可以是完整类名，也可以是以 . 结尾的包名前缀
+     * <p>
+     * 字符串、Integer、Long 与 UUID 之外的 key 按 JSON 与类名发送，接收方只还原这里列出的类型与 java.lang / java.math 中的数值类型；
+     * 不在列表中的 key 无法还原，接收方改为清理整个本地缓存
+     */
+    private List<String> messageKeyTypes = new ArrayList<>();
+    /**
+     * 缓存未命中时加载数据的超时时间(单位：毫秒)
+     * <p>
+     * 并发等待同一个 key 的调用方最多等待该时长，超时的加载结果不会被缓存；
+     * 同步加载（Cache#get(key, Callable)）时执行加载的线程本身不受该时间限制
+     */
+    private long loadTimeout = 10 * 1000L;
+    /**
+     * 空值（加载结果为 null）的缓存时间(单位：毫秒)
+     * <p>
+     * 同时作用于一级缓存和二级缓存，防止缓存穿透的同时避免不存在的数据被长时间缓存；
+     * 小于 1 时与普通缓存值相同，可通过 specs 按缓存名称单独配置
+     */
+    private long negativeTtl = 60 * 1000L;
+    /**
+     * 缓存注解作用于返回 Flux 的方法时最多缓存的元素数量
+     * <p>
+     * 超过后本次结果照常返回但不缓存，可通过注解的 maxElements 单独配置
+     */
+    private int fluxMaxElements = 1000;
+    /**
+     * 清理二级缓存时每批扫描与删除的 key 数量
+     * <p>
+     * 通过 SCAN 分批扫描、UNLINK 分批删除，不会像 KEYS 一样长时间阻塞 Redis
+     */
+    private int clearBatchSize = 1000;
+    /**
+     * 分页读取 Redis 集合（streamRedisList / streamRedisSet / streamRedisMap）时每页的元素数量
+     * <p>
+     * List 按 LRANGE 窗口读取，Set 与 Hash 按 SSCAN / HSCAN 的 COUNT 读取，下游有需求时才读取下一页
+     */
+    private int redisPageSize = 500;
+    /**
+     * 缓存锁分段数量
+     * <p>
+     * 会向上取整为 2 的幂，锁占用的内存与缓存 key 的数量无关
+     */
+    private int lockStripes = 256;
+    /**
+     * 版本栅栏分段数量
+     * <p>
+     * 会向上取整为 2 的幂，二级缓存读取期间同一分段内有 key 被写入或清理时放弃回填一级缓存，
+     * 分段越多误放弃的回填越少
+     */
+    private int versionStripes = 4096;
     /**
      * Caffeine 缓存配置
      */
@@ -35,4 +102,45 @@ public class ChenilleCache {
      */
     @NestedConfigurationProperty
     private ChenilleCacheRedis redis;
+    /**
+     * 堆外缓存配置
+     */
+    @NestedConfigurationProperty
+    private ChenilleCacheOffHeap offHeap;
+    /**
+     * 缓存值编解码配置
+     */
+    @NestedConfigurationProperty
+    private ChenilleCacheCodec codec = new ChenilleCacheCodec();
+    /**
+     * 热点 key 配置
+     */
+    @NestedConfigurationProperty
+    private ChenilleCacheHotKey hotKey = new ChenilleCacheHotKey();
+    /**
+     * 布隆过滤器配置
+     */
+    @NestedConfigurationProperty
+    private ChenilleCacheBloomFilter bloomFilter = new ChenilleCacheBloomFilter();
+    /**
+     * 二级缓存熔断配置
+     */
+    @NestedConfigurationProperty
+    private ChenilleCacheCircuitBreaker circuitBreaker = new ChenilleCacheCircuitBreaker();
+    /**
+     * 过期时间随机化与概率提前刷新配置
+     */
+    @NestedConfigurationProperty
+    private ChenilleCacheTtlJitter ttlJitter = new ChenilleCacheTtlJitter();
+    /**
+     * 缓存预热与一级缓存快照配置
+     */
+    @NestedConfigurationProperty
+    private ChenilleCacheWarmUp warmUp = new ChenilleCacheWarmUp();
+    /**
+     * 按缓存名称的缓存配置
+     * <p>
+     * key 为缓存名称，如 chenille.config.cache.specs.user.maximum-size=1000
+     */
+    private Map<String, ChenilleCacheSpec> specs = new LinkedHashMap<>();
 }
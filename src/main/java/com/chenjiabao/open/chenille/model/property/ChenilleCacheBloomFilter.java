@@ -0,0 +1,41 @@
+package com.chenjiabao.open.chenille.model.property;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 布隆过滤器配置
+ * <p>
+ * 只对 specs 中开启 bloom-filter 的缓存生效，判断为不存在的 key 不读取缓存、不执行加载，直接返回空
+ * @author ChenJiaBao
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChenilleCacheBloomFilter {
+    /**
+     * 是否启用
+     */
+    private boolean enabled = false;
+    /**
+     * 类型：local 本地位数组，每个节点各自一份；redis 保存在 Redis 中，所有节点共享
+     */
+    private String type = "local";
+    /**
+     * 预计元素数量，可通过 specs 按缓存名称单独配置
+     */
+    private long expectedInsertions = 1_000_000L;
+    /**
+     * 误判率，可通过 specs 按缓存名称单独配置
+     */
+    private double fpp = 0.01;
+    /**
+     * 类型为 redis 时位数组的 Redis 键前缀，完整的键为 前缀 + 缓存名称
+     */
+    private String keyPrefix = "chenille:bloom:";
+    /**
+     * 启动加载时每批加入的 key 数量
+     */
+    private int batchSize = 1000;
+}
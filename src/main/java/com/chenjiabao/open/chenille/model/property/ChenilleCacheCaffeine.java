@@ -26,6 +26,19 @@ public class ChenilleCacheCaffeine {
      * 默认为可用堆内存的 10%
      */
     private Integer maximumSize;
+    /**
+     * 最大占用字节数
+     * <p>
+     * 配置后按估算的字节数淘汰，优先于 heapPercent 和 maximumSize；
+     * 为全部一级缓存的总预算，扣除按缓存名称单独配置的 maxWeightBytes 后，由其余缓存与默认配置平分
+     */
+    private Long maxWeightBytes;
+    /**
+     * 最大占用堆内存的百分比(1-100)
+     * <p>
+     * 配置后按估算的字节数淘汰，优先于 maximumSize；与 maxWeightBytes 相同，为全部一级缓存的总预算
+     */
+    private Integer heapPercent;
     /**
      * 初始容量
      * <p>
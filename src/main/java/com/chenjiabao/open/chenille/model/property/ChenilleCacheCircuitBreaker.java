@@ -0,0 +1,46 @@
+package com.chenjiabao.open.chenille.model.property;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 二级缓存熔断配置
+ * <p>
+ * Redis 连续失败或响应过慢时熔断，熔断期间二级缓存的读写与缓存变更通知直接跳过，只使用一级缓存，
+ * 一级缓存的过期时间自动延长；经过 openDuration 后放行少量请求试探，成功后恢复
+ * @author ChenJiaBao
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChenilleCacheCircuitBreaker {
+    /**
+     * 是否启用
+     */
+    private boolean enabled = false;
+    /**
+     * 连续失败多少次后熔断，超过 slowCallThreshold 的调用也视为失败
+     */
+    private int failureThreshold = 5;
+    /**
+     * 慢调用阈值(单位：毫秒)，小于 1 时不统计慢调用
+     */
+    private long slowCallThreshold = 500L;
+    /**
+     * 熔断持续时间(单位：毫秒)，之后放行少量请求试探 Redis 是否恢复
+     */
+    private long openDuration = 10 * 1000L;
+    /**
+     * 试探时放行的请求数量
+     */
+    private int halfOpenCalls = 3;
+    /**
+     * 熔断期间一级缓存的过期时间(单位：毫秒)，被读取或写入的缓存值至少保留该时长，小于 1 时不延长
+     */
+    private long degradedExpire = 10 * 60 * 1000L;
+    /**
+     * 最多同时进行的二级缓存写入与清理数量，超过后直接丢弃，避免 Redis 变慢时写入任务堆积
+     */
+    private int maxPendingWrites = 10000;
+}
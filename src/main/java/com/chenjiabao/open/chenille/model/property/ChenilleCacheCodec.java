@@ -0,0 +1,32 @@
+package com.chenjiabao.open.chenille.model.property;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 缓存值编解码配置
+ * <p>
+ * 作用于二级缓存、RedisTemplate 与 ReactiveRedisTemplate 的值
+ * @author ChenJiaBao
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChenilleCacheCodec {
+    /**
+     * 写入时使用的编解码器：json、smile、cbor 或自定义编解码器的名称
+     * <p>
+     * smile、cbor 需要引入 jackson-dataformat-smile、jackson-dataformat-cbor；
+     * 读取时按数据头部自动识别，与写入时使用哪种编解码器无关
+     */
+    private String type = "json";
+    /**
+     * 编码后达到该大小(单位：字节)时压缩，小于 1 时不压缩
+     */
+    private int compressThreshold = 4 * 1024;
+    /**
+     * 压缩级别(0-9)，级别越高压缩率越高、速度越慢
+     */
+    private int compressionLevel = 1;
+}
@@ -0,0 +1,45 @@
+package com.chenjiabao.open.chenille.model.property;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 热点 key 配置
+ * <p>
+ * 对一级缓存的读取进行抽样计数，访问频率超过阈值的 key 会被固定在本地，不受一级缓存淘汰影响，按刷新间隔从二级缓存刷新
+ * @author ChenJiaBao
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChenilleCacheHotKey {
+    /**
+     * 是否启用
+     */
+    private boolean enabled = false;
+    /**
+     * 抽样比例，每 sampleRate 次读取抽样一次，会向上取整为 2 的幂
+     */
+    private int sampleRate = 8;
+    /**
+     * 统计窗口(单位：毫秒)，每个窗口结束时计数减半
+     */
+    private long window = 10 * 1000L;
+    /**
+     * 热点阈值(单位：次/秒)，估算的访问频率达到该值的 key 视为热点
+     */
+    private long threshold = 1000;
+    /**
+     * 最多记录的热点 key 数量，同时也是最多固定在本地的 key 数量
+     */
+    private int topN = 32;
+    /**
+     * 固定在本地的热点 key 的刷新间隔(单位：毫秒)
+     */
+    private long refreshInterval = 1000L;
+    /**
+     * 计数器宽度，会向上取整为 2 的幂，越大误差越小
+     */
+    private int sketchWidth = 4096;
+}
@@ -0,0 +1,47 @@
+package com.chenjiabao.open.chenille.model.property;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 堆外缓存配置
+ * <p>
+ * 位于一级缓存与二级缓存之间，序列化后超过阈值的大对象保存在堆外内存中，不占用堆内存
+ * @author ChenJiaBao
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChenilleCacheOffHeap {
+    /**
+     * 是否启用
+     */
+    private boolean enabled = false;
+    /**
+     * 最大占用堆外内存(单位：字节)
+     */
+    private long capacity = 256 * 1024 * 1024L;
+    /**
+     * 内存块大小(单位：字节)
+     * <p>
+     * 缓存值按块分配，块越小浪费越少，但需要的块索引越多
+     */
+    private int blockSize = 4 * 1024;
+    /**
+     * 序列化后达到该大小(单位：字节)的缓存值保存到堆外缓存，其余保存在一级缓存
+     */
+    private int threshold = 16 * 1024;
+    /**
+     * 分段数量
+     * <p>
+     * 会向下取整为 2 的幂，每段有各自的锁与 LRU，段越多并发读写的竞争越小，单个缓存值最多占用 capacity / segments
+     */
+    private int segments = 16;
+    /**
+     * 缓存过期时间(单位：毫秒)
+     * <p>
+     * 为空时与一级缓存的过期时间一致
+     */
+    private Long expire;
+}
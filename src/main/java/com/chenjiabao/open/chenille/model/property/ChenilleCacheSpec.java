@@ -0,0 +1,77 @@
+package com.chenjiabao.open.chenille.model.property;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 按缓存名称的缓存配置
+ * <p>
+ * 未配置的项沿用 caffeine / redis 的全局配置
+ * @author ChenJiaBao
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChenilleCacheSpec {
+    /**
+     * 是否启用一级缓存
+     * <p>
+     * 全局未启用 caffeine 时该项无效
+     */
+    private Boolean caffeineEnabled;
+    /**
+     * 是否启用二级缓存
+     * <p>
+     * 全局未启用 redis 时该项无效
+     */
+    private Boolean redisEnabled;
+    /**
+     * 一级缓存最大容量
+     */
+    private Integer maximumSize;
+    /**
+     * 一级缓存最大占用字节数，配置后按估算的字节数淘汰
+     */
+    private Long maxWeightBytes;
+    /**
+     * 一级缓存写入后过期时间(单位：毫秒)
+     * <p>
+     * 与 expireAfterAccess 同时配置时优先使用该项
+     */
+    private Long expireAfterWrite;
+    /**
+     * 一级缓存访问后过期时间(单位：毫秒)
+     */
+    private Long expireAfterAccess;
+    /**
+     * 二级缓存过期时间(单位：毫秒)
+     */
+    private Long redisExpire;
+    /**
+     * 空值的缓存时间(单位：毫秒)，同时作用于一级缓存和二级缓存
+     */
+    private Long negativeTtl;
+    /**
+     * 按过期时间比例增加的最大随机量，如 0.1
+     */
+    private Double jitterPercent;
+    /**
+     * 过期时间增加的最大随机时长(单位：毫秒)
+     */
+    private Long jitterRange;
+    /**
+     * 是否启用布隆过滤器
+     * <p>
+     * 全局未启用 bloom-filter 时该项无效
+     */
+    private Boolean bloomFilter;
+    /**
+     * 布隆过滤器预计元素数量
+     */
+    private Long bloomExpectedInsertions;
+    /**
+     * 布隆过滤器误判率
+     */
+    private Double bloomFpp;
+}
@@ -0,0 +1,38 @@
+package com.chenjiabao.open.chenille.model.property;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 缓存过期时间随机化配置
+ * <p>
+ * 同时写入的缓存（如发布后批量预热）在过期时间上增加随机量，错开过期时间，避免同时失效后一起访问数据源（缓存雪崩）。
+ * 实际过期时间 = 过期时间 + random(0, 过期时间 * percent + range)，同时作用于一级缓存和二级缓存
+ * @author ChenJiaBao
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChenilleCacheTtlJitter {
+    /**
+     * 按过期时间比例增加的最大随机量，如 0.1 表示最多延长 10%，小于等于 0 时不按比例增加，
+     * 可通过 specs 按缓存名称单独配置
+     */
+    private double percent = 0;
+    /**
+     * 增加的最大随机时长(单位：毫秒)，小于 1 时不增加，可通过 specs 按缓存名称单独配置
+     */
+    private long range = 0;
+    /**
+     * 是否启用概率提前刷新（XFetch）
+     * <p>
+     * 仅对提前刷新模式（refreshAfter）的缓存生效：越接近刷新时间、加载越慢，读取时提前在后台刷新的概率越大，
+     * 访问频繁的热点 key 会在到达刷新时间前被刷新
+     */
+    private boolean earlyRefresh = false;
+    /**
+     * 提前刷新系数，越大越提前，1 为 XFetch 的推荐值
+     */
+    private double beta = 1.0;
+}
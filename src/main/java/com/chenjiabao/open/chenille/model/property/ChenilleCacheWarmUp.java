@@ -0,0 +1,50 @@
+package com.chenjiabao.open.chenille.model.property;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 缓存预热配置
+ * <p>
+ * 应用启动完成、对外报告就绪之前，先从快照文件恢复一级缓存，再并行执行全部 ChenilleCacheWarmer，
+ * 避免滚动发布后新实例以空的一级缓存接收流量
+ * @author ChenJiaBao
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChenilleCacheWarmUp {
+    /**
+     * 预热的最长等待时间(单位：毫秒)，超时后不再等待，应用照常报告就绪
+     */
+    private long timeout = 60 * 1000L;
+    /**
+     * 同时执行的预热器数量
+     */
+    private int parallelism = 4;
+    /**
+     * 每批预热的 key 数量，一批 key 通过一次 Redis 往返读取
+     */
+    private int batchSize = 500;
+    /**
+     * 是否启用一级缓存快照
+     * <p>
+     * 应用关闭时把每个缓存最热的一级缓存值连同剩余过期时间写入本地文件，下次启动时恢复
+     */
+    private boolean snapshotEnabled = false;
+    /**
+     * 快照文件路径，为空时为临时目录下的 chenille-cache.snapshot；容器部署时需要放在持久化的卷上
+     */
+    private String snapshotPath;
+    /**
+     * 每个缓存最多写入快照的缓存值数量，按访问热度从高到低选取
+     */
+    private int snapshotMaxEntries = 10000;
+    /**
+     * 快照的最长有效时间(单位：毫秒)
+     * <p>
+     * 关闭期间其他节点的变更通知不会被收到，超过该时间的快照不再恢复，小于 1 时不限制
+     */
+    private long snapshotMaxAge = 5 * 60 * 1000L;
+}
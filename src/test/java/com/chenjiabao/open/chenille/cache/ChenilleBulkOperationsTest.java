@@ -0,0 +1,123 @@
+package com.chenjiabao.open.chenille.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量操作：getAll 部分命中时只读取二级缓存中缺失的 key，putAll、evictAll 只发送一条变更通知
+ */
+class ChenilleBulkOperationsTest {
+
+    @Test
+    void getAllMergesLocalHitsWithRemoteHits() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users");
+        primary.put("k1", "local");
+        secondary.put("k2", "remote");
+        secondary.put("k3", null);
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).secondary(secondary).build();
+
+        Map<String, Object> found = cache.getAll(List.of("k1", "k2", "k3", "k4")).join();
+
+        assertEquals(Map.of("k1", "local", "k2", "remote"), found);
+        // 二级缓存命中的 key 回填一级缓存，缓存的 null 同样回填
+        assertEquals("remote", primary.get("k2").get());
+        assertNotNull(primary.get("k3"));
+        assertNull(primary.get("k4"));
+    }
+
+    @Test
+    void getAllReadsOnlyMissingKeysInOneRoundTrip() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        primary.put("k1", "local");
+        @SuppressWarnings("unchecked")
+        ReactiveRedisTemplate<String, Object> template = mock(ReactiveRedisTemplate.class);
+        @SuppressWarnings("unchecked")
+        ReactiveValueOperations<String, Object> values = mock(ReactiveValueOperations.class);
+        when(template.opsForValue()).thenReturn(values);
+        when(values.multiGet(anyList())).thenReturn(Mono.just(Arrays.asList("remote", NullValue.INSTANCE, null)));
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture()
+                .primary(primary)
+                .secondary(new ConcurrentMapCache("users"))
+                .reactiveRedisTemplate(template)
+                .build();
+
+        Map<String, Object> found = cache.getAll(List.of("k1", "k2", "k3", "k4")).join();
+
+        assertEquals(Map.of("k1", "local", "k2", "remote"), found);
+        verify(values, times(1)).multiGet(List.of("users::k2", "users::k3", "users::k4"));
+        verify(values, never()).get(any());
+    }
+
+    @Test
+    void getAllTreatsRemoteFailureAsMiss() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        primary.put("k1", "local");
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users") {
+            @Override
+            public ValueWrapper get(Object key) {
+                throw new IllegalStateException("redis down");
+            }
+        };
+        ChenilleTwoLevelCacheFixture fixture = new ChenilleTwoLevelCacheFixture().primary(primary).secondary(secondary);
+        ChenilleTwoLevelCache cache = fixture.build();
+
+        assertEquals(Map.of("k1", "local"), cache.getAll(List.of("k1", "k2")).join());
+        assertEquals(1, fixture.stats().remoteErrorCount());
+    }
+
+    @Test
+    void putAllWritesBothTiersAndPublishesOnce() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users");
+        ChenilleCacheMessagePublisher publisher = mock(ChenilleCacheMessagePublisher.class);
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture()
+                .primary(primary)
+                .secondary(secondary)
+                .publisher(publisher)
+                .build();
+        Map<String, Object> entries = new LinkedHashMap<>();
+        entries.put("k1", "v1");
+        entries.put("k2", "v2");
+
+        cache.putAll(entries);
+
+        assertEquals("v1", primary.get("k1").get());
+        assertEquals("v2", secondary.get("k2").get());
+        verify(publisher, times(1)).publish(eq("users"), eq(List.of("k1", "k2")), anyLong());
+    }
+
+    @Test
+    void evictAllClearsBothTiersAndPublishesOnce() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users");
+        ChenilleCacheMessagePublisher publisher = mock(ChenilleCacheMessagePublisher.class);
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture()
+                .primary(primary)
+                .secondary(secondary)
+                .publisher(publisher)
+                .build();
+        for (String key : List.of("k1", "k2", "k3")) {
+            primary.put(key, "v");
+            secondary.put(key, "v");
+        }
+
+        cache.evictAll(List.of("k1", "k2"));
+
+        assertNull(primary.get("k1"));
+        assertNull(secondary.get("k2"));
+        assertNotNull(primary.get("k3"));
+        assertNotNull(secondary.get("k3"));
+        verify(publisher, times(1)).publish(eq("users"), eq(List.of("k1", "k2")), anyLong());
+    }
+}
@@ -0,0 +1,174 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
+import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 缓存消息编解码与监听器忽略自身消息
+ */
+class ChenilleCacheMessageCodecTest {
+
+    private static final UUID ORIGIN = UUID.randomUUID();
+
+    private final ChenilleJsonUtils jsonUtils = new ChenilleJsonUtils();
+    private final ChenilleCacheMessageCodec codec = new ChenilleCacheMessageCodec(jsonUtils);
+
+    @Test
+    void roundTripsKeysVersionsAndPatterns() {
+        UUID uuid = UUID.randomUUID();
+        ChenilleCacheMessage evict = message("users", Arrays.asList("k", 1, 2L, uuid, null, new BigDecimal("1.50")), 7L);
+        ChenilleCacheMessage clear = message("orders", List.of(), 8L);
+        clear.setClear(true);
+        clear.setPattern("order:*");
+
+        List<ChenilleCacheMessage> decoded = codec.decode(codec.encode(ORIGIN, List.of(evict, clear)));
+
+        assertEquals(2, decoded.size());
+        ChenilleCacheMessage first = decoded.get(0);
+        assertEquals(ORIGIN.toString(), first.getOrigin());
+        assertEquals("users", first.getCacheName());
+        assertFalse(first.isClear());
+        assertEquals(Arrays.asList("k", 1, 2L, uuid, null, new BigDecimal("1.50")), new ArrayList<>(first.getKeys()));
+        assertEquals(7L, first.getVersion());
+        assertNull(first.getPattern());
+
+        ChenilleCacheMessage second = decoded.get(1);
+        assertEquals("orders", second.getCacheName());
+        assertTrue(second.isClear());
+        assertTrue(second.getKeys().isEmpty());
+        assertEquals("order:*", second.getPattern());
+        assertEquals(8L, second.getVersion());
+    }
+
+    @Test
+    void keyTypeOutsideAllowlistClearsTheGroup() {
+        byte[] body = codec.encode(ORIGIN, List.of(message("users", List.of(new OrderKey(1L, "a")), 1L)));
+
+        ChenilleCacheMessage decoded = codec.decode(body).getFirst();
+        assertTrue(decoded.isClear());
+        assertTrue(decoded.getKeys().isEmpty());
+    }
+
+    @Test
+    void allowlistedKeyTypeIsRestored() {
+        OrderKey key = new OrderKey(1L, "a");
+        byte[] body = codec.encode(ORIGIN, List.of(message("users", List.of(key), 1L)));
+
+        ChenilleCacheMessageCodec exact = new ChenilleCacheMessageCodec(jsonUtils, List.of(OrderKey.class.getName()));
+        ChenilleCacheMessageCodec prefix = new ChenilleCacheMessageCodec(jsonUtils, List.of(OrderKey.class.getPackageName() + "."));
+
+        assertEquals(List.of(key), new ArrayList<>(exact.decode(body).getFirst().getKeys()));
+        assertEquals(List.of(key), new ArrayList<>(prefix.decode(body).getFirst().getKeys()));
+    }
+
+    @Test
+    void decodesLegacyJsonMessage() {
+        byte[] body = "{\"origin\":\"node-1\",\"cacheName\":\"users\",\"key\":\"k\",\"unknown\":1}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        ChenilleCacheMessage decoded = codec.decode(body).getFirst();
+        assertEquals("node-1", decoded.getOrigin());
+        assertEquals("users", decoded.getCacheName());
+        assertEquals("k", decoded.getKey());
+    }
+
+    @Test
+    void rejectsLengthsBeyondTheMessage() throws IOException {
+        // 分组数量远大于消息长度
+        assertTrue(codec.decode(header(out -> writeVarInt(out, Integer.MAX_VALUE))).isEmpty());
+        // 缓存名长度为负数
+        assertTrue(codec.decode(header(out -> {
+            writeVarInt(out, 1);
+            writeVarInt(out, -1);
+        })).isEmpty());
+        // key 数量远大于消息长度
+        assertTrue(codec.decode(header(out -> {
+            writeVarInt(out, 1);
+            writeVarInt(out, 1);
+            out.writeByte('u');
+            out.writeByte(ChenilleCacheMessageCodec.OP_EVICT);
+            writeVarInt(out, 1 << 30);
+        })).isEmpty());
+        // 变长整数超过 5 个字节
+        assertTrue(codec.decode(header(out -> out.write(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1}))).isEmpty());
+    }
+
+    @Test
+    void truncatedMessageIsIgnored() {
+        byte[] body = codec.encode(ORIGIN, List.of(message("users", List.of("k1", "k2"), 1L)));
+
+        assertTrue(codec.decode(Arrays.copyOf(body, body.length / 2)).isEmpty());
+    }
+
+    @Test
+    void listenerIgnoresOwnMessagesAndEvictsOthers() {
+        UUID self = UUID.randomUUID();
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).build();
+        ChenilleTwoLevelCacheManager manager = mock(ChenilleTwoLevelCacheManager.class);
+        when(manager.getInstanceId()).thenReturn(self);
+        when(manager.getMessageCodec()).thenReturn(codec);
+        when(manager.getExistingTwoLevelCache("users")).thenReturn(cache);
+        ChenilleRedisCacheMessageListener listener = new ChenilleRedisCacheMessageListener(new ChenilleCache(), manager, jsonUtils);
+        primary.put("k", "v1");
+
+        byte[] own = codec.encode(self, List.of(message("users", List.of("k"), 1L)));
+        listener.onMessage(new DefaultMessage("topic".getBytes(StandardCharsets.UTF_8), own), null);
+        assertNotNull(primary.get("k"));
+
+        byte[] other = codec.encode(UUID.randomUUID(), List.of(message("users", List.of("k"), 2L)));
+        listener.onMessage(new DefaultMessage("topic".getBytes(StandardCharsets.UTF_8), other), null);
+        assertNull(primary.get("k"));
+        assertEquals(1, cache.stats().invalidationReceivedCount());
+    }
+
+    private static ChenilleCacheMessage message(String cacheName, List<?> keys, Long version) {
+        ChenilleCacheMessage message = new ChenilleCacheMessage();
+        message.setCacheName(cacheName);
+        message.setKeys(keys);
+        message.setVersion(version);
+        return message;
+    }
+
+    private static byte[] header(Body body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(0xCE);
+        out.writeByte(1);
+        out.writeLong(ORIGIN.getMostSignificantBits());
+        out.writeLong(ORIGIN.getLeastSignificantBits());
+        body.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    public record OrderKey(Long id, String region) {
+    }
+}
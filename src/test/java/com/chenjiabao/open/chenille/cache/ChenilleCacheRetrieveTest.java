@@ -0,0 +1,124 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.core.ChenilleCacheUtils;
+import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
+import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheCircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 异步读取：{@link ChenilleTwoLevelCache#retrieve(Object)}、{@link ChenilleTwoLevelCache#retrieve(Object, java.util.function.Supplier)}
+ * 与 {@link ChenilleCacheUtils#get(String, Object, Class)}
+ */
+class ChenilleCacheRetrieveTest {
+
+    @Test
+    void localHitCompletesImmediately() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        primary.put("k", "v1");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).build();
+
+        CompletableFuture<?> future = cache.retrieve("k");
+        assertNotNull(future);
+        assertTrue(future.isDone());
+        assertEquals("v1", ((Cache.ValueWrapper) future.join()).get());
+    }
+
+    @Test
+    void remoteHitIsBackfilled() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users");
+        secondary.put("k", "v1");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).secondary(secondary).build();
+
+        assertEquals("v1", ((Cache.ValueWrapper) cache.retrieve("k").join()).get());
+        assertEquals("v1", primary.get("k").get());
+        assertNull(cache.retrieve("missing").join());
+    }
+
+    @Test
+    void bothTiersDisabledReturnsNull() {
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().build();
+
+        assertNull(cache.retrieve("k"));
+    }
+
+    @Test
+    void blockingRemoteFailureIsAMiss() {
+        ChenilleCacheCircuitBreaker config = new ChenilleCacheCircuitBreaker();
+        config.setEnabled(true);
+        config.setFailureThreshold(1);
+        ChenilleCircuitBreaker breaker = new ChenilleCircuitBreaker(config);
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users") {
+            @Override
+            public ValueWrapper get(Object key) {
+                throw new IllegalStateException("redis down");
+            }
+        };
+        ChenilleTwoLevelCacheFixture fixture = new ChenilleTwoLevelCacheFixture()
+                .primary(new ConcurrentMapCache("users"))
+                .secondary(secondary)
+                .circuitBreaker(breaker);
+        ChenilleTwoLevelCache cache = fixture.build();
+
+        assertNull(cache.retrieve("k").join());
+        assertEquals(ChenilleCircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(1, fixture.stats().remoteErrorCount());
+    }
+
+    @Test
+    void retrieveWithLoaderLoadsOnceAndCaches() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).build();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("v1", cache.retrieve("k", () -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).join());
+        assertEquals("v1", cache.retrieve("k", () -> CompletableFuture.completedFuture("v" + calls.incrementAndGet())).join());
+        assertEquals(1, calls.get());
+        assertEquals("v1", primary.get("k").get());
+    }
+
+    @Test
+    void retrieveWithLoaderRunsLoaderWhenBothTiersAreDisabled() {
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().build();
+
+        assertEquals("v1", cache.retrieve("k", () -> CompletableFuture.completedFuture("v1")).join());
+    }
+
+    @Test
+    void failedAsyncLoadIsNotCached() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).build();
+
+        CompletableFuture<String> failed = cache.retrieve("k",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+        assertThrows(Exception.class, failed::join);
+        assertNull(primary.get("k"));
+    }
+
+    @Test
+    void cacheUtilsGetReportsTypeMismatch() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        primary.put("k", "text");
+        ChenilleCacheUtils cacheUtils = cacheUtils(new ChenilleTwoLevelCacheFixture().primary(primary).build());
+
+        assertEquals("text", cacheUtils.get("users", "k", String.class).block());
+        assertThrows(IllegalStateException.class, () -> cacheUtils.get("users", "k", Long.class).block());
+        assertNull(cacheUtils.get("users", "missing", String.class).block());
+    }
+
+    private static ChenilleCacheUtils cacheUtils(ChenilleTwoLevelCache cache) {
+        ChenilleTwoLevelCacheManager manager = mock(ChenilleTwoLevelCacheManager.class);
+        when(manager.getTwoLevelCache(cache.name())).thenReturn(cache);
+        return new ChenilleCacheUtils(new ChenilleCache(), manager, null, new ChenilleJsonUtils());
+    }
+}
@@ -0,0 +1,131 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.model.property.ChenilleCacheCircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 二级缓存熔断器状态流转
+ */
+class ChenilleCircuitBreakerTest {
+
+    private static ChenilleCircuitBreaker breaker(long openDuration) {
+        ChenilleCacheCircuitBreaker config = new ChenilleCacheCircuitBreaker();
+        config.setEnabled(true);
+        config.setFailureThreshold(3);
+        config.setSlowCallThreshold(100);
+        config.setOpenDuration(openDuration);
+        config.setHalfOpenCalls(1);
+        return new ChenilleCircuitBreaker(config);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        ChenilleCircuitBreaker breaker = breaker(60_000);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(ChenilleCircuitBreaker.State.CLOSED, breaker.state());
+
+        breaker.onFailure();
+        assertEquals(ChenilleCircuitBreaker.State.OPEN, breaker.state());
+        assertTrue(breaker.isDegraded());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.rejectedCount());
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        ChenilleCircuitBreaker breaker = breaker(60_000);
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess(0);
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(ChenilleCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void slowCallsCountAsFailures() {
+        ChenilleCircuitBreaker breaker = breaker(60_000);
+        long slow = TimeUnit.MILLISECONDS.toNanos(200);
+        for (int i = 0; i < 3; i++) {
+            breaker.onSuccess(slow);
+        }
+
+        assertEquals(ChenilleCircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void halfOpenProbeSuccessCloses() {
+        ChenilleCircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertEquals(ChenilleCircuitBreaker.State.OPEN, breaker.state());
+
+        // 熔断时间已过，第一个请求作为试探放行，其余请求仍被拒绝
+        assertTrue(breaker.tryAcquire());
+        assertEquals(ChenilleCircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onSuccess(0);
+        assertEquals(ChenilleCircuitBreaker.State.CLOSED, breaker.state());
+        assertFalse(breaker.isDegraded());
+        assertTrue(breaker.tryAcquire());
+        assertEquals(1, breaker.transitionCount(ChenilleCircuitBreaker.State.HALF_OPEN));
+        assertEquals(1, breaker.transitionCount(ChenilleCircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void halfOpenProbeFailureReopens() {
+        ChenilleCircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertTrue(breaker.tryAcquire());
+        assertEquals(ChenilleCircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onFailure();
+        assertEquals(ChenilleCircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(2, breaker.transitionCount(ChenilleCircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void halfOpenRejectsBeyondProbePermits() {
+        ChenilleCircuitBreaker breaker = breaker(60_000);
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertFalse(breaker.tryAcquire());
+        assertEquals(ChenilleCircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void limitsPendingWrites() {
+        ChenilleCacheCircuitBreaker config = new ChenilleCacheCircuitBreaker();
+        config.setEnabled(true);
+        config.setMaxPendingWrites(1);
+        ChenilleCircuitBreaker breaker = new ChenilleCircuitBreaker(config);
+
+        assertTrue(breaker.tryStartWrite());
+        assertFalse(breaker.tryStartWrite());
+        assertEquals(1, breaker.droppedWriteCount());
+        breaker.finishWrite();
+        assertTrue(breaker.tryStartWrite());
+    }
+
+    @Test
+    void disabledAlwaysAllows() {
+        ChenilleCircuitBreaker breaker = new ChenilleCircuitBreaker(null);
+        for (int i = 0; i < 10; i++) {
+            breaker.onFailure();
+        }
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.isDegraded());
+        assertEquals(ChenilleCircuitBreaker.State.CLOSED, breaker.state());
+    }
+}
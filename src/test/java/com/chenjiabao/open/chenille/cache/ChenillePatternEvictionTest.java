@@ -0,0 +1,149 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 按模式清理：{@link ChenilleTwoLevelCache#evictByPattern(String)} 与 {@link ChenilleTwoLevelCache#clearLocal(String)}
+ */
+class ChenillePatternEvictionTest {
+
+    @Test
+    void clearLocalRemovesOnlyMatchingKeys() {
+        CaffeineCache primary = new CaffeineCache("users", Caffeine.newBuilder().build());
+        primary.put("user:1", "a");
+        primary.put("user:2", "b");
+        primary.put("order:1", "c");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).build();
+
+        cache.clearLocal("user:*");
+
+        assertNull(primary.get("user:1"));
+        assertNull(primary.get("user:2"));
+        assertEquals("c", primary.get("order:1").get());
+    }
+
+    @Test
+    void clearLocalClearsEverythingWhenPrimaryIsNotCaffeine() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        primary.put("user:1", "a");
+        primary.put("order:1", "c");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).build();
+
+        cache.clearLocal("user:*");
+
+        assertNull(primary.get("user:1"));
+        assertNull(primary.get("order:1"));
+    }
+
+    @Test
+    void evictByPatternScansAndUnlinksInBatchesThenPublishesOneClear() {
+        CaffeineCache primary = new CaffeineCache("users", Caffeine.newBuilder().build());
+        primary.put("user:1", "a");
+        primary.put("order:1", "c");
+        @SuppressWarnings("unchecked")
+        ReactiveRedisTemplate<String, Object> template = mock(ReactiveRedisTemplate.class);
+        when(template.scan(any(ScanOptions.class)))
+                .thenReturn(Flux.just("users::user:1", "users::user:2", "users::user:3"));
+        when(template.unlink(any(String[].class)))
+                .thenAnswer(invocation -> Mono.just((long) invocation.getArguments().length));
+        ChenilleCacheMessagePublisher publisher = mock(ChenilleCacheMessagePublisher.class);
+        ChenilleCache properties = new ChenilleCache();
+        properties.setClearBatchSize(2);
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture()
+                .primary(primary)
+                .secondary(new ConcurrentMapCache("users"))
+                .reactiveRedisTemplate(template)
+                .publisher(publisher)
+                .properties(properties)
+                .build();
+
+        cache.evictByPattern("user:*");
+
+        ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass(ScanOptions.class);
+        verify(template).scan(options.capture());
+        assertEquals("users::user:*", options.getValue().getPattern());
+        assertEquals(2L, options.getValue().getCount());
+
+        ArgumentCaptor<String[]> batches = ArgumentCaptor.forClass(String[].class);
+        verify(template, times(2)).unlink(batches.capture());
+        List<String> unlinked = new ArrayList<>();
+        batches.getAllValues().forEach(batch -> unlinked.addAll(List.of(batch)));
+        assertEquals(List.of("users::user:1", "users::user:2", "users::user:3"), unlinked);
+
+        verify(publisher, times(1)).publishClear(eq("users"), eq("user:*"), anyLong());
+        assertNull(primary.get("user:1"));
+        assertEquals("c", primary.get("order:1").get());
+    }
+
+    @Test
+    void remotePatternEscapesGlobCharactersExceptStar() {
+        @SuppressWarnings("unchecked")
+        ReactiveRedisTemplate<String, Object> template = mock(ReactiveRedisTemplate.class);
+        when(template.scan(any(ScanOptions.class))).thenReturn(Flux.empty());
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture()
+                .primary(new CaffeineCache("users", Caffeine.newBuilder().build()))
+                .secondary(new ConcurrentMapCache("a*[b]"))
+                .reactiveRedisTemplate(template)
+                .build();
+
+        cache.evictByPattern("user?[1]:*");
+
+        ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass(ScanOptions.class);
+        verify(template).scan(options.capture());
+        assertEquals("a\\*\\[b\\]::user\\?\\[1\\]:*", options.getValue().getPattern());
+        verify(template, never()).unlink(any(String[].class));
+    }
+
+    @Test
+    void scanFailureDoesNotPublish() {
+        @SuppressWarnings("unchecked")
+        ReactiveRedisTemplate<String, Object> template = mock(ReactiveRedisTemplate.class);
+        when(template.scan(any(ScanOptions.class))).thenReturn(Flux.error(new IllegalStateException("redis down")));
+        ChenilleCacheMessagePublisher publisher = mock(ChenilleCacheMessagePublisher.class);
+        ChenilleTwoLevelCacheFixture fixture = new ChenilleTwoLevelCacheFixture()
+                .primary(new CaffeineCache("users", Caffeine.newBuilder().build()))
+                .secondary(new ConcurrentMapCache("users"))
+                .reactiveRedisTemplate(template)
+                .publisher(publisher);
+        ChenilleTwoLevelCache cache = fixture.build();
+
+        cache.evictByPattern("user:*");
+
+        verify(publisher, never()).publishClear(any(), any(), anyLong());
+        assertEquals(1, fixture.stats().remoteErrorCount());
+    }
+
+    @Test
+    void nonRedisSecondaryIsClearedAndPublishesOnce() {
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users");
+        secondary.put("user:1", "a");
+        secondary.put("order:1", "c");
+        ChenilleCacheMessagePublisher publisher = mock(ChenilleCacheMessagePublisher.class);
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture()
+                .primary(new CaffeineCache("users", Caffeine.newBuilder().build()))
+                .secondary(secondary)
+                .publisher(publisher)
+                .build();
+
+        cache.evictByPattern("user:*");
+
+        assertNull(secondary.get("user:1"));
+        verify(publisher, times(1)).publishClear(eq("users"), eq("user:*"), anyLong());
+    }
+}
@@ -0,0 +1,113 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.core.ChenilleCacheUtils;
+import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
+import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 响应式请求合并：{@link ChenilleReactiveSingleFlight} 与 {@link ChenilleCacheUtils#computeIfAbsent}
+ */
+class ChenilleReactiveSingleFlightTest {
+
+    @Test
+    void concurrentSubscribersShareOneUpstreamSubscription() {
+        ChenilleReactiveSingleFlight singleFlight = new ChenilleReactiveSingleFlight();
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<String> loader = Mono.fromCallable(() -> "v" + subscriptions.incrementAndGet())
+                .delayElement(Duration.ofMillis(100));
+
+        List<String> results = Flux.range(0, 8)
+                .flatMap(i -> singleFlight.load("k", () -> loader))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(8, results.size());
+        assertTrue(results.stream().allMatch("v1"::equals));
+        assertEquals(1, subscriptions.get());
+        assertEquals(1, singleFlight.executedCount());
+        assertEquals(7, singleFlight.coalescedCount());
+    }
+
+    @Test
+    void completedLoadIsNotReused() {
+        ChenilleReactiveSingleFlight singleFlight = new ChenilleReactiveSingleFlight();
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        assertEquals("v1", singleFlight.load("k", () -> Mono.fromCallable(() -> "v" + subscriptions.incrementAndGet())).block());
+        assertEquals("v2", singleFlight.load("k", () -> Mono.fromCallable(() -> "v" + subscriptions.incrementAndGet())).block());
+    }
+
+    @Test
+    void failureIsSharedButNotKept() {
+        ChenilleReactiveSingleFlight singleFlight = new ChenilleReactiveSingleFlight();
+
+        assertThrows(IllegalStateException.class,
+                () -> singleFlight.load("k", () -> Mono.<String>error(new IllegalStateException("boom"))).block());
+        assertEquals(1, singleFlight.failureCount());
+        assertEquals("v1", singleFlight.load("k", () -> Mono.just("v1")).block());
+    }
+
+    @Test
+    void computeIfAbsentCoalescesMissesAndCachesTheResult() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleCacheUtils cacheUtils = cacheUtils(new ChenilleTwoLevelCacheFixture().primary(primary).build());
+        AtomicInteger calls = new AtomicInteger();
+
+        List<String> results = Flux.range(0, 8)
+                .flatMap(i -> cacheUtils.<String, String>computeIfAbsent("users", "k",
+                        key -> Mono.fromCallable(() -> "v" + calls.incrementAndGet()).delayElement(Duration.ofMillis(100))))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(8, results.size());
+        assertTrue(results.stream().allMatch("v1"::equals));
+        assertEquals(1, calls.get());
+        assertEquals("v1", primary.get("k").get());
+
+        assertEquals("v1", cacheUtils.<String, String>computeIfAbsent("users", "k",
+                key -> Mono.fromCallable(() -> "v" + calls.incrementAndGet())).block());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void computeIfAbsentCachesEmptyResultAsNull() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleCacheUtils cacheUtils = cacheUtils(new ChenilleTwoLevelCacheFixture().primary(primary).build());
+        AtomicInteger calls = new AtomicInteger();
+
+        assertNull(cacheUtils.<String, String>computeIfAbsent("users", "k",
+                key -> Mono.fromRunnable(calls::incrementAndGet)).block());
+        assertNull(cacheUtils.<String, String>computeIfAbsent("users", "k",
+                key -> Mono.fromCallable(() -> "v" + calls.incrementAndGet())).block());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void computeIfAbsentDoesNotCacheErrors() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleCacheUtils cacheUtils = cacheUtils(new ChenilleTwoLevelCacheFixture().primary(primary).build());
+
+        assertThrows(IllegalStateException.class, () -> cacheUtils.<String, String>computeIfAbsent("users", "k",
+                key -> Mono.error(new IllegalStateException("boom"))).block());
+        assertNull(primary.get("k"));
+        assertEquals("v1", cacheUtils.<String, String>computeIfAbsent("users", "k", key -> Mono.just("v1")).block());
+    }
+
+    private static ChenilleCacheUtils cacheUtils(ChenilleTwoLevelCache cache) {
+        ChenilleTwoLevelCacheManager manager = mock(ChenilleTwoLevelCacheManager.class);
+        when(manager.getTwoLevelCache(cache.name())).thenReturn(cache);
+        return new ChenilleCacheUtils(new ChenilleCache(), manager, null, new ChenilleJsonUtils());
+    }
+}
@@ -0,0 +1,132 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.core.ChenilleCacheUtils;
+import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
+import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 集合值的原子替换：{@link ChenilleCacheUtils#putRedis} 通过一次脚本调用删除旧 key、写入元素并设置过期时间
+ */
+class ChenilleRedisReplaceTest {
+
+    private ReactiveRedisTemplate<String, Object> template;
+    private ChenilleCacheUtils cacheUtils;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        template = mock(ReactiveRedisTemplate.class);
+        when(template.getSerializationContext())
+                .thenReturn(RedisSerializationContext.<String, Object>newSerializationContext(RedisSerializer.string()).build());
+        doReturn(Flux.just(0L)).when(template)
+                .execute(any(RedisScript.class), anyList(), anyList(), any(RedisElementWriter.class), any(RedisElementReader.class));
+        cacheUtils = new ChenilleCacheUtils(new ChenilleCache(), null, template, new ChenilleJsonUtils());
+    }
+
+    @Test
+    void listIsReplacedInOneScriptCall() {
+        cacheUtils.putRedis("list", List.of("a", "b", "c"), 60, TimeUnit.SECONDS).block();
+
+        assertEquals(List.of("list"), capturedKeys());
+        assertEquals(List.of("60000", "RPUSH", "a", "b", "c"), capturedArgs());
+        verify(template, never()).delete(anyString());
+        verify(template, never()).expire(anyString(), any(Duration.class));
+    }
+
+    @Test
+    void mapIsWrittenAsFieldValuePairs() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("f1", "v1");
+        map.put("f2", "v2");
+
+        cacheUtils.putRedis("hash", map, 2, TimeUnit.MINUTES).block();
+
+        assertEquals(List.of("hash"), capturedKeys());
+        assertEquals(List.of("120000", "HSET", "f1", "v1", "f2", "v2"), capturedArgs());
+    }
+
+    @Test
+    void setUsesSadd() {
+        cacheUtils.putRedis("set", new LinkedHashSet<>(List.of("a", "b")), 0, TimeUnit.SECONDS).block();
+
+        // ttl 为 0 时脚本不设置过期时间
+        assertEquals(List.of("0", "SADD", "a", "b"), capturedArgs());
+    }
+
+    @Test
+    void emptyCollectionOnlyDeletesTheKey() {
+        cacheUtils.putRedis("list", List.of(), 60, TimeUnit.SECONDS).block();
+
+        // 没有元素时脚本只执行 UNLINK，也不会设置过期时间
+        assertEquals(List.of("60000", "RPUSH"), capturedArgs());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scalarValueIsSetWithExpirationWithoutScript() {
+        ReactiveValueOperations<String, Object> values = mock(ReactiveValueOperations.class);
+        when(template.opsForValue()).thenReturn(values);
+        when(values.set(anyString(), any(), any(Duration.class))).thenReturn(Mono.just(true));
+
+        cacheUtils.putRedis("count", 42, 10, TimeUnit.SECONDS).block();
+
+        verify(values).set("count", 42, Duration.ofSeconds(10));
+        verify(template, never()).execute(any(RedisScript.class), anyList(), anyList(), any(RedisElementWriter.class), any(RedisElementReader.class));
+    }
+
+    @Test
+    void putRedisAllReplacesEachKeyOnce() {
+        Map<String, Object> entries = new LinkedHashMap<>();
+        entries.put("l1", List.of("a"));
+        entries.put("l2", List.of("b"));
+
+        cacheUtils.putRedisAll(entries, 1, TimeUnit.SECONDS).block();
+
+        verify(template, times(2)).execute(any(RedisScript.class), anyList(), anyList(), any(RedisElementWriter.class), any(RedisElementReader.class));
+    }
+
+    @Test
+    void redisDisabledDoesNothing() {
+        ChenilleCacheUtils disabled = new ChenilleCacheUtils(new ChenilleCache(), null, null, new ChenilleJsonUtils());
+
+        assertNull(disabled.putRedis("list", List.of("a"), 60, TimeUnit.SECONDS).block());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> capturedKeys() {
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(template, times(1)).execute(any(RedisScript.class), keys.capture(), anyList(), any(RedisElementWriter.class), any(RedisElementReader.class));
+        return keys.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> capturedArgs() {
+        ArgumentCaptor<List<ByteBuffer>> args = ArgumentCaptor.forClass(List.class);
+        verify(template, times(1)).execute(any(RedisScript.class), anyList(), args.capture(), any(RedisElementWriter.class), any(RedisElementReader.class));
+        return args.getValue().stream()
+                .map(buffer -> StandardCharsets.UTF_8.decode(buffer.duplicate()).toString())
+                .toList();
+    }
+}
@@ -0,0 +1,159 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.core.ChenilleCacheUtils;
+import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
+import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveListOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveSetOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 分页读取：{@link ChenilleCacheUtils#streamRedisList}、{@link ChenilleCacheUtils#streamRedisSet}、
+ * {@link ChenilleCacheUtils#streamRedisMap}
+ */
+class ChenilleRedisStreamTest {
+
+    private ReactiveRedisTemplate<String, Object> template;
+    private ReactiveListOperations<String, Object> lists;
+    private ChenilleCacheUtils cacheUtils;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        template = mock(ReactiveRedisTemplate.class);
+        lists = mock(ReactiveListOperations.class);
+        when(template.opsForList()).thenReturn(lists);
+        cacheUtils = new ChenilleCacheUtils(new ChenilleCache(), null, template, new ChenilleJsonUtils());
+    }
+
+    @Test
+    void listIsReadInConsecutiveWindows() {
+        List<Object> stored = range(0, 7);
+        stubList(stored);
+
+        List<Integer> read = cacheUtils.streamRedisList("list", Integer.class, 3).collectList().block();
+
+        assertEquals(stored, read);
+        verify(lists).range("list", 0, 2);
+        verify(lists).range("list", 3, 5);
+        verify(lists).range("list", 6, 8);
+        verifyNoMoreInteractions(lists);
+    }
+
+    @Test
+    void fullLastPageReadsOneEmptyPageToTerminate() {
+        stubList(range(0, 6));
+
+        assertEquals(6, cacheUtils.streamRedisList("list", Integer.class, 3).collectList().block().size());
+        verify(lists).range("list", 6, 8);
+        verify(lists, times(3)).range(eq("list"), anyLong(), anyLong());
+    }
+
+    @Test
+    void nextPageIsReadOnlyOnDemand() {
+        AtomicInteger reads = stubList(range(0, 10));
+
+        List<Integer> read = cacheUtils.streamRedisList("list", Integer.class, 3).take(2).collectList().block();
+
+        assertEquals(List.of(0, 1), read);
+        // 只订阅（即发送 LRANGE）第一页
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void elementsOfOtherTypesAreSkipped() {
+        stubList(List.of(1, "two", 3));
+
+        assertEquals(List.of(1, 3), cacheUtils.streamRedisList("list", Integer.class, 2).collectList().block());
+    }
+
+    @Test
+    void nonPositivePageSizeReadsOneElementPerPage() {
+        stubList(range(0, 2));
+
+        assertEquals(List.of(0, 1), cacheUtils.streamRedisList("list", Integer.class, 0).collectList().block());
+        verify(lists).range("list", 0, 0);
+        verify(lists).range("list", 1, 1);
+        verify(lists).range("list", 2, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setIsScannedWithPageSizeAsCount() {
+        ReactiveSetOperations<String, Object> sets = mock(ReactiveSetOperations.class);
+        when(template.opsForSet()).thenReturn(sets);
+        when(sets.scan(eq("set"), any(ScanOptions.class))).thenReturn(Flux.just("a", 1, "b"));
+
+        assertEquals(List.of("a", "b"), cacheUtils.streamRedisSet("set", String.class, 50).collectList().block());
+
+        ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass(ScanOptions.class);
+        verify(sets).scan(eq("set"), options.capture());
+        assertEquals(50L, options.getValue().getCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapIsScannedAndFilteredByType() {
+        ReactiveHashOperations<String, Object, Object> hashes = mock(ReactiveHashOperations.class);
+        when(template.opsForHash()).thenReturn(hashes);
+        when(hashes.scan(eq("hash"), any(ScanOptions.class)))
+                .thenReturn(Flux.just(Map.entry("f1", 1), Map.entry("f2", "x"), Map.entry(3, 3)));
+
+        List<Map.Entry<String, Integer>> read = cacheUtils.streamRedisMap("hash", String.class, Integer.class, 10)
+                .collectList().block();
+
+        assertEquals(List.of(Map.entry("f1", 1)), read);
+        ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass(ScanOptions.class);
+        verify(hashes).scan(eq("hash"), options.capture());
+        assertEquals(10L, options.getValue().getCount());
+    }
+
+    @Test
+    void redisDisabledIsEmpty() {
+        ChenilleCacheUtils disabled = new ChenilleCacheUtils(new ChenilleCache(), null, null, new ChenilleJsonUtils());
+
+        assertTrue(disabled.streamRedisList("list", Integer.class, 3).collectList().block().isEmpty());
+    }
+
+    /**
+     * 按 LRANGE 的语义返回 stored 中 [start, end] 的元素
+     *
+     * @return 实际被订阅（即发送到 Redis）的 LRANGE 次数
+     */
+    private AtomicInteger stubList(List<Object> stored) {
+        AtomicInteger reads = new AtomicInteger();
+        when(lists.range(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long start = invocation.getArgument(1);
+            long end = invocation.getArgument(2);
+            return Flux.defer(() -> {
+                reads.incrementAndGet();
+                List<Object> page = new ArrayList<>();
+                for (long i = start; i <= end && i < stored.size(); i++) {
+                    page.add(stored.get((int) i));
+                }
+                return Flux.fromIterable(page);
+            });
+        });
+        return reads;
+    }
+
+    private static List<Object> range(int from, int to) {
+        return IntStream.range(from, to).boxed().map(Object.class::cast).toList();
+    }
+}
@@ -0,0 +1,174 @@
+package com.chenjiabao.open.chenille.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 单飞加载：{@link ChenilleTwoLevelCache#get(Object, Callable)} 与 {@link ChenilleSingleFlight}
+ */
+class ChenilleSingleFlightTest {
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).build();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            calls.incrementAndGet();
+            release.await();
+            return "v1";
+        };
+
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> cache.get("k", loader)));
+            }
+            // 等待所有线程进入加载或等待加载结果
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("v1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals("v1", primary.get("k").get());
+    }
+
+    @Test
+    void loaderRunsWhenBothTiersAreDisabled() {
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().build();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("v1", cache.get("k", () -> "v" + calls.incrementAndGet()));
+        assertEquals("v2", cache.get("k", () -> "v" + calls.incrementAndGet()));
+    }
+
+    @Test
+    void loaderFailureWhenBothTiersAreDisabledIsWrapped() {
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().build();
+
+        Cache.ValueRetrievalException e = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("k", () -> {
+                    throw new IllegalStateException("boom");
+                }));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).build();
+
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("k", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertNull(primary.get("k"));
+        assertEquals("v1", cache.get("k", () -> "v1"));
+    }
+
+    @Test
+    void cachedNullIsAHit() {
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture().primary(primary).build();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertNull(cache.get("k", () -> {
+            calls.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.get("k", () -> {
+            calls.incrementAndGet();
+            return "v1";
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void followerTimesOutWhileLeaderIsLoading() throws Exception {
+        ChenilleTwoLevelCache cache = new ChenilleTwoLevelCacheFixture()
+                .primary(new ConcurrentMapCache("users"))
+                .singleFlight(new ChenilleSingleFlight(100))
+                .build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = pool.submit(() -> cache.get("k", () -> {
+                loading.countDown();
+                release.await();
+                return "v1";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            Cache.ValueRetrievalException e = assertThrows(Cache.ValueRetrievalException.class,
+                    () -> cache.get("k", () -> "follower"));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+
+            release.countDown();
+            assertEquals("v1", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void singleFlightSharesResultAndClearsAfterCompletion() {
+        ChenilleSingleFlight singleFlight = new ChenilleSingleFlight(10_000);
+        CompletableFuture<String> source = new CompletableFuture<>();
+        List<String> stored = new ArrayList<>();
+
+        CompletableFuture<String> first = singleFlight.load("k", () -> source, stored::add);
+        CompletableFuture<String> second = singleFlight.load("k", () -> CompletableFuture.completedFuture("other"), stored::add);
+        assertEquals(1, singleFlight.inFlightCount());
+
+        source.complete("v1");
+        assertEquals("v1", first.join());
+        assertEquals("v1", second.join());
+        assertEquals(List.of("v1"), stored);
+        assertEquals(1, singleFlight.executedCount());
+        assertEquals(1, singleFlight.coalescedCount());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void singleFlightFailureIsNotStored() {
+        ChenilleSingleFlight singleFlight = new ChenilleSingleFlight(10_000);
+        List<String> stored = new ArrayList<>();
+
+        CompletableFuture<String> failed = singleFlight.load("k",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("boom")), stored::add);
+
+        assertThrows(CompletionException.class, failed::join);
+        assertTrue(stored.isEmpty());
+        assertEquals(1, singleFlight.failureCount());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void singleFlightTimesOutSlowLoads() {
+        ChenilleSingleFlight singleFlight = new ChenilleSingleFlight(50);
+
+        CompletableFuture<String> slow = singleFlight.load("k", CompletableFuture::new, value -> {
+        });
+
+        CompletionException e = assertThrows(CompletionException.class, slow::join);
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+}
@@ -0,0 +1,154 @@
+package com.chenjiabao.open.chenille.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.framework.ReflectiveMethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SpEL key 生成：简单路径、编译执行与默认 key
+ */
+class ChenilleSpElParserTest {
+
+    private final KeyService service = new KeyService();
+
+    @Test
+    void simplePathReadsGetterAndRecordAccessor() {
+        JoinPoint joinPoint = joinPoint("find", new Object[]{new User(42L, "chenille"), new Tenant("t1")},
+                User.class, Tenant.class);
+
+        assertEquals("42", ChenilleSpElParser.parseKey("#p0.id", joinPoint));
+        assertEquals("chenille", ChenilleSpElParser.parseKey("#a0.name", joinPoint));
+        assertEquals("t1", ChenilleSpElParser.parseKey("#p1.code", joinPoint));
+    }
+
+    @Test
+    void simplePathWithNullIntermediateFallsBackToSpel() {
+        JoinPoint joinPoint = joinPoint("find", new Object[]{null, new Tenant("t1")}, User.class, Tenant.class);
+
+        assertNull(ChenilleSpElParser.parseKey("#p0?.id", joinPoint));
+        assertNull(ChenilleSpElParser.parseKey("#p0", joinPoint));
+    }
+
+    @Test
+    void compositeExpressionIsEvaluated() {
+        JoinPoint joinPoint = joinPoint("page", new Object[]{new User(42L, "chenille"), 7}, User.class, int.class);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("chenille:7", ChenilleSpElParser.parseKey("#p0.name + ':' + #p1", joinPoint));
+        }
+    }
+
+    @Test
+    void compiledExpressionSurvivesArgumentTypeChange() {
+        JoinPoint integer = joinPoint("any", new Object[]{1}, Object.class);
+        JoinPoint longValue = joinPoint("any", new Object[]{2L}, Object.class);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("2", ChenilleSpElParser.parseKey("#p0 * 2", integer));
+            assertEquals("4", ChenilleSpElParser.parseKey("#p0 * 2", longValue));
+        }
+    }
+
+    @Test
+    void defaultKeyContainsArguments() {
+        String prefix = KeyService.class.getName() + ".list";
+
+        assertEquals(prefix + "(42,vip)",
+                ChenilleSpElParser.parseKey("", joinPoint("list", new Object[]{42L, "vip"}, Long.class, String.class)));
+        assertEquals(KeyService.class.getName() + ".none()",
+                ChenilleSpElParser.parseKey(null, joinPoint("none", new Object[0])));
+    }
+
+    @Test
+    void defaultKeyDistinguishesArgumentBoundaries() {
+        String split = ChenilleSpElParser.parseKey("", joinPoint("pair", new Object[]{"a", "b"}, String.class, String.class));
+        String joined = ChenilleSpElParser.parseKey("", joinPoint("pair", new Object[]{"a,b", ""}, String.class, String.class));
+        String escaped = ChenilleSpElParser.parseKey("", joinPoint("pair", new Object[]{"a\\", ",b"}, String.class, String.class));
+
+        assertNotEquals(split, joined);
+        assertNotEquals(split, escaped);
+        assertNotEquals(joined, escaped);
+    }
+
+    @Test
+    void defaultKeyDistinguishesNullFromText() {
+        String nullArg = ChenilleSpElParser.parseKey("", joinPoint("pair", new Object[]{null, "x"}, String.class, String.class));
+        String nullText = ChenilleSpElParser.parseKey("", joinPoint("pair", new Object[]{"null", "x"}, String.class, String.class));
+        String marker = ChenilleSpElParser.parseKey("", joinPoint("pair", new Object[]{"\\N", "x"}, String.class, String.class));
+
+        assertNotEquals(nullArg, nullText);
+        assertNotEquals(nullArg, marker);
+    }
+
+    private JoinPoint joinPoint(String name, Object[] args, Class<?>... parameterTypes) {
+        try {
+            Method method = KeyService.class.getMethod(name, parameterTypes);
+            return new MethodInvocationProceedingJoinPoint(new Invocation(service, method, args));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 只用于提供方法签名与参数
+     */
+    private static final class Invocation extends ReflectiveMethodInvocation {
+        private Invocation(Object target, Method method, Object[] args) {
+            super(target, target, method, args, target.getClass(), List.<Object>of((MethodInterceptor) invocation -> null));
+        }
+    }
+
+    public static class User {
+        private final Long id;
+        private final String name;
+
+        public User(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public record Tenant(String code) {
+    }
+
+    public static class KeyService {
+        public User find(User user, Tenant tenant) {
+            return user;
+        }
+
+        public List<User> page(User user, int page) {
+            return List.of();
+        }
+
+        public Object any(Object value) {
+            return value;
+        }
+
+        public List<User> list(Long id, String type) {
+            return List.of();
+        }
+
+        public List<User> none() {
+            return List.of();
+        }
+
+        public String pair(String first, String second) {
+            return first + second;
+        }
+    }
+}
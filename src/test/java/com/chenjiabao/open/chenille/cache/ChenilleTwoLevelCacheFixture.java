@@ -0,0 +1,100 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
+import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 测试用的 {@link ChenilleTwoLevelCache} 构建器，未设置的组件使用不依赖 Redis 的默认值
+ */
+final class ChenilleTwoLevelCacheFixture {
+
+    private String name = "users";
+    private Cache primaryCache;
+    private Cache secondaryCache;
+    private ChenilleCacheMessagePublisher messagePublisher;
+    private ChenilleCache chenilleCache = new ChenilleCache();
+    private Executor asyncExecutor = Runnable::run;
+    private ChenilleSingleFlight singleFlight = new ChenilleSingleFlight(10_000);
+    private ChenilleReactiveSingleFlight reactiveSingleFlight = new ChenilleReactiveSingleFlight();
+    private ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+    private ChenilleCircuitBreaker circuitBreaker = new ChenilleCircuitBreaker(null);
+    private final ChenilleCacheStats stats = new ChenilleCacheStats();
+
+    ChenilleTwoLevelCacheFixture name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    ChenilleTwoLevelCacheFixture primary(Cache primaryCache) {
+        this.primaryCache = primaryCache;
+        return this;
+    }
+
+    ChenilleTwoLevelCacheFixture secondary(Cache secondaryCache) {
+        this.secondaryCache = secondaryCache;
+        return this;
+    }
+
+    ChenilleTwoLevelCacheFixture publisher(ChenilleCacheMessagePublisher messagePublisher) {
+        this.messagePublisher = messagePublisher;
+        return this;
+    }
+
+    ChenilleTwoLevelCacheFixture properties(ChenilleCache chenilleCache) {
+        this.chenilleCache = chenilleCache;
+        return this;
+    }
+
+    ChenilleTwoLevelCacheFixture executor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        return this;
+    }
+
+    ChenilleTwoLevelCacheFixture singleFlight(ChenilleSingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+        return this;
+    }
+
+    ChenilleTwoLevelCacheFixture reactiveSingleFlight(ChenilleReactiveSingleFlight reactiveSingleFlight) {
+        this.reactiveSingleFlight = reactiveSingleFlight;
+        return this;
+    }
+
+    ChenilleTwoLevelCacheFixture reactiveRedisTemplate(ReactiveRedisTemplate<String, Object> reactiveRedisTemplate) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        return this;
+    }
+
+    ChenilleTwoLevelCacheFixture circuitBreaker(ChenilleCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    ChenilleCacheStats stats() {
+        return stats;
+    }
+
+    ChenilleTwoLevelCache build() {
+        return new ChenilleTwoLevelCache(name,
+                primaryCache,
+                secondaryCache,
+                messagePublisher,
+                new ChenilleJsonUtils(),
+                chenilleCache,
+                asyncExecutor,
+                singleFlight,
+                reactiveSingleFlight,
+                null,
+                reactiveRedisTemplate,
+                null,
+                stats,
+                new ChenilleVersionFence(64),
+                null,
+                null,
+                circuitBreaker);
+    }
+}
@@ -0,0 +1,74 @@
+package com.chenjiabao.open.chenille.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 缓存值序列化器的头部识别与压缩
+ */
+class ChenilleValueSerializerTest {
+
+    @Test
+    void jsonWithoutCompressionHasNoHeader() {
+        ChenilleValueSerializer serializer = new ChenilleValueSerializer(ChenilleJacksonValueCodec.json(), List.of(), 0, 6);
+        Map<String, Object> value = new HashMap<>(Map.of("name", "chenille"));
+        byte[] bytes = serializer.serialize(value);
+
+        // 与旧版本写入的数据完全一致，旧版本节点可以直接读取
+        assertArrayEquals(new GenericJackson2JsonRedisSerializer().serialize(value), bytes);
+        assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void readsLegacyJsonWrittenWithoutHeader() {
+        ChenilleValueSerializer serializer = new ChenilleValueSerializer(ChenilleJacksonValueCodec.json(), List.of(), 1, 6);
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize("chenille");
+
+        assertEquals('"', legacy[0]);
+        assertEquals("chenille", serializer.deserialize(legacy));
+    }
+
+    @Test
+    void readsLegacyJsonObjectAndArray() {
+        ChenilleValueSerializer serializer = new ChenilleValueSerializer(ChenilleJacksonValueCodec.json(), List.of(), 1, 6);
+
+        assertEquals(List.of(1, 2), serializer.deserialize("[\"java.util.ArrayList\",[1,2]]".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(42, serializer.deserialize("42".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void compressesLargeValuesAndRestoresThem() {
+        ChenilleValueSerializer serializer = new ChenilleValueSerializer(ChenilleJacksonValueCodec.json(), List.of(), 64, 6);
+        String value = "chenille".repeat(100);
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(ChenilleJacksonValueCodec.JSON | 0x80, bytes[0] & 0xFF);
+        assertTrue(bytes.length < value.length());
+        assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void smallValuesAreNotCompressed() {
+        ChenilleValueSerializer serializer = new ChenilleValueSerializer(ChenilleJacksonValueCodec.json(), List.of(), 64, 6);
+        byte[] bytes = serializer.serialize("chenille");
+
+        assertEquals('"', bytes[0]);
+        assertEquals("chenille", serializer.deserialize(bytes));
+    }
+
+    @Test
+    void nullAndEmpty() {
+        ChenilleValueSerializer serializer = new ChenilleValueSerializer(ChenilleJacksonValueCodec.json(), List.of(), 0, 6);
+
+        assertEquals(0, serializer.serialize(null).length);
+        assertNull(serializer.deserialize(new byte[0]));
+        assertNull(serializer.deserialize(null));
+    }
+}
@@ -0,0 +1,142 @@
+package com.chenjiabao.open.chenille.cache;
+
+import com.chenjiabao.open.chenille.core.ChenilleJsonUtils;
+import com.chenjiabao.open.chenille.model.property.ChenilleCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 版本栅栏与一级缓存回填
+ */
+class ChenilleVersionFenceTest {
+
+    @Test
+    void advanceInvalidatesRecordedVersion() {
+        ChenilleVersionFence fence = new ChenilleVersionFence(16);
+        long version = fence.current("k");
+        assertTrue(fence.isCurrent("k", version));
+
+        fence.advance("k");
+        assertFalse(fence.isCurrent("k", version));
+    }
+
+    @Test
+    void advanceAllInvalidatesEveryKey() {
+        ChenilleVersionFence fence = new ChenilleVersionFence(16);
+        long a = fence.current("a");
+        long b = fence.current("b");
+
+        fence.advanceAll();
+        assertFalse(fence.isCurrent("a", a));
+        assertFalse(fence.isCurrent("b", b));
+    }
+
+    @Test
+    void clockNeverGoesBackAfterObservingRemoteVersion() {
+        ChenilleVersionFence fence = new ChenilleVersionFence(16);
+        long remote = fence.tick() + (1L << 40);
+        fence.observe(remote);
+        assertTrue(fence.tick() > remote);
+    }
+
+    @Test
+    void backfillIsAppliedWhenKeyIsUnchanged() {
+        QueuedExecutor executor = new QueuedExecutor();
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users");
+        secondary.put("k", "v1");
+        ChenilleTwoLevelCache cache = twoLevelCache(primary, secondary, executor);
+
+        assertEquals("v1", cache.get("k").get());
+        executor.runAll();
+
+        Cache.ValueWrapper local = primary.get("k");
+        assertNotNull(local);
+        assertEquals("v1", local.get());
+    }
+
+    @Test
+    void evictBetweenRemoteReadAndBackfillDropsBackfill() {
+        QueuedExecutor executor = new QueuedExecutor();
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users");
+        secondary.put("k", "v1");
+        ChenilleTwoLevelCache cache = twoLevelCache(primary, secondary, executor);
+
+        assertEquals("v1", cache.get("k").get());
+        // 回填执行前收到失效通知
+        cache.evictLocal("k");
+        executor.runAll();
+
+        assertNull(primary.get("k"));
+    }
+
+    @Test
+    void evictDuringRemoteReadDropsBackfill() {
+        QueuedExecutor executor = new QueuedExecutor();
+        ConcurrentMapCache primary = new ConcurrentMapCache("users");
+        ChenilleTwoLevelCache[] holder = new ChenilleTwoLevelCache[1];
+        // 读取二级缓存期间 key 被清理，读到的是清理前的旧值
+        ConcurrentMapCache secondary = new ConcurrentMapCache("users") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper wrapper = super.get(key);
+                holder[0].evictLocal(key);
+                return wrapper;
+            }
+        };
+        secondary.put("k", "v1");
+        holder[0] = twoLevelCache(primary, secondary, executor);
+
+        assertEquals("v1", holder[0].get("k").get());
+        executor.runAll();
+
+        assertNull(primary.get("k"));
+    }
+
+    private static ChenilleTwoLevelCache twoLevelCache(Cache primary, Cache secondary, Executor executor) {
+        return new ChenilleTwoLevelCache("users",
+                primary,
+                secondary,
+                null,
+                new ChenilleJsonUtils(),
+                new ChenilleCache(),
+                executor,
+                null,
+                null,
+                null,
+                null,
+                null,
+                new ChenilleCacheStats(),
+                new ChenilleVersionFence(64),
+                null,
+                null,
+                new ChenilleCircuitBreaker(null));
+    }
+
+    /**
+     * 暂存提交的任务，由测试决定执行时机
+     */
+    private static final class QueuedExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}